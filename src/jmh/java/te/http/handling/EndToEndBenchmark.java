@@ -0,0 +1,96 @@
+package te.http.handling;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpServer;
+import te.http.handling.metrics.HttpMetrics;
+
+/**
+ * Benchmarks the throughput of {@link GETRequestHandling#executeGET(String, Map)} end-to-end
+ * against an in-process webservice (the JDK's {@link HttpServer}), with & without {@link
+ * HttpMetrics} recording.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class EndToEndBenchmark {
+
+    @Param({"false", "true"})
+    boolean recordMetrics;
+
+    private final Map<String, ?> urlParams = Collections.singletonMap("page", 2);
+
+    private HttpServer webServer;
+    private ExecutorService webServerThreads;
+    private HttpRequestHandling requestHandling;
+    private String url;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] body = "{\"id\":1,\"customerName\":\"Customer #1\",\"status\":\"SHIPPED\",\"shipDate\":\"2019-01-02\"}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        // Otherwise Nagle's algorithm delays the body, which is written separately from the headers
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        webServerThreads = Executors.newFixedThreadPool(8);
+        webServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        webServer.setExecutor(webServerThreads);
+        webServer.createContext("/api/v1/orders", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+        webServer.start();
+
+        url = "http://localhost:" + webServer.getAddress().getPort() + "/api/v1/orders";
+
+        HttpMetrics httpMetrics = recordMetrics ? new HttpMetrics() : null;
+        requestHandling = new HttpRequestHandling() {
+            @Override
+            public HttpMetrics getHttpMetrics() {
+                return httpMetrics;
+            }
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        webServer.stop(0);
+        webServerThreads.shutdown();
+    }
+
+    @Benchmark
+    public HttpResponse executeGET() throws IOException {
+        return requestHandling.executeGET(url, urlParams);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public HttpResponse executeGETConcurrently() throws IOException {
+        return requestHandling.executeGET(url, urlParams);
+    }
+}
@@ -0,0 +1,62 @@
+package te.http.handling;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Benchmarks building a {@link HttpResponse} (i.e. buffering the body) and reading its body as a
+ * String, for bodies of 'bodySize' bytes.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HttpResponseBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    int bodySize;
+
+    private final Request request = new Request.Builder().url("http://localhost/benchmark").build();
+
+    private byte[] body;
+    private HttpResponse httpResponse;
+
+    @Setup
+    public void setUp() {
+        body = new byte[bodySize];
+        Arrays.fill(body, (byte) 'a');
+        httpResponse = construct();
+    }
+
+    @Benchmark
+    public HttpResponse construct() {
+        return new HttpResponse(
+                new Response.Builder()
+                        .request(request)
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(200)
+                        .message("OK")
+                        .body(ResponseBody.create(HttpRequestHandling.applicationJSON, body))
+                        .build()
+        );
+    }
+
+    @Benchmark
+    public Optional<String> getBodyAsString() {
+        return httpResponse.getBodyAsString();
+    }
+}
@@ -0,0 +1,81 @@
+package te.http.handling;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmarks {@link JsonMarshalling} on JSON arrays of 'size' objects.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonMarshallingBenchmark {
+
+    @Param({"1", "100", "10000"})
+    int size;
+
+    private final JsonMarshalling jsonMarshalling = new JsonMarshalling() {};
+
+    private List<Order> orders;
+    private String orderJson;
+    private String ordersJson;
+
+    @Setup
+    public void setUp() {
+        orders = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            orders.add(new Order(i));
+        }
+
+        orderJson = jsonMarshalling.toJson(orders.get(0));
+        ordersJson = jsonMarshalling.toJson(orders);
+    }
+
+    @Benchmark
+    public Order fromJson() {
+        return jsonMarshalling.fromJson(orderJson, Order.class);
+    }
+
+    @Benchmark
+    public List<Order> fromJsonList() {
+        return jsonMarshalling.fromJsonList(ordersJson, Order.class);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return jsonMarshalling.toJson(orders);
+    }
+
+    public static class Order {
+        long id;
+        String customerName;
+        String status;
+        double total;
+        LocalDate shipDate;
+        LocalDateTime createdAt;
+        List<String> items;
+
+        Order(long id) {
+            this.id = id;
+            this.customerName = "Customer #" + id;
+            this.status = id % 2 == 0 ? "SHIPPED" : "PENDING";
+            this.total = id * 12.34;
+            this.shipDate = LocalDate.of(2019, 1, 1).plusDays(id % 365);
+            this.createdAt = LocalDateTime.of(2018, 12, 1, 8, 30).plusMinutes(id);
+            this.items = Arrays.asList("widget", "gadget", "sprocket");
+        }
+    }
+}
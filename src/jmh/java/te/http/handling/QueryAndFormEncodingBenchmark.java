@@ -0,0 +1,70 @@
+package te.http.handling;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import okhttp3.FormBody;
+import okhttp3.Request;
+import te.http.handling.template.RequestTemplate;
+
+/**
+ * Benchmarks {@link GETRequestHandling#addQueryParamsToURL(String, Map)} and {@link
+ * POSTRequestHandling#urlEncodeAsFormData(Map)} with 'paramCount' parameters, as well as building
+ * the same GET request via {@link GETRequestHandling#buildRequestForGET(String, Map)} vs. a
+ * {@link RequestTemplate}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class QueryAndFormEncodingBenchmark {
+
+    @Param({"1", "10", "50"})
+    int paramCount;
+
+    private final HttpRequestHandling requestHandling = new HttpRequestHandling() {};
+
+    private final RequestTemplate template = requestHandling.compileGETTemplate("http://localhost:8080/api/v1/{resource}");
+
+    private Map<String, Object> params;
+
+    @Setup
+    public void setUp() {
+        params = new HashMap<>();
+        for (int i = 0; i < paramCount; i++) {
+            params.put("param" + i, i % 2 == 0 ? "value with spaces & symbols " + i : i);
+        }
+    }
+
+    @Benchmark
+    public String addQueryParamsToURL() {
+        return requestHandling.addQueryParamsToURL("http://localhost:8080/api/v1/orders", params);
+    }
+
+    @Benchmark
+    public FormBody urlEncodeAsFormData() {
+        return requestHandling.urlEncodeAsFormData(params);
+    }
+
+    @Benchmark
+    public Request buildRequestForGET() {
+        return requestHandling.buildRequestForGET("http://localhost:8080/api/v1/orders", params);
+    }
+
+    @Benchmark
+    public Request buildRequestFromTemplate() {
+        RequestTemplate.Binding binding = template.bind().set("resource", "orders");
+        params.forEach(binding::addQueryParameter);
+
+        return binding.build();
+    }
+}
@@ -0,0 +1,93 @@
+package te.http.handling.deserialization;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.StringJoiner;
+
+import te.http.handling.JsonMarshalling;
+import te.http.handling.serialization.LocalDateToISO8601Serializer;
+
+/**
+ * Benchmarks each format supported by the {@link MultiFormatDateDeserializer}s, including Unix
+ * Epochs, as well as decoding dates via the tree-based {@link com.google.gson.JsonDeserializer}s
+ * vs. the streaming {@link com.google.gson.TypeAdapter}s registered by default.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DateDeserializationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class DateInput {
+        @Param({"2018-01-31", "01/31/2018", "01-31-2018", "1517356800000"})
+        String dateString;
+    }
+
+    @State(Scope.Benchmark)
+    public static class DateTimeInput {
+        @Param({"2018-01-31T10:15:30", "1517356800000"})
+        String dateTimeString;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Codecs {
+        final JavaDateDeserializer javaDateDeserializer = new JavaDateDeserializer();
+        final LocalDateDeserializer localDateDeserializer = new LocalDateDeserializer();
+        final LocalDateTimeDeserializer localDateTimeDeserializer = new LocalDateTimeDeserializer();
+
+        final Gson treeBasedGson = new GsonBuilder()
+                .registerTypeAdapter(LocalDate.class, new LocalDateDeserializer())
+                .registerTypeAdapter(LocalDate.class, new LocalDateToISO8601Serializer())
+                .create();
+        final Gson typeAdapterGson = JsonMarshalling.Defaults.jsonMarshaller;
+
+        String jsonDates;
+
+        @Setup
+        public void setUp() {
+            StringJoiner json = new StringJoiner(",", "[", "]");
+            for (int i = 0; i < 100; i++) {
+                json.add("\"" + LocalDate.of(2018, 1, 1).plusDays(i) + "\"");
+            }
+            jsonDates = json.toString();
+        }
+    }
+
+    @Benchmark
+    public Date javaDate(Codecs codecs, DateInput input) {
+        return codecs.javaDateDeserializer.parseDateString(input.dateString, Date.class);
+    }
+
+    @Benchmark
+    public LocalDate localDate(Codecs codecs, DateInput input) {
+        return codecs.localDateDeserializer.parseDateString(input.dateString, LocalDate.class);
+    }
+
+    @Benchmark
+    public LocalDateTime localDateTime(Codecs codecs, DateTimeInput input) {
+        return codecs.localDateTimeDeserializer.parseDateString(input.dateTimeString, LocalDateTime.class);
+    }
+
+    @Benchmark
+    public LocalDate[] treeBasedDeserializer(Codecs codecs) {
+        return codecs.treeBasedGson.fromJson(codecs.jsonDates, LocalDate[].class);
+    }
+
+    @Benchmark
+    public LocalDate[] streamingTypeAdapter(Codecs codecs) {
+        return codecs.typeAdapterGson.fromJson(codecs.jsonDates, LocalDate[].class);
+    }
+}
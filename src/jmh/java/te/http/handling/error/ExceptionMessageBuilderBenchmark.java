@@ -0,0 +1,69 @@
+package te.http.handling.error;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import te.http.handling.HttpRequestHandling;
+import te.http.handling.HttpResponse;
+import te.http.handling.error.exceptions.HttpServerException;
+
+/**
+ * Benchmarks building the messages of exceptions, as well as constructing regular vs. lightweight
+ * exceptions for non-200 responses.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExceptionMessageBuilderBenchmark {
+
+    private final ExceptionMessageBuilder exceptionMessageBuilder = new ExceptionMessageBuilder();
+    private final Request request = new Request.Builder().url("http://localhost/api/v1/orders?page=2").build();
+    private final IOException connectionReset = new IOException("Connection reset");
+    private final SocketTimeoutException connectTimeout = new SocketTimeoutException("connect timed out");
+    private final HttpResponse serverError = new HttpResponse(
+            new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(503)
+                    .message("Service Unavailable")
+                    .body(ResponseBody.create(HttpRequestHandling.applicationJSON, "{\"error\":\"The service is down for maintenance\"}"))
+                    .build()
+    );
+
+    @Benchmark
+    public String buildNoResponseMessage() {
+        return exceptionMessageBuilder.buildNoResponseMessage(connectionReset, request);
+    }
+
+    @Benchmark
+    public String buildNoResponseMessageForConnectTimeout() {
+        return exceptionMessageBuilder.buildNoResponseMessage(connectTimeout, request);
+    }
+
+    @Benchmark
+    public String buildNon200ResponseMessage() {
+        return exceptionMessageBuilder.buildNon200ResponseMessage(serverError);
+    }
+
+    @Benchmark
+    public HttpServerException constructException() {
+        return new HttpServerException(serverError);
+    }
+
+    @Benchmark
+    public HttpServerException constructLightweightException() {
+        return HttpServerException.lightweight(serverError, HttpRequestHandling.Defaults.maxErrorBodyBytes);
+    }
+}
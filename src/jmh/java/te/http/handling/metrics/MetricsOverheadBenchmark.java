@@ -0,0 +1,81 @@
+package te.http.handling.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+/**
+ * Measures the per-request overhead of recording {@link HttpMetrics}: the events of a call on a
+ * new connection are replayed through a {@link MetricsEventListener}, and through {@link
+ * EventListener#NONE} as a baseline.  The difference should be well under a microsecond.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsOverheadBenchmark {
+
+    private final Call call = new OkHttpClient().newCall(new Request.Builder().url("http://localhost/benchmark").build());
+    private final InetSocketAddress address = InetSocketAddress.createUnresolved("localhost", 80);
+    private final List<InetAddress> addresses = Collections.emptyList();
+
+    private final EventListener.Factory baseline = call -> EventListener.NONE;
+    private final EventListener.Factory recording = new MetricsEventListener.Factory(new HttpMetrics(), baseline);
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Benchmark
+    public EventListener baseline() {
+        return replayCall(baseline.create(call));
+    }
+
+    @Benchmark
+    public EventListener recording() {
+        return replayCall(recording.create(call));
+    }
+
+    @Benchmark
+    public LatencyHistogram recordIntoHistogram() {
+        histogram.record(123_456);
+        return histogram;
+    }
+
+    private EventListener replayCall(EventListener listener) {
+        listener.callStart(call);
+        listener.dnsStart(call, "localhost");
+        listener.dnsEnd(call, "localhost", addresses);
+        listener.connectStart(call, address, Proxy.NO_PROXY);
+        listener.connectEnd(call, address, Proxy.NO_PROXY, Protocol.HTTP_1_1);
+        listener.connectionAcquired(call, null);
+        listener.requestHeadersStart(call);
+        listener.requestHeadersEnd(call, call.request());
+        listener.responseHeadersStart(call);
+        listener.responseHeadersEnd(call, null);
+        listener.responseBodyStart(call);
+        listener.responseBodyEnd(call, 100);
+        listener.connectionReleased(call, null);
+        listener.callEnd(call);
+
+        return listener;
+    }
+}
@@ -0,0 +1,269 @@
+package te.http.handling;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Request;
+import te.http.handling.error.exceptions.HttpClientException;
+import te.http.handling.error.exceptions.HttpServerException;
+import te.http.handling.error.exceptions.NoResponseException;
+import te.http.handling.resilience.RetryPolicy;
+
+/**
+ * Downloads a large object as byte ranges fetched in parallel, each over its own connection from
+ * the shared {@link okhttp3.OkHttpClient} pool, writing every range straight into its offset of
+ * a preallocated file.
+ *
+ * <p>The object is first requested via HEAD: if the webservice does not advertise "Accept-Ranges:
+ * bytes", a Content-Length and a strong ETag, or the object fits in a single chunk, it is
+ * downloaded as a single stream instead, see {@link GETRequestHandling#executeRequestToPath(Request,
+ * Path, boolean)}.  Without a strong ETag, ranges could not be made conditional via "If-Range",
+ * so chunks of different versions of the object could be mixed up.  The same happens if a range
+ * request is answered with anything but the range requested, per its Content-Range (e.g. the
+ * whole object, because it changed in the meantime).
+ *
+ * <p>Failed chunks are retried according to {@link #getRetryPolicy()}, resuming from the last
+ * byte written.  The body is written to a temporary file which is only renamed to the target once
+ * every chunk has been written.
+ */
+public class ChunkedDownloader {
+
+    private final HttpRequestHandling requestHandling;
+
+    private long chunkSize = 8 * 1024 * 1024;
+    private int parallelism = 4;
+    private RetryPolicy retryPolicy = new RetryPolicy().setRetryOnReadTimeout(true);
+
+    public ChunkedDownloader(HttpRequestHandling requestHandling) {
+        this.requestHandling = requestHandling;
+    }
+
+    /**
+     * Downloads the body of the GET 'request' to 'target'.
+     *
+     * @return a {@link FileHttpResponse} with the status & headers of the HEAD request, or of the
+     * GET request if the body was downloaded as a single stream
+     * @throws java.io.UncheckedIOException if 'target' could not be written
+     */
+    public FileHttpResponse download(Request request, Path target) throws HttpClientException, HttpServerException, NoResponseException {
+        HttpResponse head = requestHandling.executeRequestWithoutBody(request.newBuilder().head().build());
+
+        long contentLength = parseContentLength(head.getHeaders().get("Content-Length"));
+        boolean isRangeable = "bytes".equalsIgnoreCase(head.getHeaders().get("Accept-Ranges"));
+        String validator = head.getHeaders().get("ETag");
+        boolean isStrongValidator = validator != null && !validator.startsWith("W/");
+
+        if (!isRangeable || !isStrongValidator || contentLength <= chunkSize) {
+            return requestHandling.executeRequestToPath(request, target, true);
+        }
+
+        Request rangeRequest = request.newBuilder().header("If-Range", validator).build();
+
+        Path file = ResponseBodyWriter.createTempFileFor(target);
+        boolean isMoved = false;
+        try {
+            downloadChunks(rangeRequest, file, contentLength);
+            ResponseBodyWriter.moveAtomically(file, target);
+            isMoved = true;
+
+            return new FileHttpResponse(head.getWrappedResponse(), target, contentLength);
+        } catch (RangeIgnoredException ex) {
+            return requestHandling.executeRequestToPath(request, target, true);
+        } finally {
+            if (!isMoved) {
+                ResponseBodyWriter.deleteQuietly(file);
+            }
+        }
+    }
+
+    /**
+     * Downloads the body of a GET request to 'url' to 'target', see {@link #download(Request, Path)}.
+     */
+    public FileHttpResponse download(String url, Path target) throws HttpClientException, HttpServerException, NoResponseException {
+        return download(requestHandling.buildRequestForGET(url, null), target);
+    }
+
+    private void downloadChunks(Request request, Path file, long contentLength) throws HttpClientException, HttpServerException, NoResponseException {
+        try (RandomAccessFile preallocated = new RandomAccessFile(file.toFile(), "rw")) {
+            preallocated.setLength(contentLength);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        int maxParallelism = Math.min(parallelism, requestHandling.getHttpClient().dispatcher().getMaxRequestsPerHost());
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, maxParallelism), new ChunkThreadFactory());
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (long start = 0; start < contentLength; start += chunkSize) {
+                long chunkStart = start;
+                long chunkLength = Math.min(chunkSize, contentLength - start);
+
+                chunks.add(executorService.submit(() -> {
+                    downloadChunk(request, channel, chunkStart, chunkLength, contentLength);
+                    return null;
+                }));
+            }
+
+            for (Future<?> chunk : chunks) {
+                await(chunk, request);
+            }
+        } catch (HttpClientException | HttpServerException | NoResponseException exception) {
+            throw exception;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void downloadChunk(Request request, FileChannel channel, long start, long length, long contentLength) throws HttpClientException, HttpServerException, NoResponseException {
+        long written = 0;
+
+        for (int attempt = 1; ; attempt++) {
+            long rangeStart = start + written;
+            long rangeEnd = start + length - 1;
+            Request rangeRequest = request.newBuilder()
+                    .header("Range", "bytes=" + rangeStart + "-" + rangeEnd)
+                    .build();
+
+            try (StreamingHttpResponse response = requestHandling.executeStreamingRequest(rangeRequest)) {
+                if (response.getStatusCode() != 206) {
+                    throw new RangeIgnoredException("Range request was answered with status " + response.getStatusCode(), rangeRequest);
+                }
+
+                String contentRange = response.getHeaders().get("Content-Range");
+                String expectedContentRange = "bytes " + rangeStart + "-" + rangeEnd + "/" + contentLength;
+                if (contentRange == null || !expectedContentRange.equalsIgnoreCase(contentRange.trim())) {
+                    throw new RangeIgnoredException("Range request was answered with Content-Range " + contentRange + " rather than " + expectedContentRange, rangeRequest);
+                }
+
+                try {
+                    written += ResponseBodyWriter.transfer(response.getBodySource(), channel, start + written, length - written);
+                } catch (IOException ex) {
+                    throw new NoResponseException(ex, rangeRequest);
+                }
+
+                if (written == length) return;
+                throw new NoResponseException(new IOException("Range ended after " + written + " of " + length + " bytes"), rangeRequest);
+            } catch (HttpClientException | HttpServerException | NoResponseException exception) {
+                if (exception instanceof RangeIgnoredException || !retryPolicy.shouldRetry(rangeRequest, exception, attempt)) {
+                    throw exception;
+                }
+
+                try {
+                    Thread.sleep(retryPolicy.backoffBefore(attempt).toMillis());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw exception;
+                }
+            }
+        }
+    }
+
+    private static void await(Future<?> chunk, Request request) throws HttpClientException, HttpServerException, NoResponseException {
+        try {
+            chunk.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new NoResponseException(ex, request);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+
+            if (cause instanceof HttpClientException) throw (HttpClientException) cause;
+            if (cause instanceof HttpServerException) throw (HttpServerException) cause;
+            if (cause instanceof NoResponseException) throw (NoResponseException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+
+            throw new NoResponseException(cause, request);
+        }
+    }
+
+    private static long parseContentLength(String contentLength) {
+        try {
+            return contentLength == null ? -1 : Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    public ChunkedDownloader setChunkSize(long chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1 but was " + chunkSize);
+        }
+
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @param parallelism how many chunks to download at once; never more than the {@link
+     *                    okhttp3.Dispatcher}'s max requests per host
+     */
+    public ChunkedDownloader setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public ChunkedDownloader setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("chunkSize", chunkSize)
+                .append("parallelism", parallelism)
+                .append("retryPolicy", retryPolicy)
+                .toString();
+    }
+
+    /**
+     * Occurs when a range request is answered with anything but the range requested, e.g. the
+     * whole object.  The request was sent, so unlike a rejection it has a cause.
+     */
+    private static class RangeIgnoredException extends NoResponseException {
+        RangeIgnoredException(String message, Request request) {
+            super(new IOException(message), request);
+        }
+    }
+
+    private static class ChunkThreadFactory implements ThreadFactory {
+        private static final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "http-chunked-download-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
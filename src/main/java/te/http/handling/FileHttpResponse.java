@@ -0,0 +1,118 @@
+package te.http.handling;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import okhttp3.Headers;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Wrapper around OkHttp's {@link Response} object whose body has been written to a file rather
+ * than held in memory, so bodies are not limited to the size of a byte[] or the heap.
+ *
+ * <p>The body can be read via {@link #map()}, a memory-mapped view of the file.
+ */
+public class FileHttpResponse {
+
+    private final Response wrappedResponse;
+    private final Path path;
+    private final long size;
+
+    public FileHttpResponse(Response okHttpResponse, Path path, long size) {
+        this.wrappedResponse = okHttpResponse;
+        this.path = path;
+        this.size = size;
+    }
+
+    public boolean is200() {
+        return wrappedResponse.isSuccessful();
+    }
+
+    public boolean isNot200() {
+        return !is200();
+    }
+
+    public int getStatusCode() {
+        return wrappedResponse.code();
+    }
+
+    public String getStatusMessage() {
+        return wrappedResponse.message();
+    }
+
+    public Headers getHeaders() {
+        return wrappedResponse.headers();
+    }
+
+    /**
+     * @return the file the response body was written to
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return the number of bytes written to {@link #getPath()}
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return a read-only, memory-mapped view of the whole body
+     * @throws IllegalStateException if the body is larger than 2GB; use {@link #map(long, long)}
+     *                               to map it piece by piece instead.
+     */
+    public MappedByteBuffer map() {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Body of " + size + " bytes is too large to map at once");
+        }
+
+        return map(0, size);
+    }
+
+    /**
+     * @return a read-only, memory-mapped view of 'length' bytes of the body, starting at
+     * 'position'; at most 2GB can be mapped at once
+     */
+    public MappedByteBuffer map(long position, long length) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping remains valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @return the wrapped OkHttp {@link Response}, whose body has already been consumed.
+     */
+    public Response getWrappedResponse() {
+        return wrappedResponse;
+    }
+
+    /**
+     * @return the original {@link Request} that was made.
+     */
+    public Request getRequest() {
+        return wrappedResponse.request();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("statusMessage", getStatusMessage())
+                .append("statusCode", getStatusCode())
+                .append("path", path)
+                .append("size", size)
+                .append("request", getRequest())
+                .toString();
+    }
+}
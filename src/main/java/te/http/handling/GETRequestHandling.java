@@ -1,24 +1,90 @@
 package te.http.handling;
 
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import io.vavr.control.Try;
 import okhttp3.Headers;
 import okhttp3.HttpUrl;
 import okhttp3.Request;
+import te.http.handling.coalescing.RequestCoalescer;
 import te.http.handling.error.exceptions.HttpClientException;
 import te.http.handling.error.exceptions.HttpServerException;
 import te.http.handling.error.exceptions.NoResponseException;
+import te.http.handling.hedging.HedgingPolicy;
+import te.http.handling.loadbalancing.EndpointGroup;
+import te.http.handling.template.RequestTemplate;
 
 public interface GETRequestHandling {
 
     Headers getDefaultHeaders();
     HttpResponse executeRequest(Request request) throws HttpClientException, HttpServerException, NoResponseException;
 
+    /**
+     * @return the {@link RequestCoalescer} concurrent, identical GET requests should be collapsed
+     * by, or null (the default) to execute every GET request.  Return the same instance on every
+     * call, e.g. from a static field.
+     */
+    default RequestCoalescer getRequestCoalescer() {
+        return null;
+    }
+
+    /**
+     * @return the {@link HedgingPolicy} GET requests should be hedged by, or null (the default)
+     * to send every GET request once.  Hedged requests are executed via {@link
+     * #executeRequestAsync(Request)}, so in {@link HttpRequestHandling} each attempt goes through
+     * the circuit breaker of {@link HttpRequestHandling#getResilience()} but is not retried; the
+     * hedges take the place of retries.  Return the same instance on every call, e.g. from a
+     * static field.
+     */
+    default HedgingPolicy getHedgingPolicy() {
+        return null;
+    }
+
+    /**
+     * Executes the given {@link Request} returning a future of the {@link HttpResponse}.
+     *
+     * <p>By default this simply delegates to {@link #executeRequest(Request)} on the calling
+     * thread; {@link HttpRequestHandling} overrides this with a non-blocking implementation.
+     */
+    default CompletableFuture<HttpResponse> executeRequestAsync(Request request) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+
+        Try.of(() -> executeRequest(request))
+                .onSuccess(future::complete)
+                .onFailure(future::completeExceptionally);
+
+        return future;
+    }
+
+    /**
+     * Executes the given {@link Request} returning a {@link StreamingHttpResponse} whose body has
+     * not been read yet.
+     *
+     * <p>By default this simply adapts the result of {@link #executeRequest(Request)};
+     * {@link HttpRequestHandling} overrides this to stream the body from the connection.
+     */
+    default StreamingHttpResponse executeStreamingRequest(Request request) throws HttpClientException, HttpServerException, NoResponseException {
+        return new StreamingHttpResponse(executeRequest(request));
+    }
+
+    /**
+     * Executes the given {@link Request} for just its status, message & headers, returning a
+     * {@link HttpResponse} without a body.
+     *
+     * <p>By default this simply drops the body of the result of {@link #executeRequest(Request)};
+     * {@link HttpRequestHandling} overrides this to never read the body into memory.
+     */
+    default HttpResponse executeRequestWithoutBody(Request request) throws HttpClientException, HttpServerException, NoResponseException {
+        return executeRequest(request).setBody(null);
+    }
+
     /**
      * Performs a generic GET request using the default headers.
      */
@@ -29,9 +95,187 @@ public interface GETRequestHandling {
     /**
      * URL encodes the provided parameters then performs a generic GET request using the default
      * headers.
+     *
+     * @see #executeGETRequest(Request)
      */
     default HttpResponse executeGET(String url, Map<String, ?> urlParams) throws HttpClientException, HttpServerException, NoResponseException {
-        return executeRequest(buildRequestForGET(url, urlParams));
+        return executeGETRequest(buildRequestForGET(url, urlParams));
+    }
+
+    /**
+     * Performs a GET request built from a {@link RequestTemplate}, e.g. {@code
+     * executeGET(ORDERS.bind().set("userId", 42))}.
+     *
+     * @see #compileGETTemplate(String)
+     * @see #executeGETRequest(Request)
+     */
+    default HttpResponse executeGET(RequestTemplate.Binding binding) throws HttpClientException, HttpServerException, NoResponseException {
+        return executeGETRequest(binding.build());
+    }
+
+    /**
+     * Performs a GET request of 'path' (e.g. "/users/42") against one of 'endpoints', picked per
+     * request, see {@link EndpointGroup}.
+     */
+    default HttpResponse executeGET(EndpointGroup endpoints, String path) throws HttpClientException, HttpServerException, NoResponseException {
+        return executeGET(endpoints, path, null);
+    }
+
+    /**
+     * URL encodes the provided parameters then performs a GET request of 'path' against one of
+     * 'endpoints', picked per request, see {@link EndpointGroup}.
+     */
+    default HttpResponse executeGET(EndpointGroup endpoints, String path, Map<String, ?> urlParams) throws HttpClientException, HttpServerException, NoResponseException {
+        return endpoints.execute(baseUrl -> buildRequestForGET(baseUrl + path, urlParams), this::executeGETRequest);
+    }
+
+    /**
+     * Executes a GET {@link Request}.  Concurrent, identical requests are collapsed into one if
+     * {@link #getRequestCoalescer()} is configured, and slow requests are hedged if {@link
+     * #getHedgingPolicy()} is configured.
+     */
+    default HttpResponse executeGETRequest(Request request) throws HttpClientException, HttpServerException, NoResponseException {
+        HedgingPolicy hedgingPolicy = getHedgingPolicy();
+        RequestExecutor executor = hedgingPolicy == null
+                ? this::executeRequest
+                : hedgedRequest -> hedgingPolicy.execute(hedgedRequest, this::executeRequestAsync);
+
+        RequestCoalescer requestCoalescer = getRequestCoalescer();
+        if (requestCoalescer != null) {
+            return requestCoalescer.execute(request, executor);
+        }
+
+        return executor.execute(request);
+    }
+
+    /**
+     * Performs a GET request for just the status, message & headers of the response, e.g. for
+     * health checks, skipping the body.
+     *
+     * @see #executeRequestWithoutBody(Request)
+     */
+    default HttpResponse executeGETWithoutBody(String url) throws HttpClientException, HttpServerException, NoResponseException {
+        return executeGETWithoutBody(url, null);
+    }
+
+    /**
+     * URL encodes the provided parameters then performs a GET request for just the status,
+     * message & headers of the response, skipping the body.
+     *
+     * @see #executeRequestWithoutBody(Request)
+     */
+    default HttpResponse executeGETWithoutBody(String url, Map<String, ?> urlParams) throws HttpClientException, HttpServerException, NoResponseException {
+        return executeRequestWithoutBody(buildRequestForGET(url, urlParams));
+    }
+
+    /**
+     * Performs a HEAD request using the default headers.
+     */
+    default HttpResponse executeHEAD(String url) throws HttpClientException, HttpServerException, NoResponseException {
+        return executeHEAD(url, null);
+    }
+
+    /**
+     * URL encodes the provided parameters then performs a HEAD request using the default headers.
+     */
+    default HttpResponse executeHEAD(String url, Map<String, ?> urlParams) throws HttpClientException, HttpServerException, NoResponseException {
+        return executeRequestWithoutBody(buildRequestForHEAD(url, urlParams));
+    }
+
+    /**
+     * Asynchronous version of {@link #executeGET(String)}.
+     */
+    default CompletableFuture<HttpResponse> executeGETAsync(String url) {
+        return executeGETAsync(url, null);
+    }
+
+    /**
+     * Asynchronous version of {@link #executeGET(String, Map)}.
+     */
+    default CompletableFuture<HttpResponse> executeGETAsync(String url, Map<String, ?> urlParams) {
+        return executeGETRequestAsync(buildRequestForGET(url, urlParams));
+    }
+
+    /**
+     * Asynchronous version of {@link #executeGET(RequestTemplate.Binding)}.
+     */
+    default CompletableFuture<HttpResponse> executeGETAsync(RequestTemplate.Binding binding) {
+        return executeGETRequestAsync(binding.build());
+    }
+
+    /**
+     * Asynchronous version of {@link #executeGET(EndpointGroup, String, Map)}.
+     */
+    default CompletableFuture<HttpResponse> executeGETAsync(EndpointGroup endpoints, String path, Map<String, ?> urlParams) {
+        return endpoints.executeAsync(baseUrl -> buildRequestForGET(baseUrl + path, urlParams), this::executeGETRequestAsync);
+    }
+
+    /**
+     * Asynchronous version of {@link #executeGETRequest(Request)}; requests are never collapsed.
+     */
+    default CompletableFuture<HttpResponse> executeGETRequestAsync(Request request) {
+        HedgingPolicy hedgingPolicy = getHedgingPolicy();
+        if (hedgingPolicy != null) {
+            return hedgingPolicy.executeAsync(request, this::executeRequestAsync);
+        }
+
+        return executeRequestAsync(request);
+    }
+
+    /**
+     * Streaming version of {@link #executeGET(String)}; the returned {@link StreamingHttpResponse}
+     * must be closed.
+     */
+    default StreamingHttpResponse executeStreamingGET(String url) throws HttpClientException, HttpServerException, NoResponseException {
+        return executeStreamingGET(url, null);
+    }
+
+    /**
+     * Streaming version of {@link #executeGET(String, Map)}; the returned {@link
+     * StreamingHttpResponse} must be closed.
+     */
+    default StreamingHttpResponse executeStreamingGET(String url, Map<String, ?> urlParams) throws HttpClientException, HttpServerException, NoResponseException {
+        return executeStreamingRequest(buildRequestForGET(url, urlParams));
+    }
+
+    /**
+     * Performs a GET request, writing the response body to 'target' via a temporary file, see
+     * {@link #executeRequestToPath(Request, Path, boolean)}.
+     */
+    default FileHttpResponse executeGETToFile(String url, Path target) throws HttpClientException, HttpServerException, NoResponseException {
+        return executeGETToFile(url, null, target);
+    }
+
+    /**
+     * URL encodes the provided parameters then performs a GET request, writing the response body
+     * to 'target' via a temporary file, see {@link #executeRequestToPath(Request, Path, boolean)}.
+     */
+    default FileHttpResponse executeGETToFile(String url, Map<String, ?> urlParams, Path target) throws HttpClientException, HttpServerException, NoResponseException {
+        return executeRequestToPath(buildRequestForGET(url, urlParams), target, true);
+    }
+
+    /**
+     * Executes the given {@link Request}, writing the response body straight from the connection
+     * to 'target' rather than into memory, so it may be larger than 2GB.
+     *
+     * <p>Non-200 level responses are handled as in {@link #executeStreamingRequest(Request)}: the
+     * exception holds at most a bounded prefix of the body, and nothing is written to 'target'.
+     *
+     * @param viaTempFile whether to first write the body to a temporary file next to 'target',
+     *                    which is then atomically renamed, so 'target' never holds a partial body
+     * @throws java.io.UncheckedIOException if 'target' could not be written
+     */
+    default FileHttpResponse executeRequestToPath(Request request, Path target, boolean viaTempFile) throws HttpClientException, HttpServerException, NoResponseException {
+        return ResponseBodyWriter.writeBody(executeStreamingRequest(request), target, viaTempFile);
+    }
+
+    /**
+     * @return a {@link RequestTemplate} for GET requests to 'urlTemplate' with the default
+     * headers, whose URL & headers are parsed once; compile it once (e.g. into a static field) and
+     * bind it per request.
+     */
+    default RequestTemplate compileGETTemplate(String urlTemplate) {
+        return RequestTemplate.compile(urlTemplate, getDefaultHeaders());
     }
 
     default Request buildRequestForGET(String url, @Nullable Map<String, ?> urlParams) {
@@ -44,6 +288,13 @@ public interface GETRequestHandling {
                 .build();
     }
 
+    default Request buildRequestForHEAD(String url, @Nullable Map<String, ?> urlParams) {
+        return buildRequestForGET(url, urlParams)
+                .newBuilder()
+                .head()
+                .build();
+    }
+
     default String addQueryParamsToURL(String url, @Nonnull Map<String, ?> urlParams) {
         HttpUrl parsedUrl = HttpUrl.parse(url);
         if (parsedUrl == null) {
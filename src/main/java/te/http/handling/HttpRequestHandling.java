@@ -1,14 +1,38 @@
 package te.http.handling;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
 import io.vavr.control.Try;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.Headers;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
+import okhttp3.RequestBody;
 import okhttp3.Response;
+import te.http.handling.batch.BatchExecutor;
+import te.http.handling.batch.BatchOptions;
+import te.http.handling.batch.BatchResult;
+import te.http.handling.cache.HttpResponseCache;
+import te.http.handling.concurrency.AdaptiveConcurrencyLimiter;
+import te.http.handling.dns.CachingDns;
 import te.http.handling.error.exceptions.HttpClientException;
 import te.http.handling.error.exceptions.HttpServerException;
 import te.http.handling.error.exceptions.NoResponseException;
+import te.http.handling.metrics.HttpMetrics;
+import te.http.handling.profile.ClientProfile;
+import te.http.handling.ratelimit.RateLimiter;
+import te.http.handling.resilience.Resilience;
+import te.http.handling.serialization.JsonRequestBody;
 
 /**
  * This Java 8 interface encapsulates what is required to make requests to webservices via OkHttp.
@@ -22,8 +46,78 @@ public interface HttpRequestHandling extends GETRequestHandling, POSTRequestHand
 
     MediaType applicationJSON = Defaults.applicationJSON;
 
+    /**
+     * @return the client every request is made with; by default the client of {@link
+     * #getClientProfile()}, or a client with OkHttp's defaults if there is no profile.
+     */
     default OkHttpClient getHttpClient() {
-        return Defaults.httpClient;
+        ClientProfile clientProfile = getClientProfile();
+
+        return clientProfile == null ? Defaults.httpClient : clientProfile.getHttpClient();
+    }
+
+    /**
+     * @return the {@link ClientProfile} (connection pool, dispatcher limits, timeouts & bulkheads)
+     * to make requests with, or null (the default) to use {@link Defaults#httpClient}.  Return the
+     * same instance on every call, e.g. from a static field.
+     */
+    default ClientProfile getClientProfile() {
+        return null;
+    }
+
+    /**
+     * @return the {@link CachingDns} hostnames should be resolved through, or null (the default)
+     * to resolve them via {@link #getHttpClient()}'s {@link okhttp3.Dns}.  Return the same
+     * instance on every call, e.g. from a static field.
+     */
+    default CachingDns getDns() {
+        return null;
+    }
+
+    /**
+     * @return the {@link HttpResponseCache} requests should be served from, or null (the default)
+     * to not cache responses.  Return the same instance on every call, e.g. from a static field.
+     */
+    default HttpResponseCache getResponseCache() {
+        return null;
+    }
+
+    /**
+     * @return the {@link HttpMetrics} that per-phase latencies of requests (and of {@link
+     * #fromJson(String, Class)} & {@link #fromJsonList(String, Class)}) should be recorded into, or
+     * null (the default) to not record them.  Return the same instance on every call, e.g. from a
+     * static field.
+     */
+    default HttpMetrics getHttpMetrics() {
+        return null;
+    }
+
+    /**
+     * @return the {@link Resilience} (retries, retry budget & circuit breaker) that {@link
+     * #executeRequest(Request)}, {@link #executeRequestWithoutBody(Request)} and {@link
+     * #executeStreamingRequest(Request)} should apply, or null (the default) to make a single
+     * attempt.  Return the same instance on every call, e.g. from a static field.
+     */
+    default Resilience getResilience() {
+        return null;
+    }
+
+    /**
+     * @return the {@link RateLimiter} every request must take a permit from before it is sent, or
+     * null (the default) to not limit requests.  Return the same instance on every call, e.g. from
+     * a static field.
+     */
+    default RateLimiter getRateLimiter() {
+        return null;
+    }
+
+    /**
+     * @return the {@link AdaptiveConcurrencyLimiter} that limits how many requests to each host
+     * are in-flight at once, or null (the default) to leave that to {@link #getHttpClient()}'s
+     * {@link okhttp3.Dispatcher}.  Return the same instance on every call, e.g. from a static field.
+     */
+    default AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return null;
     }
 
     /**
@@ -43,6 +137,27 @@ public interface HttpRequestHandling extends GETRequestHandling, POSTRequestHand
      */
     default boolean isNon200ResponseExceptional() { return true; }
 
+    /**
+     * @return whether or not the exceptions thrown for non-200 level responses should be
+     * lightweight, i.e. skip capturing a stack trace and only build their message (with at most
+     * {@link #getMaxErrorBodyBytes()} of the body) if it is requested.  Worthwhile when e.g. 404s
+     * are a normal answer.
+     */
+    default boolean isLightweightNon200Exceptions() { return false; }
+
+    /**
+     * @return the largest body {@link #executeRequestWithoutBody(Request)} reads & discards to keep
+     * the connection alive; larger bodies are abandoned by closing the connection
+     */
+    default long getMaxDrainBodyBytes() { return Defaults.maxDrainBodyBytes; }
+
+    /**
+     * @return the maximum number of bytes of a non-200 level response's body to buffer when the
+     * body would otherwise be streamed (e.g. via {@link #executeStreamingRequest(Request)}), and
+     * to include in the message of lightweight exceptions
+     */
+    default long getMaxErrorBodyBytes() { return Defaults.maxErrorBodyBytes; }
+
     /**
      * Executes a given {@link Request} and returns the {@link Response} wrapped in a {@link
      * HttpResponse}. Usually one would use the convenience methods in {@link GETRequestHandling}
@@ -60,12 +175,51 @@ public interface HttpRequestHandling extends GETRequestHandling, POSTRequestHand
      * @throws HttpClientException if the webservice returned a 400 level status code; this will
      *                             have a reference to the corresponding {@link HttpResponse}
      *                             object.
+     * @throws te.http.handling.error.exceptions.CircuitBreakerOpenException if {@link
+     *                             #getResilience()}'s circuit breaker for the request's host is
+     *                             open; the request is not sent.
+     * @throws te.http.handling.error.exceptions.RateLimitExceededException if {@link
+     *                             #getRateLimiter()} has no permit for the request in time; the
+     *                             request is not sent.
+     * @throws te.http.handling.error.exceptions.ConcurrencyLimitExceededException if {@link
+     *                             #getConcurrencyLimiter()} has no slot for the request in time;
+     *                             the request is not sent.
      */
     default HttpResponse executeRequest(Request request) throws HttpServerException, HttpClientException, NoResponseException {
-        HttpResponse response = Try
-                .withResources(() -> getHttpClient().newCall(request).execute())
-                .of(HttpResponse::new)
-                .getOrElseThrow((exception) -> new NoResponseException(exception, request));
+        Resilience resilience = getResilience();
+        if (resilience != null) {
+            return resilience.execute(request, this::executeAttempt);
+        }
+
+        return executeAttempt(request);
+    }
+
+    /**
+     * Makes a single attempt at executing the given {@link Request}, as described in {@link
+     * #executeRequest(Request)}.
+     */
+    default HttpResponse executeAttempt(Request request) throws HttpServerException, HttpClientException, NoResponseException {
+        RateLimiter rateLimiter = getRateLimiter();
+        if (rateLimiter != null) {
+            rateLimiter.acquire(request);
+        }
+
+        AdaptiveConcurrencyLimiter concurrencyLimiter = getConcurrencyLimiter();
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter == null ? null : concurrencyLimiter.acquire(request);
+
+        Try<HttpResponse> attempt = Try
+                .withResources(() -> newCall(request).execute())
+                .of(HttpResponse::new);
+
+        if (permit != null) {
+            permit.release(attempt.isFailure() ? attempt.getCause() : null);
+        }
+
+        HttpResponse response = attempt.getOrElseThrow((exception) -> NoResponseException.of(exception, request));
+
+        if (rateLimiter != null) {
+            rateLimiter.onResponse(response.getWrappedResponse());
+        }
 
         if (response.isNot200() && isNon200ResponseExceptional()) {
             return handleNon200Response(response);
@@ -74,6 +228,354 @@ public interface HttpRequestHandling extends GETRequestHandling, POSTRequestHand
         return response;
     }
 
+    /**
+     * Executes a given {@link Request} for just its status, message & headers; the body is never
+     * read into memory, see {@link #getMaxDrainBodyBytes()}.
+     *
+     * <p>Non-200 level responses, {@link #getResilience()}, {@link #getRateLimiter()} and {@link
+     * #getConcurrencyLimiter()} are handled as in {@link #executeRequest(Request)}, except that the
+     * {@link HttpResponse} of the exception has no body.
+     */
+    @Override
+    default HttpResponse executeRequestWithoutBody(Request request) throws HttpServerException, HttpClientException, NoResponseException {
+        Resilience resilience = getResilience();
+        if (resilience != null) {
+            return resilience.execute(request, this::executeAttemptWithoutBody);
+        }
+
+        return executeAttemptWithoutBody(request);
+    }
+
+    /**
+     * Makes a single attempt at executing the given {@link Request}, as described in {@link
+     * #executeRequestWithoutBody(Request)}.
+     */
+    default HttpResponse executeAttemptWithoutBody(Request request) throws HttpServerException, HttpClientException, NoResponseException {
+        RateLimiter rateLimiter = getRateLimiter();
+        if (rateLimiter != null) {
+            rateLimiter.acquire(request);
+        }
+
+        AdaptiveConcurrencyLimiter concurrencyLimiter = getConcurrencyLimiter();
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter == null ? null : concurrencyLimiter.acquire(request);
+
+        Try<HttpResponse> attempt = Try
+                .of(() -> newCall(request))
+                .flatMap(call -> Try
+                        .of(call::execute)
+                        .map(okHttpResponse -> ResponseBodyDiscarder.discardBody(call, okHttpResponse, getMaxDrainBodyBytes())));
+
+        if (permit != null) {
+            permit.release(attempt.isFailure() ? attempt.getCause() : null);
+        }
+
+        HttpResponse response = attempt.getOrElseThrow((exception) -> NoResponseException.of(exception, request));
+
+        if (rateLimiter != null) {
+            rateLimiter.onResponse(response.getWrappedResponse());
+        }
+
+        if (response.isNot200() && isNon200ResponseExceptional()) {
+            return handleNon200Response(response);
+        }
+
+        return response;
+    }
+
+    /**
+     * Executes a given {@link Request} without reading the response body, which can then be
+     * streamed from the returned {@link StreamingHttpResponse}.  The caller is responsible for
+     * closing it.
+     *
+     * <p>Non-200 level responses, {@link #getResilience()}, {@link #getRateLimiter()} and {@link
+     * #getConcurrencyLimiter()} are handled as in {@link #executeRequest(Request)}, except that at
+     * most {@link #getMaxErrorBodyBytes()} of the body is buffered for the exception.  The
+     * concurrency limiter's slot is held until the response is closed; as the time taken to
+     * stream a body says little about the webservice's load, only failures to receive a response
+     * are measured.
+     */
+    @Override
+    default StreamingHttpResponse executeStreamingRequest(Request request) throws HttpServerException, HttpClientException, NoResponseException {
+        Resilience resilience = getResilience();
+        if (resilience != null) {
+            return resilience.executeStreaming(request, this::executeStreamingAttempt);
+        }
+
+        return executeStreamingAttempt(request);
+    }
+
+    /**
+     * Makes a single attempt at executing the given {@link Request}, as described in {@link
+     * #executeStreamingRequest(Request)}.
+     */
+    default StreamingHttpResponse executeStreamingAttempt(Request request) throws HttpServerException, HttpClientException, NoResponseException {
+        RateLimiter rateLimiter = getRateLimiter();
+        if (rateLimiter != null) {
+            rateLimiter.acquire(request);
+        }
+
+        AdaptiveConcurrencyLimiter concurrencyLimiter = getConcurrencyLimiter();
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter == null ? null : concurrencyLimiter.acquire(request);
+
+        Try<Response> attempt = Try.of(() -> newCall(request).execute());
+
+        if (permit != null && attempt.isFailure()) {
+            permit.release(attempt.getCause());
+        }
+
+        StreamingHttpResponse response = attempt
+                .map(okHttpResponse -> permit == null
+                        ? new StreamingHttpResponse(okHttpResponse)
+                        : new StreamingHttpResponse(okHttpResponse, permit::cancel))
+                .getOrElseThrow((exception) -> NoResponseException.of(exception, request));
+
+        if (rateLimiter != null) {
+            rateLimiter.onResponse(response.getWrappedResponse());
+        }
+
+        if (response.isNot200() && isNon200ResponseExceptional()) {
+            try {
+                handleNon200Response(response.peekAsHttpResponse(getMaxErrorBodyBytes()));
+            } catch (HttpClientException | HttpServerException exception) {
+                response.close();
+                throw exception;
+            }
+        }
+
+        return response;
+    }
+
+    /**
+     * POSTs 'content' serialized as JSON.  The JSON is streamed straight to the connection, see
+     * {@link #buildJsonRequestBody(Object)}.
+     */
+    default HttpResponse executeJsonPOST(String url, Object content) throws HttpServerException, HttpClientException, NoResponseException {
+        return executeRequest(buildRequestForPOST(url, buildJsonRequestBody(content)));
+    }
+
+    /**
+     * PUTs 'content' serialized as JSON.  The JSON is streamed straight to the connection, see
+     * {@link #buildJsonRequestBody(Object)}.
+     */
+    default HttpResponse executeJsonPUT(String url, Object content) throws HttpServerException, HttpClientException, NoResponseException {
+        return executeRequest(buildRequestForPUT(url, buildJsonRequestBody(content)));
+    }
+
+    /**
+     * PATCHes 'content' serialized as JSON.  The JSON is streamed straight to the connection, see
+     * {@link #buildJsonRequestBody(Object)}.
+     */
+    default HttpResponse executeJsonPATCH(String url, Object content) throws HttpServerException, HttpClientException, NoResponseException {
+        return executeRequest(buildRequestForPATCH(url, buildJsonRequestBody(content)));
+    }
+
+    /**
+     * @return a {@link RequestBody} that serializes 'content' via {@link #getJsonMarshaller()}
+     * directly into the request as it is written, without building an intermediate String
+     */
+    default RequestBody buildJsonRequestBody(Object content) {
+        return new JsonRequestBody(getJsonMarshaller(), content);
+    }
+
+    /**
+     * Performs a GET request and lazily deserializes the JSON array in the response body one
+     * element at a time, straight from the connection.
+     *
+     * <p>The returned {@link Stream} must be closed (e.g. via try-with-resources) to release the
+     * connection if it is not fully consumed.
+     */
+    default <T> Stream<T> executeGETAsJsonStream(String url, Map<String, ?> urlParams, Class<T> classOfT) throws HttpServerException, HttpClientException, NoResponseException {
+        StreamingHttpResponse response = executeStreamingGET(url, urlParams);
+
+        return Try.of(() -> fromJsonStream(response.getWrappedResponse().body().charStream(), classOfT))
+                .map(stream -> stream.onClose(response::close))
+                .onFailure(exception -> response.close())
+                .get();
+    }
+
+    /**
+     * Asynchronously executes a given {@link Request} via OkHttp's {@link Call#enqueue(Callback)},
+     * so no thread is held while waiting on the webservice.
+     *
+     * <p>Non-200 level responses are handled exactly as in {@link #executeRequest(Request)}: the
+     * returned future completes exceptionally with a {@link HttpClientException}, {@link
+     * HttpServerException}, or {@link NoResponseException}.  Waiting for a permit from {@link
+     * #getRateLimiter()} or {@link #getConcurrencyLimiter()} does not hold a thread either.
+     *
+     * <p>{@link #getResilience()}'s circuit breaker applies, but its retries do not, see {@link
+     * Resilience#executeAsync(Request, java.util.function.Function)}.
+     *
+     * @apiNote Cancelling the returned future cancels the underlying {@link Call}.
+     */
+    @Override
+    default CompletableFuture<HttpResponse> executeRequestAsync(Request request) {
+        Resilience resilience = getResilience();
+        if (resilience != null) {
+            return resilience.executeAsync(request, this::executeAttemptAsync);
+        }
+
+        return executeAttemptAsync(request);
+    }
+
+    /**
+     * Makes a single asynchronous attempt at executing the given {@link Request}, as described in
+     * {@link #executeRequestAsync(Request)}.
+     */
+    default CompletableFuture<HttpResponse> executeAttemptAsync(Request request) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        RateLimiter rateLimiter = getRateLimiter();
+        AdaptiveConcurrencyLimiter concurrencyLimiter = getConcurrencyLimiter();
+        AtomicReference<Call> call = new AtomicReference<>();
+
+        CompletableFuture<Void> rateLimitPermit = rateLimiter == null
+                ? CompletableFuture.completedFuture(null)
+                : rateLimiter.acquireAsync(request);
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> concurrencyPermit = concurrencyLimiter == null
+                ? rateLimitPermit.thenApply(ignored -> null)
+                : rateLimitPermit.thenCompose(ignored -> concurrencyLimiter.acquireAsync(request));
+
+        future.whenComplete((response, exception) -> {
+            Call enqueuedCall = call.get();
+            if (future.isCancelled() && enqueuedCall != null) enqueuedCall.cancel();
+        });
+
+        Callback callback = new Callback() {
+            @Override
+            public void onFailure(Call call, IOException exception) {
+                concurrencyPermit.thenAccept(permit -> {
+                    if (permit != null) permit.release(exception);
+                });
+
+                future.completeExceptionally(NoResponseException.of(exception, request));
+            }
+
+            @Override
+            public void onResponse(Call call, Response okHttpResponse) {
+                if (rateLimiter != null) {
+                    rateLimiter.onResponse(okHttpResponse);
+                }
+
+                Try<HttpResponse> attempt = Try.withResources(() -> okHttpResponse).of(HttpResponse::new);
+                concurrencyPermit.thenAccept(permit -> {
+                    if (permit != null) permit.release(attempt.isFailure() ? attempt.getCause() : null);
+                });
+
+                attempt
+                        .mapTry(response -> {
+                            if (response.isNot200() && isNon200ResponseExceptional()) {
+                                return handleNon200Response(response);
+                            }
+
+                            return response;
+                        })
+                        .onSuccess(future::complete)
+                        .onFailure(future::completeExceptionally);
+            }
+        };
+
+        concurrencyPermit.whenComplete((permit, exception) -> {
+            if (exception != null) {
+                future.completeExceptionally(exception instanceof CompletionException ? exception.getCause() : exception);
+                return;
+            }
+
+            // Carrying the permit measures its latency from when the Dispatcher starts the call
+            Try<Call> newCall = Try.of(() -> newCall(permit == null ? request : permit.attachTo(request)));
+            newCall.onSuccess(call::set).onFailure(future::completeExceptionally);
+
+            if (future.isDone()) {
+                if (permit != null) permit.cancel();
+            } else {
+                call.get().enqueue(callback);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Executes every {@link Request} using the default {@link BatchOptions}.
+     *
+     * @see #executeAll(Collection, BatchOptions)
+     */
+    default BatchResult executeAll(Collection<Request> requests) {
+        return executeAll(requests, new BatchOptions());
+    }
+
+    /**
+     * Executes every {@link Request} via {@link #executeRequest(Request)} with bounded
+     * concurrency, blocking until the whole batch has completed.
+     *
+     * <p>Concurrency never exceeds the limits of {@link #getHttpClient()}'s {@link
+     * okhttp3.Dispatcher}, either in total or per-host.
+     *
+     * @return the {@link HttpResponse} or exception of each request, in the same order as
+     * 'requests', along with the throughput of the batch
+     */
+    default BatchResult executeAll(Collection<Request> requests, BatchOptions options) {
+        return new BatchExecutor(options, getHttpClient().dispatcher())
+                .execute(requests, this::executeRequest);
+    }
+
+    /**
+     * Downloads the body of a GET request to 'url' to 'target' as byte ranges fetched in
+     * parallel, falling back to a single stream if the webservice does not support ranges, see
+     * {@link ChunkedDownloader}.
+     */
+    default FileHttpResponse executeParallelGETToFile(String url, Path target) throws HttpServerException, HttpClientException, NoResponseException {
+        return new ChunkedDownloader(this).download(url, target);
+    }
+
+    /**
+     * @return a new {@link Call} for the given {@link Request}; every request executed by this
+     * interface goes through here.
+     */
+    default Call newCall(Request request) {
+        OkHttpClient httpClient = getHttpClient();
+
+        CachingDns dns = getDns();
+        if (dns != null) {
+            httpClient = dns.decorate(httpClient);
+        }
+
+        AdaptiveConcurrencyLimiter concurrencyLimiter = getConcurrencyLimiter();
+        if (concurrencyLimiter != null) {
+            httpClient = concurrencyLimiter.decorate(httpClient);
+        }
+
+        HttpResponseCache responseCache = getResponseCache();
+        if (responseCache != null) {
+            httpClient = responseCache.decorate(httpClient);
+        }
+
+        HttpMetrics httpMetrics = getHttpMetrics();
+        if (httpMetrics != null) {
+            httpClient = httpMetrics.decorate(httpClient);
+        }
+
+        return httpClient.newCall(request);
+    }
+
+    @Override
+    default <T> T fromJson(String json, Class<T> classOfT) {
+        HttpMetrics httpMetrics = getHttpMetrics();
+        if (httpMetrics == null) {
+            return JsonMarshalling.super.fromJson(json, classOfT);
+        }
+
+        return httpMetrics.timeDeserialization(() -> JsonMarshalling.super.fromJson(json, classOfT));
+    }
+
+    @Override
+    default <T> List<T> fromJsonList(String json, Class<T> classOfT) {
+        HttpMetrics httpMetrics = getHttpMetrics();
+        if (httpMetrics == null) {
+            return JsonMarshalling.super.fromJsonList(json, classOfT);
+        }
+
+        return httpMetrics.timeDeserialization(() -> JsonMarshalling.super.fromJsonList(json, classOfT));
+    }
+
     /**
      * Defines the behavior for when a response has a non-200 level status code (300, 400, 500, etc.).
      *
@@ -85,11 +587,15 @@ public interface HttpRequestHandling extends GETRequestHandling, POSTRequestHand
         int statusCode = response.getStatusCode();
 
         if (statusCode >= 400 && statusCode < 500) {
-            throw new HttpClientException(response);
+            throw isLightweightNon200Exceptions()
+                    ? HttpClientException.lightweight(response, getMaxErrorBodyBytes())
+                    : new HttpClientException(response);
         }
 
         if (statusCode >= 500) {
-            throw new HttpServerException(response);
+            throw isLightweightNon200Exceptions()
+                    ? HttpServerException.lightweight(response, getMaxErrorBodyBytes())
+                    : new HttpServerException(response);
         }
 
         return response;
@@ -98,6 +604,10 @@ public interface HttpRequestHandling extends GETRequestHandling, POSTRequestHand
     interface Defaults {
         MediaType applicationJSON = MediaType.parse("application/json");
 
+        long maxErrorBodyBytes = 8 * 1024;
+
+        long maxDrainBodyBytes = 64 * 1024;
+
         OkHttpClient httpClient = new OkHttpClient.Builder()
                 .build();
 
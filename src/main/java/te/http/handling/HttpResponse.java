@@ -7,9 +7,11 @@ import java.util.Optional;
 import javax.annotation.Nullable;
 
 import io.vavr.control.Try;
+import okhttp3.Headers;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import te.http.handling.cache.CacheOutcome;
 
 /**
  * Wrapper around OkHttp's {@link Response} object that eagerly fetches the response
@@ -36,6 +38,28 @@ public class HttpResponse {
         this.body = Try.of(okHttpResponse::body).mapTry(ResponseBody::bytes).getOrNull();
     }
 
+    /**
+     * Wraps a {@link Response} whose body has already been read (or partially read) elsewhere.
+     */
+    public HttpResponse(Response okHttpResponse, @Nullable byte[] body) {
+        this.wrappedResponse = okHttpResponse;
+        this.statusCode = okHttpResponse.code();
+        this.statusMessage = okHttpResponse.message();
+        this.body = body;
+    }
+
+    /**
+     * @return a shallow copy of this response with its own copy of the body, so callers sharing
+     * a response cannot modify each other's body
+     */
+    public HttpResponse copy() {
+        return new HttpResponse()
+                .setBody(body == null ? null : body.clone())
+                .setStatusCode(statusCode)
+                .setStatusMessage(statusMessage)
+                .setWrappedResponse(wrappedResponse);
+    }
+
     public boolean is200() {
         return statusCode >= 200 && statusCode < 300;
     }
@@ -87,6 +111,21 @@ public class HttpResponse {
         return this;
     }
 
+    /**
+     * @return the headers of the wrapped {@link Response}
+     */
+    public Headers getHeaders() {
+        return wrappedResponse.headers();
+    }
+
+    /**
+     * @return whether this response was served from a cache, after revalidation, or by the
+     * webservice
+     */
+    public CacheOutcome getCacheOutcome() {
+        return CacheOutcome.of(wrappedResponse);
+    }
+
     /**
      * @return the original {@link Request} that was made.
      */
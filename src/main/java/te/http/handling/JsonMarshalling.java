@@ -3,18 +3,26 @@ package te.http.handling;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import te.http.handling.deserialization.JavaDateDeserializer;
-import te.http.handling.deserialization.ListParameterizedType;
-import te.http.handling.deserialization.LocalDateDeserializer;
-import te.http.handling.deserialization.LocalDateTimeDeserializer;
-import te.http.handling.serialization.JavaDateToISO8601Serializer;
-import te.http.handling.serialization.LocalDateTimeToISO8601Serializer;
-import te.http.handling.serialization.LocalDateToISO8601Serializer;
+import te.http.handling.deserialization.JsonArrayIterator;
+import te.http.handling.deserialization.TypeAdapterRegistry;
+import te.http.handling.serialization.JavaDateTypeAdapter;
+import te.http.handling.serialization.LocalDateTimeTypeAdapter;
+import te.http.handling.serialization.LocalDateTypeAdapter;
 
 /**
  * Simple JSON marshalling interface for serialization/deserialization via Google's
@@ -22,7 +30,11 @@ import te.http.handling.serialization.LocalDateToISO8601Serializer;
  * can be easily overridden.
  *
  * <p>The default behavior is to add {@link Date}, {@link LocalDate}, and {@link LocalDateTime}
- * serialization & deserialization handling to {@link Gson} during initialization.
+ * serialization & deserialization handling to {@link Gson} during initialization.  This is done
+ * via streaming {@link com.google.gson.TypeAdapter}s; the equivalent {@link
+ * com.google.gson.JsonSerializer}/{@link com.google.gson.JsonDeserializer} pairs (e.g. {@link
+ * te.http.handling.deserialization.LocalDateDeserializer}) remain available for custom
+ * {@link Gson} instances.
  */
 public interface JsonMarshalling {
 
@@ -38,18 +50,84 @@ public interface JsonMarshalling {
         return getJsonMarshaller().fromJson(json, classOfT);
     }
 
+    /**
+     * @return the cache of {@link com.google.gson.TypeAdapter}s used by the collection decoders
+     * below, e.g. {@link #fromJsonList(String, Class)}.  Override alongside
+     * {@link #getJsonMarshaller()}; return the same instance on every call, e.g. from a static
+     * field.
+     */
+    default TypeAdapterRegistry getTypeAdapterRegistry() {
+        Gson jsonMarshaller = getJsonMarshaller();
+
+        return jsonMarshaller == Defaults.jsonMarshaller
+                ? Defaults.typeAdapterRegistry
+                : TypeAdapterRegistry.of(jsonMarshaller);
+    }
+
     default <T> List<T> fromJsonList(String json, Class<T> classOfT) {
-        return getJsonMarshaller().fromJson(json, new ListParameterizedType(classOfT));
+        TypeAdapterRegistry registry = getTypeAdapterRegistry();
+
+        return registry.fromJson(json, registry.listAdapter(classOfT));
+    }
+
+    default <T> Set<T> fromJsonSet(String json, Class<T> classOfT) {
+        TypeAdapterRegistry registry = getTypeAdapterRegistry();
+
+        return registry.fromJson(json, registry.setAdapter(classOfT));
+    }
+
+    /**
+     * Deserializes a JSON object into a {@link Map} whose values are of type T.
+     */
+    default <T> Map<String, T> fromJsonMap(String json, Class<T> classOfT) {
+        TypeAdapterRegistry registry = getTypeAdapterRegistry();
+
+        return registry.fromJson(json, registry.mapAdapter(classOfT));
+    }
+
+    default <T> T[] fromJsonArray(String json, Class<T> classOfT) {
+        TypeAdapterRegistry registry = getTypeAdapterRegistry();
+
+        return registry.fromJson(json, registry.arrayAdapter(classOfT));
+    }
+
+    /**
+     * Lazily deserializes a JSON array from 'json' one element at a time.  The {@link Reader} is
+     * closed when the end of the array is reached or when the {@link JsonArrayIterator} is closed.
+     */
+    default <T> JsonArrayIterator<T> fromJsonIterator(Reader json, Class<T> classOfT) {
+        return new JsonArrayIterator<>(getJsonMarshaller(), json, classOfT);
+    }
+
+    /**
+     * Lazily deserializes a JSON array from 'json' one element at a time, so only the current
+     * element is held in memory.  Close the {@link Stream} (or fully consume it) to close the
+     * {@link Reader}.
+     */
+    default <T> Stream<T> fromJsonStream(Reader json, Class<T> classOfT) {
+        JsonArrayIterator<T> iterator = fromJsonIterator(json, classOfT);
+
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * Lazily deserializes a UTF-8 encoded JSON array from 'json' one element at a time.
+     *
+     * @see #fromJsonStream(Reader, Class)
+     */
+    default <T> Stream<T> fromJsonStream(InputStream json, Class<T> classOfT) {
+        return fromJsonStream(new InputStreamReader(json, StandardCharsets.UTF_8), classOfT);
     }
 
     interface Defaults {
         Gson jsonMarshaller = new GsonBuilder()
-                .registerTypeAdapter(Date.class, new JavaDateDeserializer())
-                .registerTypeAdapter(Date.class, new JavaDateToISO8601Serializer())
-                .registerTypeAdapter(LocalDate.class, new LocalDateDeserializer())
-                .registerTypeAdapter(LocalDate.class, new LocalDateToISO8601Serializer())
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeDeserializer())
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeToISO8601Serializer())
+                .registerTypeAdapter(Date.class, new JavaDateTypeAdapter())
+                .registerTypeAdapter(LocalDate.class, new LocalDateTypeAdapter())
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeTypeAdapter())
                 .create();
+
+        TypeAdapterRegistry typeAdapterRegistry = new TypeAdapterRegistry(jsonMarshaller, TypeAdapterRegistry.DEFAULT_MAX_SIZE);
     }
 }
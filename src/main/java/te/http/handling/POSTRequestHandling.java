@@ -1,23 +1,48 @@
 package te.http.handling;
 
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
+import javax.annotation.Nullable;
+
+import io.vavr.control.Try;
 import okhttp3.FormBody;
 import okhttp3.Headers;
 import okhttp3.MediaType;
+import okhttp3.MultipartBody;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import te.http.handling.error.exceptions.HttpClientException;
 import te.http.handling.error.exceptions.HttpServerException;
 import te.http.handling.error.exceptions.NoResponseException;
+import te.http.handling.loadbalancing.EndpointGroup;
+import te.http.handling.upload.ProgressRequestBody;
+import te.http.handling.upload.StreamingRequestBody;
+import te.http.handling.upload.UploadProgressListener;
 
 public interface POSTRequestHandling {
 
     Headers getDefaultHeaders();
     HttpResponse executeRequest(Request request) throws HttpClientException, HttpServerException, NoResponseException;
 
+    /**
+     * Executes the given {@link Request} returning a future of the {@link HttpResponse}.
+     *
+     * <p>By default this simply delegates to {@link #executeRequest(Request)} on the calling
+     * thread; {@link HttpRequestHandling} overrides this with a non-blocking implementation.
+     */
+    default CompletableFuture<HttpResponse> executeRequestAsync(Request request) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+
+        Try.of(() -> executeRequest(request))
+                .onSuccess(future::complete)
+                .onFailure(future::completeExceptionally);
+
+        return future;
+    }
+
     /**
      * URL encodes the provided form data and then POSTs it w/ the application/x-www-form-urlencoded"
      * Content-Type header set.
@@ -42,6 +67,101 @@ public interface POSTRequestHandling {
         return executeRequest(request);
     }
 
+    /**
+     * URL encodes the provided form data and POSTs it to 'path' (e.g. "/orders") of one of
+     * 'endpoints', picked per request, see {@link EndpointGroup}.
+     */
+    default HttpResponse executeFormPOST(EndpointGroup endpoints, String path, Map<String, ?> formData) throws HttpClientException, HttpServerException, NoResponseException {
+        FormBody formBody = urlEncodeAsFormData(formData);
+
+        return endpoints.execute(baseUrl -> buildRequestForPOST(baseUrl + path, formBody), this::executeRequest);
+    }
+
+    /**
+     * Performs a generic POST request to 'path' of one of 'endpoints', picked per request, see
+     * {@link EndpointGroup}.
+     */
+    default HttpResponse executePOST(EndpointGroup endpoints, String path, MediaType contentType, String content) throws HttpClientException, HttpServerException, NoResponseException {
+        RequestBody requestBody = RequestBody.create(contentType, content.getBytes());
+
+        return endpoints.execute(baseUrl -> buildRequestForPOST(baseUrl + path, requestBody), this::executeRequest);
+    }
+
+    /**
+     * POSTs the content of 'file', streamed from disk as the request is written, see {@link
+     * StreamingRequestBody}.
+     */
+    default HttpResponse executeFilePOST(String url, MediaType contentType, Path file) throws HttpClientException, HttpServerException, NoResponseException {
+        return executeFilePOST(url, contentType, file, null);
+    }
+
+    /**
+     * POSTs the content of 'file' like {@link #executeFilePOST(String, MediaType, Path)},
+     * reporting the upload's progress & throughput to 'progressListener'.
+     */
+    default HttpResponse executeFilePOST(String url, MediaType contentType, Path file, @Nullable UploadProgressListener progressListener) throws HttpClientException, HttpServerException, NoResponseException {
+        RequestBody requestBody = withProgress(StreamingRequestBody.of(contentType, file), progressListener);
+
+        return executeRequest(buildRequestForPOST(url, requestBody));
+    }
+
+    /**
+     * POSTs the form data & files as "multipart/form-data", streaming each file from disk as the
+     * request is written, see {@link #buildMultipartBody(Map, Map)}.
+     */
+    default HttpResponse executeMultipartPOST(String url, Map<String, ?> formData, Map<String, Path> files) throws HttpClientException, HttpServerException, NoResponseException {
+        return executeMultipartPOST(url, formData, files, null);
+    }
+
+    /**
+     * POSTs the form data & files like {@link #executeMultipartPOST(String, Map, Map)}, reporting
+     * the upload's progress & throughput to 'progressListener'.
+     */
+    default HttpResponse executeMultipartPOST(String url, Map<String, ?> formData, Map<String, Path> files, @Nullable UploadProgressListener progressListener) throws HttpClientException, HttpServerException, NoResponseException {
+        RequestBody requestBody = withProgress(buildMultipartBody(formData, files), progressListener);
+
+        return executeRequest(buildRequestForPOST(url, requestBody));
+    }
+
+    /**
+     * Asynchronous version of {@link #executeFormPOST(String, Map)}.
+     */
+    default CompletableFuture<HttpResponse> executeFormPOSTAsync(String url, Map<String, ?> formData) {
+        return executeRequestAsync(buildRequestForPOST(url, urlEncodeAsFormData(formData)));
+    }
+
+    /**
+     * Asynchronous version of {@link #executePOST(String, MediaType, String)}.
+     */
+    default CompletableFuture<HttpResponse> executePOSTAsync(String url, MediaType contentType, String content) {
+        RequestBody requestBody = RequestBody.create(contentType, content.getBytes());
+
+        return executeRequestAsync(buildRequestForPOST(url, requestBody));
+    }
+
+    /**
+     * Asynchronous version of {@link #executePOST(EndpointGroup, String, MediaType, String)}.
+     */
+    default CompletableFuture<HttpResponse> executePOSTAsync(EndpointGroup endpoints, String path, MediaType contentType, String content) {
+        RequestBody requestBody = RequestBody.create(contentType, content.getBytes());
+
+        return endpoints.executeAsync(baseUrl -> buildRequestForPOST(baseUrl + path, requestBody), this::executeRequestAsync);
+    }
+
+    /**
+     * Asynchronous version of {@link #executeFilePOST(String, MediaType, Path)}.
+     */
+    default CompletableFuture<HttpResponse> executeFilePOSTAsync(String url, MediaType contentType, Path file) {
+        return executeRequestAsync(buildRequestForPOST(url, StreamingRequestBody.of(contentType, file)));
+    }
+
+    /**
+     * Asynchronous version of {@link #executeMultipartPOST(String, Map, Map)}.
+     */
+    default CompletableFuture<HttpResponse> executeMultipartPOSTAsync(String url, Map<String, ?> formData, Map<String, Path> files) {
+        return executeRequestAsync(buildRequestForPOST(url, buildMultipartBody(formData, files)));
+    }
+
     default Request buildRequestForPOST(String url, RequestBody body) {
         return new Request.Builder()
                 .url(url)
@@ -50,18 +170,59 @@ public interface POSTRequestHandling {
                 .build();
     }
 
+    default Request buildRequestForPUT(String url, RequestBody body) {
+        return new Request.Builder()
+                .url(url)
+                .headers(getDefaultHeaders())
+                .put(body)
+                .build();
+    }
+
+    default Request buildRequestForPATCH(String url, RequestBody body) {
+        return new Request.Builder()
+                .url(url)
+                .headers(getDefaultHeaders())
+                .patch(body)
+                .build();
+    }
+
+    /**
+     * Builds a "multipart/form-data" body of the form data followed by the files, in iteration
+     * order.  Each file is a {@link StreamingRequestBody}, so it is streamed from disk each time the
+     * body is written, see {@link StreamingRequestBody#of(Path)}.
+     *
+     * @throws java.io.UncheckedIOException if a file could not be read
+     */
+    default MultipartBody buildMultipartBody(Map<String, ?> formData, Map<String, Path> files) {
+        MultipartBody.Builder multipartBodyBuilder = new MultipartBody.Builder().setType(MultipartBody.FORM);
+
+        formData.forEach((name, value) ->
+                multipartBodyBuilder.addFormDataPart(name, Objects.toString(value, ""))
+        );
+        files.forEach((name, file) ->
+                multipartBodyBuilder.addFormDataPart(name, file.getFileName().toString(), StreamingRequestBody.of(file))
+        );
+
+        return multipartBodyBuilder.build();
+    }
+
+    /**
+     * @return 'requestBody', reporting its progress to 'progressListener' unless that is null
+     */
+    default RequestBody withProgress(RequestBody requestBody, @Nullable UploadProgressListener progressListener) {
+        return progressListener == null ? requestBody : new ProgressRequestBody(requestBody, progressListener);
+    }
+
+    /**
+     * URL encodes the provided parameters, in iteration order, into a {@link FormBody} which is
+     * written directly to the connection when the request is sent.
+     */
     default FormBody urlEncodeAsFormData(Map<String, ?> urlParams) {
         FormBody.Builder formBodyBuilder = new FormBody.Builder();
 
-        urlParams.entrySet()
-                .stream()
-                .collect(
-                        Collectors.toMap(
-                                Map.Entry::getKey,
-                                entry -> Objects.toString(entry.getValue(), "")
-                        )
-                )
-                .forEach(formBodyBuilder::add);
+        urlParams.forEach((key, value) ->
+                formBodyBuilder.add(key, Objects.toString(value, ""))
+        );
 
         return formBodyBuilder.build();
     }
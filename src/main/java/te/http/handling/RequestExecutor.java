@@ -0,0 +1,16 @@
+package te.http.handling;
+
+import okhttp3.Request;
+import te.http.handling.error.exceptions.HttpClientException;
+import te.http.handling.error.exceptions.HttpServerException;
+import te.http.handling.error.exceptions.NoResponseException;
+
+/**
+ * Something that executes a {@link Request}, e.g. {@link HttpRequestHandling#executeRequest(Request)}.
+ */
+@FunctionalInterface
+public interface RequestExecutor {
+
+    HttpResponse execute(Request request) throws HttpClientException, HttpServerException, NoResponseException;
+
+}
@@ -0,0 +1,43 @@
+package te.http.handling;
+
+import java.io.IOException;
+
+import okhttp3.Call;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Gets rid of a response's body without reading it into memory, as cheaply as possible.
+ */
+class ResponseBodyDiscarder {
+
+    private ResponseBodyDiscarder() {}
+
+    /**
+     * Bodies of a known length of at most 'maxDrainBytes' are read & discarded, so the connection
+     * can be reused.  Larger bodies, or bodies of an unknown length, are abandoned by cancelling
+     * the call, which closes the connection (or just the stream on HTTP/2) without downloading
+     * them.
+     *
+     * @return a {@link HttpResponse} w/ the status, message & headers of 'response' but no body
+     */
+    static HttpResponse discardBody(Call call, Response response, long maxDrainBytes) {
+        try (ResponseBody body = response.body()) {
+            if (body != null) {
+                long contentLength = body.contentLength();
+
+                if (contentLength >= 0 && contentLength <= maxDrainBytes) {
+                    body.source().skip(contentLength);
+                } else {
+                    call.cancel();
+                }
+            }
+        } catch (IOException ex) {
+            // The status & headers have already been received, so failing to discard the body
+            // only means the connection cannot be reused
+            call.cancel();
+        }
+
+        return new HttpResponse(response, null);
+    }
+}
@@ -0,0 +1,117 @@
+package te.http.handling;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import te.http.handling.error.exceptions.NoResponseException;
+
+/**
+ * Writes a response's body straight from the connection to a file, without holding it in memory.
+ */
+class ResponseBodyWriter {
+
+    private static final long TRANSFER_CHUNK_BYTES = 8 * 1024 * 1024;
+
+    private ResponseBodyWriter() {}
+
+    /**
+     * Writes the body of 'response' to 'target', closing 'response'.  If 'viaTempFile' the body is
+     * first written to a temporary file next to 'target', which is then atomically renamed, so
+     * 'target' never holds a partial body.
+     *
+     * @throws NoResponseException  if the body could not be read from the connection
+     * @throws UncheckedIOException if the file could not be written
+     */
+    static FileHttpResponse writeBody(StreamingHttpResponse response, Path target, boolean viaTempFile) throws NoResponseException {
+        try {
+            Path file = viaTempFile ? createTempFileFor(target) : target;
+
+            try {
+                long size = transfer(response, file);
+
+                if (viaTempFile) {
+                    moveAtomically(file, target);
+                }
+
+                return new FileHttpResponse(response.getWrappedResponse(), target, size);
+            } catch (NoResponseException | RuntimeException ex) {
+                if (viaTempFile) deleteQuietly(file);
+                throw ex;
+            }
+        } finally {
+            response.close();
+        }
+    }
+
+    private static long transfer(StreamingHttpResponse response, Path file) throws NoResponseException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            try {
+                return transfer(response.getBodySource(), channel, 0, Long.MAX_VALUE);
+            } catch (IOException ex) {
+                throw new NoResponseException(ex, response.getRequest());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Transfers at most 'maxBytes' from 'source' into 'channel', starting at 'position', stopping
+     * early once 'source' is exhausted.
+     *
+     * @return the number of bytes transferred
+     */
+    static long transfer(ReadableByteChannel source, FileChannel channel, long position, long maxBytes) throws IOException {
+        long transferred = 0;
+
+        while (transferred < maxBytes) {
+            long count = channel.transferFrom(source, position + transferred, Math.min(TRANSFER_CHUNK_BYTES, maxBytes - transferred));
+
+            // Only a source that is exhausted transfers nothing, as reading from it blocks
+            if (count <= 0) break;
+            transferred += count;
+        }
+
+        return transferred;
+    }
+
+    /**
+     * @return a new, empty temporary file in the same directory as 'target'
+     */
+    static Path createTempFileFor(Path target) {
+        Path directory = target.toAbsolutePath().getParent();
+
+        try {
+            return Files.createTempFile(directory, "." + target.getFileName(), ".part");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static void moveAtomically(Path source, Path target) {
+        try {
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // Nothing more can be done about a leftover temporary file
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package te.http.handling;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.io.Closeable;
+import java.io.InputStream;
+
+import io.vavr.control.Try;
+import okhttp3.Headers;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+/**
+ * Wrapper around OkHttp's {@link Response} object that, unlike {@link HttpResponse}, does not
+ * read the response body.  Instead the body is streamed from the connection via {@link
+ * #getBodyAsStream()} or {@link #getBodySource()}.
+ *
+ * <p>This must be closed once the body has been consumed, otherwise the underlying connection is
+ * leaked; use try-with-resources.
+ */
+public class StreamingHttpResponse implements Closeable {
+
+    private final Response wrappedResponse;
+    private final Runnable onClose;
+
+    public StreamingHttpResponse(Response okHttpResponse) {
+        this(okHttpResponse, () -> {});
+    }
+
+    /**
+     * @param onClose run once the response is closed, e.g. to free a concurrency limiter's slot
+     */
+    StreamingHttpResponse(Response okHttpResponse, Runnable onClose) {
+        this.wrappedResponse = okHttpResponse;
+        this.onClose = onClose;
+    }
+
+    /**
+     * Adapts an already buffered {@link HttpResponse}, e.g. for implementations that are not backed
+     * by OkHttp.
+     */
+    public StreamingHttpResponse(HttpResponse httpResponse) {
+        Response response = httpResponse.getWrappedResponse();
+        ResponseBody body = ResponseBody.create(
+                response.body() == null ? null : response.body().contentType(),
+                httpResponse.getBodyAsBytes().orElse(new byte[0])
+        );
+
+        this.wrappedResponse = response.newBuilder()
+                .code(httpResponse.getStatusCode())
+                .message(httpResponse.getStatusMessage())
+                .body(body)
+                .build();
+        this.onClose = () -> {};
+    }
+
+    public boolean is200() {
+        return wrappedResponse.isSuccessful();
+    }
+
+    public boolean isNot200() {
+        return !is200();
+    }
+
+    public int getStatusCode() {
+        return wrappedResponse.code();
+    }
+
+    public String getStatusMessage() {
+        return wrappedResponse.message();
+    }
+
+    public Headers getHeaders() {
+        return wrappedResponse.headers();
+    }
+
+    /**
+     * @return the length of the response body in bytes, or -1 if unknown
+     */
+    public long getContentLength() {
+        return wrappedResponse.body().contentLength();
+    }
+
+    /**
+     * @return the response body as a stream read directly from the connection
+     */
+    public InputStream getBodyAsStream() {
+        return wrappedResponse.body().byteStream();
+    }
+
+    /**
+     * @return the response body as an Okio {@link BufferedSource} read directly from the connection
+     */
+    public BufferedSource getBodySource() {
+        return wrappedResponse.body().source();
+    }
+
+    /**
+     * Builds a {@link HttpResponse} holding, at most, the first 'maxBodyBytes' of the response
+     * body.  The body is peeked at, not consumed, so it can still be streamed afterwards.
+     */
+    public HttpResponse peekAsHttpResponse(long maxBodyBytes) {
+        byte[] bodyPrefix = Try.of(() -> wrappedResponse.peekBody(maxBodyBytes))
+                .mapTry(ResponseBody::bytes)
+                .getOrNull();
+
+        return new HttpResponse(wrappedResponse, bodyPrefix);
+    }
+
+    /**
+     * @return the wrapped OkHttp {@link Response}.
+     */
+    public Response getWrappedResponse() {
+        return wrappedResponse;
+    }
+
+    /**
+     * @return the original {@link Request} that was made.
+     */
+    public Request getRequest() {
+        return wrappedResponse.request();
+    }
+
+    @Override
+    public void close() {
+        try {
+            wrappedResponse.close();
+        } finally {
+            onClose.run();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("statusMessage", getStatusMessage())
+                .append("statusCode", getStatusCode())
+                .append("wrappedResponse", wrappedResponse)
+                .append("request", getRequest())
+                .toString();
+    }
+}
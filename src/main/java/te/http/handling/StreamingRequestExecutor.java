@@ -0,0 +1,17 @@
+package te.http.handling;
+
+import okhttp3.Request;
+import te.http.handling.error.exceptions.HttpClientException;
+import te.http.handling.error.exceptions.HttpServerException;
+import te.http.handling.error.exceptions.NoResponseException;
+
+/**
+ * Something that executes a {@link Request} without reading the response body, e.g. {@link
+ * HttpRequestHandling#executeStreamingRequest(Request)}.
+ */
+@FunctionalInterface
+public interface StreamingRequestExecutor {
+
+    StreamingHttpResponse execute(Request request) throws HttpClientException, HttpServerException, NoResponseException;
+
+}
@@ -0,0 +1,213 @@
+package te.http.handling.batch;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vavr.CheckedFunction1;
+import io.vavr.control.Try;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import te.http.handling.HttpResponse;
+
+/**
+ * Executes a batch of requests with bounded concurrency, collecting a result per request.
+ *
+ * <p>Concurrency is bounded globally by {@link BatchOptions#getConcurrency()} and the
+ * {@link Dispatcher#getMaxRequests()}, and per-host by {@link Dispatcher#getMaxRequestsPerHost()},
+ * so a batch can never overrun the limits the OkHttp client was configured with.
+ */
+public class BatchExecutor {
+
+    private final BatchOptions options;
+    private final int maxConcurrency;
+    private final int maxConcurrencyPerHost;
+
+    public BatchExecutor(BatchOptions options, Dispatcher dispatcher) {
+        this(options, dispatcher.getMaxRequests(), dispatcher.getMaxRequestsPerHost());
+    }
+
+    public BatchExecutor(BatchOptions options, int maxRequests, int maxRequestsPerHost) {
+        this.options = options;
+        this.maxConcurrency = Math.min(options.getConcurrency(), maxRequests);
+        this.maxConcurrencyPerHost = Math.min(maxConcurrency, maxRequestsPerHost);
+    }
+
+    /**
+     * Executes every request via 'executor', blocking until the whole batch has completed.
+     *
+     * <p>A request is only started once its host has a free permit, so requests to a saturated
+     * host never hold up requests to other hosts queued behind them.
+     *
+     * @return the result of each request, in the same order as 'requests'
+     */
+    public BatchResult execute(Collection<Request> requests, CheckedFunction1<Request, HttpResponse> executor) {
+        List<Request> orderedRequests = new ArrayList<>(requests);
+        List<Try<HttpResponse>> results = new ArrayList<>(Collections.nCopies(orderedRequests.size(), null));
+        Semaphore globalPermits = new Semaphore(maxConcurrency);
+        HostScheduler scheduler = new HostScheduler(orderedRequests);
+        AtomicBoolean stopped = new AtomicBoolean(false);
+
+        long startNanos = System.nanoTime();
+        ExecutorService executorService = newExecutorService();
+
+        try {
+            for (int i = 0; i < orderedRequests.size() && !stopped.get(); i++) {
+                globalPermits.acquire();
+                int index = scheduler.takeNext();
+                Request request = orderedRequests.get(index);
+
+                if (stopped.get()) {
+                    scheduler.complete(index);
+                    globalPermits.release();
+                    break;
+                }
+
+                executorService.execute(() -> {
+                    Try<HttpResponse> result = Try.failure(new IllegalStateException("Request did not complete."));
+                    try {
+                        result = stopped.get() ? skipped() : Try.of(() -> executor.apply(request));
+                    } finally {
+                        results.set(index, result);
+                        if (result.isFailure() && options.isStopOnFirstFailure()) {
+                            stopped.set(true);
+                        }
+                        scheduler.complete(index);
+                        globalPermits.release();
+                    }
+                });
+            }
+
+            executorService.shutdown();
+            executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            executorService.shutdownNow();
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) results.set(i, skipped());
+        }
+
+        return new BatchResult(
+                results,
+                Duration.ofNanos(System.nanoTime() - startNanos)
+        );
+    }
+
+    private ExecutorService newExecutorService() {
+        if (options.isUseVirtualThreads()) {
+            Try<ExecutorService> virtualThreadExecutor = Try.of(() ->
+                    (ExecutorService) Executors.class
+                            .getMethod("newVirtualThreadPerTaskExecutor")
+                            .invoke(null)
+            );
+
+            if (virtualThreadExecutor.isSuccess()) {
+                return virtualThreadExecutor.get();
+            }
+        }
+
+        return Executors.newFixedThreadPool(maxConcurrency, new BatchThreadFactory());
+    }
+
+    /**
+     * @return the key OkHttp's {@link Dispatcher} counts requests per host by, which ignores the
+     * port
+     */
+    private static String hostKey(HttpUrl url) {
+        return url.host();
+    }
+
+    private static Try<HttpResponse> skipped() {
+        return Try.failure(new CancellationException("Request skipped since an earlier request in the batch failed."));
+    }
+
+    /**
+     * Hands out the requests of a batch in order, skipping those whose host already has
+     * {@link #maxConcurrencyPerHost} requests in-flight.
+     */
+    private class HostScheduler {
+        private final Map<String, Deque<Integer>> pendingByHost = new LinkedHashMap<>();
+        private final Map<String, Integer> inFlightByHost = new HashMap<>();
+        private final List<String> hostOfRequest = new ArrayList<>();
+
+        HostScheduler(List<Request> requests) {
+            for (int i = 0; i < requests.size(); i++) {
+                String host = hostKey(requests.get(i).url());
+                hostOfRequest.add(host);
+                pendingByHost.computeIfAbsent(host, key -> new ArrayDeque<>()).add(i);
+            }
+        }
+
+        /**
+         * Blocks until a request whose host has a free permit is pending.
+         *
+         * @return the index of the earliest such request, whose host permit is now taken
+         */
+        synchronized int takeNext() throws InterruptedException {
+            while (true) {
+                String nextHost = null;
+                for (Map.Entry<String, Deque<Integer>> pending : pendingByHost.entrySet()) {
+                    boolean hasPermit = inFlightByHost.getOrDefault(pending.getKey(), 0) < maxConcurrencyPerHost;
+                    if (hasPermit && (nextHost == null || pending.getValue().peek() < pendingByHost.get(nextHost).peek())) {
+                        nextHost = pending.getKey();
+                    }
+                }
+
+                if (nextHost != null) {
+                    Deque<Integer> pending = pendingByHost.get(nextHost);
+                    int index = pending.poll();
+                    if (pending.isEmpty()) pendingByHost.remove(nextHost);
+                    inFlightByHost.merge(nextHost, 1, Integer::sum);
+
+                    return index;
+                }
+
+                wait();
+            }
+        }
+
+        /**
+         * Releases the host permit taken for the request at 'index'.
+         */
+        synchronized void complete(int index) {
+            inFlightByHost.merge(hostOfRequest.get(index), -1, Integer::sum);
+            notifyAll();
+        }
+    }
+
+    private static class BatchThreadFactory implements ThreadFactory {
+        private static final AtomicInteger batchCount = new AtomicInteger();
+
+        private final int batchNumber = batchCount.incrementAndGet();
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(
+                    runnable,
+                    "pretty-okhttp-batch-" + batchNumber + "-" + threadCount.incrementAndGet()
+            );
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
+}
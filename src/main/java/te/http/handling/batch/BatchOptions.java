@@ -0,0 +1,68 @@
+package te.http.handling.batch;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Configures how {@link BatchExecutor} fans out a batch of requests.
+ *
+ * <p>By default up to 16 requests run concurrently on platform threads and every request in the
+ * batch is attempted regardless of failures.
+ */
+public class BatchOptions {
+
+    private int concurrency = 16;
+    private boolean stopOnFirstFailure;
+    private boolean useVirtualThreads;
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * @param concurrency the maximum number of requests in-flight at once; this is further capped
+     *                    by the OkHttp {@link okhttp3.Dispatcher}'s limits.
+     */
+    public BatchOptions setConcurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1 but was " + concurrency);
+        }
+
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    public boolean isStopOnFirstFailure() {
+        return stopOnFirstFailure;
+    }
+
+    /**
+     * @param stopOnFirstFailure whether or not requests that have not yet started should be
+     *                           skipped once any request in the batch fails
+     */
+    public BatchOptions setStopOnFirstFailure(boolean stopOnFirstFailure) {
+        this.stopOnFirstFailure = stopOnFirstFailure;
+        return this;
+    }
+
+    public boolean isUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    /**
+     * @param useVirtualThreads whether or not to run requests on virtual threads; this is ignored
+     *                          on JDKs that do not support them.
+     */
+    public BatchOptions setUseVirtualThreads(boolean useVirtualThreads) {
+        this.useVirtualThreads = useVirtualThreads;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("concurrency", concurrency)
+                .append("stopOnFirstFailure", stopOnFirstFailure)
+                .append("useVirtualThreads", useVirtualThreads)
+                .toString();
+    }
+}
@@ -0,0 +1,86 @@
+package te.http.handling.batch;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import io.vavr.control.Try;
+import okhttp3.Request;
+import te.http.handling.HttpResponse;
+
+/**
+ * The outcome of a batch of requests executed by {@link BatchExecutor}.
+ *
+ * <p>Results are in the same order as the requests that were submitted.  Each result holds either
+ * the {@link HttpResponse} or the exception that request failed with.  Requests that were never
+ * started, because the batch stopped on its first failure, hold a {@link CancellationException}.
+ */
+public class BatchResult {
+
+    private final List<Try<HttpResponse>> results;
+    private final Duration elapsed;
+
+    public BatchResult(List<Try<HttpResponse>> results, Duration elapsed) {
+        this.results = results;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * @return one result per {@link Request}, in the order the requests were submitted
+     */
+    public List<Try<HttpResponse>> getResults() {
+        return results;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public long getSuccessCount() {
+        return results.stream().filter(Try::isSuccess).count();
+    }
+
+    public long getFailureCount() {
+        return results.stream().filter(Try::isFailure).count() - getSkippedCount();
+    }
+
+    /**
+     * @return the number of requests that were never started
+     */
+    public long getSkippedCount() {
+        return results.stream()
+                .filter(result -> result.isFailure() && result.getCause() instanceof CancellationException)
+                .count();
+    }
+
+    /**
+     * @return whether or not every request in the batch succeeded
+     */
+    public boolean isAllSuccessful() {
+        return results.stream().allMatch(Try::isSuccess);
+    }
+
+    /**
+     * @return the number of requests completed (successfully or not) per second of wall-clock time
+     */
+    public double getThroughputPerSecond() {
+        long completed = results.size() - getSkippedCount();
+        long elapsedNanos = Math.max(elapsed.toNanos(), 1);
+
+        return completed * 1_000_000_000d / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("requests", results.size())
+                .append("successes", getSuccessCount())
+                .append("failures", getFailureCount())
+                .append("skipped", getSkippedCount())
+                .append("elapsed", elapsed)
+                .append("throughputPerSecond", String.format("%.2f", getThroughputPerSecond()))
+                .toString();
+    }
+}
@@ -0,0 +1,25 @@
+package te.http.handling.cache;
+
+import okhttp3.Response;
+
+/**
+ * How a response was served with respect to caching.
+ */
+public enum CacheOutcome {
+    /** Served entirely from a cache without contacting the webservice */
+    HIT,
+    /** Served from a cache after the webservice confirmed it was still valid (a 304) */
+    REVALIDATED,
+    /** Served by the webservice */
+    MISS;
+
+    public static CacheOutcome of(Response response) {
+        Response cacheResponse = response.cacheResponse();
+        Response networkResponse = response.networkResponse();
+
+        if (cacheResponse != null && networkResponse == null) return HIT;
+        if (cacheResponse != null && networkResponse.code() == 304) return REVALIDATED;
+
+        return MISS;
+    }
+}
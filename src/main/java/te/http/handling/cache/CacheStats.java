@@ -0,0 +1,75 @@
+package te.http.handling.cache;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing how requests made through a {@link HttpResponseCache} were served.
+ */
+public class CacheStats {
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    void recordMemoryHit() {
+        memoryHits.incrementAndGet();
+    }
+
+    void record(CacheOutcome outcome) {
+        switch (outcome) {
+            case HIT:
+                diskHits.incrementAndGet();
+                break;
+            case REVALIDATED:
+                revalidations.incrementAndGet();
+                break;
+            default:
+                misses.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of responses served from either the in-memory or the disk cache
+     */
+    public long getHitCount() {
+        return getMemoryHitCount() + getDiskHitCount();
+    }
+
+    public long getMemoryHitCount() {
+        return memoryHits.get();
+    }
+
+    public long getDiskHitCount() {
+        return diskHits.get();
+    }
+
+    /**
+     * @return the number of cached responses served after a conditional request returned a 304
+     */
+    public long getRevalidationCount() {
+        return revalidations.get();
+    }
+
+    /**
+     * @return the number of responses served by the webservice
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getRequestCount() {
+        return getHitCount() + getRevalidationCount() + getMissCount();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("memoryHits", getMemoryHitCount())
+                .append("diskHits", getDiskHitCount())
+                .append("revalidations", getRevalidationCount())
+                .append("misses", getMissCount())
+                .toString();
+    }
+}
@@ -0,0 +1,98 @@
+package te.http.handling.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nullable;
+
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+
+/**
+ * A two-tier HTTP response cache: an in-memory LRU for small, hot bodies in front of OkHttp's
+ * disk {@link Cache}, which has a size budget.  Both tiers honor Cache-Control and revalidate
+ * stale entries with conditional requests (ETag/Last-Modified).
+ *
+ * <p>The memory tier follows the rules of a shared cache, so it never keeps "private" responses
+ * nor, unless marked "public", responses to requests with credentials.  The disk tier is OkHttp's
+ * private cache, keyed by URL alone.
+ *
+ * <p>Caches are meant to be long-lived: create one, keep it in a static field and return it from
+ * {@link te.http.handling.HttpRequestHandling#getResponseCache()}.
+ */
+public class HttpResponseCache {
+
+    private final @Nullable Cache diskCache;
+    private final CacheStats stats = new CacheStats();
+    private final MemoryCacheInterceptor memoryCache;
+    private final AtomicReference<Tuple2<OkHttpClient, OkHttpClient>> lastDecoratedClient = new AtomicReference<>();
+
+    /**
+     * @param diskDirectory      where responses are cached on disk, or null for no disk tier
+     * @param maxDiskBytes       the size budget for the disk tier
+     * @param maxMemoryEntries   the number of responses kept in memory, or 0 for no memory tier
+     * @param maxMemoryEntryBytes the largest response body kept in memory
+     */
+    public HttpResponseCache(@Nullable File diskDirectory, long maxDiskBytes, int maxMemoryEntries, long maxMemoryEntryBytes) {
+        this.diskCache = diskDirectory == null ? null : new Cache(diskDirectory, maxDiskBytes);
+        this.memoryCache = new MemoryCacheInterceptor(maxMemoryEntries, maxMemoryEntryBytes, stats);
+    }
+
+    /**
+     * @return a cache w/ only a disk tier
+     */
+    public static HttpResponseCache onDisk(File directory, long maxBytes) {
+        return new HttpResponseCache(directory, maxBytes, 0, 0);
+    }
+
+    /**
+     * @return a cache w/ only an in-memory tier
+     */
+    public static HttpResponseCache inMemory(int maxEntries, long maxEntryBytes) {
+        return new HttpResponseCache(null, 0, maxEntries, maxEntryBytes);
+    }
+
+    /**
+     * @return a client sharing everything (connection pool, dispatcher, etc.) with 'httpClient'
+     * except that it caches responses; the most recently decorated client is reused.
+     */
+    public OkHttpClient decorate(OkHttpClient httpClient) {
+        Tuple2<OkHttpClient, OkHttpClient> last = lastDecoratedClient.get();
+        if (last != null && last._1 == httpClient) {
+            return last._2;
+        }
+
+        OkHttpClient decorated = httpClient.newBuilder()
+                .cache(diskCache)
+                .addInterceptor(memoryCache)
+                .build();
+        lastDecoratedClient.set(Tuple.of(httpClient, decorated));
+
+        return decorated;
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return the number of responses currently held in memory
+     */
+    public int getMemoryEntryCount() {
+        return memoryCache.size();
+    }
+
+    /**
+     * @return the number of bytes currently used on disk
+     */
+    public long getDiskSize() throws IOException {
+        return diskCache == null ? 0 : diskCache.size();
+    }
+
+    public @Nullable Cache getDiskCache() {
+        return diskCache;
+    }
+}
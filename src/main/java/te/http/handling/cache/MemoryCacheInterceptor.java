@@ -0,0 +1,249 @@
+package te.http.handling.cache;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import okhttp3.CacheControl;
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * An application {@link Interceptor} that keeps small, hot GET responses in an in-memory LRU,
+ * in front of OkHttp's disk {@link okhttp3.Cache}.
+ *
+ * <p>Entries are served without touching the network or disk while fresh (per their max-age).
+ * Once stale, entries with an ETag or Last-Modified header are revalidated with a conditional
+ * request and served from memory if the webservice responds with a 304.
+ *
+ * <p>Entries are shared by every caller of the client, so like a shared cache (RFC 7234, section
+ * 3) responses marked "private" are never stored, and responses to requests carrying credentials
+ * (Authorization or Cookie) are only stored if marked "public" or with an "s-maxage".
+ */
+class MemoryCacheInterceptor implements Interceptor {
+
+    private final int maxEntries;
+    private final long maxEntryBytes;
+    private final CacheStats stats;
+    private final Map<String, CacheEntry> entries;
+
+    MemoryCacheInterceptor(int maxEntries, long maxEntryBytes, CacheStats stats) {
+        this.maxEntries = maxEntries;
+        this.maxEntryBytes = maxEntryBytes;
+        this.stats = stats;
+        this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > MemoryCacheInterceptor.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (maxEntries <= 0 || !isCacheableRequest(request)) {
+            return record(chain.proceed(request));
+        }
+
+        String key = request.url().toString();
+        CacheEntry entry = get(key);
+
+        if (entry != null && entry.isFresh()) {
+            stats.recordMemoryHit();
+            return entry.toResponse(request, null);
+        }
+
+        if (entry != null && entry.hasValidators()) {
+            Response response = chain.proceed(entry.addConditions(request));
+
+            if (response.code() == 304) {
+                response.close();
+                CacheEntry revalidated = entry.revalidatedBy(response);
+                put(key, revalidated);
+                stats.record(CacheOutcome.REVALIDATED);
+
+                return revalidated.toResponse(request, response);
+            }
+
+            return record(store(key, request, response));
+        }
+
+        return record(store(key, request, chain.proceed(request)));
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Response record(Response response) {
+        stats.record(CacheOutcome.of(response));
+        return response;
+    }
+
+    private Response store(String key, Request request, Response response) throws IOException {
+        ResponseBody body = response.body();
+        CacheControl cacheControl = response.cacheControl();
+        boolean isCacheable = response.code() == 200
+                && body != null
+                && body.contentLength() >= 0
+                && body.contentLength() <= maxEntryBytes
+                && !cacheControl.noStore()
+                && !cacheControl.isPrivate()
+                && (!hasCredentials(request) || cacheControl.isPublic() || cacheControl.sMaxAgeSeconds() >= 0)
+                && response.header("Vary") == null
+                && (cacheControl.maxAgeSeconds() > 0 || hasValidators(response.headers()));
+
+        if (!isCacheable) {
+            return response;
+        }
+
+        byte[] bytes = body.bytes();
+        put(key, new CacheEntry(response, bytes));
+
+        return response.newBuilder()
+                .body(ResponseBody.create(body.contentType(), bytes))
+                .build();
+    }
+
+    private CacheEntry get(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private void put(String key, CacheEntry entry) {
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    private static boolean isCacheableRequest(Request request) {
+        CacheControl cacheControl = request.cacheControl();
+
+        return "GET".equals(request.method())
+                && !cacheControl.noCache()
+                && !cacheControl.noStore()
+                && request.header("If-None-Match") == null
+                && request.header("If-Modified-Since") == null;
+    }
+
+    private static boolean hasCredentials(Request request) {
+        return request.header("Authorization") != null || request.header("Cookie") != null;
+    }
+
+    private static boolean hasValidators(Headers headers) {
+        return headers.get("ETag") != null || headers.get("Last-Modified") != null;
+    }
+
+    private static class CacheEntry {
+        private final int code;
+        private final String message;
+        private final Protocol protocol;
+        private final Headers headers;
+        private final MediaType contentType;
+        private final byte[] body;
+        private final long expiresAtMillis;
+
+        CacheEntry(Response response, byte[] body) {
+            this(
+                    response.code(),
+                    response.message(),
+                    response.protocol(),
+                    response.headers(),
+                    response.body().contentType(),
+                    body
+            );
+        }
+
+        private CacheEntry(int code, String message, Protocol protocol, Headers headers, MediaType contentType, byte[] body) {
+            CacheControl cacheControl = CacheControl.parse(headers);
+            long maxAgeMillis = cacheControl.noCache() ? 0 : Math.max(cacheControl.maxAgeSeconds(), 0) * 1000L;
+
+            this.code = code;
+            this.message = message;
+            this.protocol = protocol;
+            this.headers = headers;
+            this.contentType = contentType;
+            this.body = body;
+            this.expiresAtMillis = System.currentTimeMillis() + maxAgeMillis;
+        }
+
+        boolean isFresh() {
+            return System.currentTimeMillis() < expiresAtMillis;
+        }
+
+        boolean hasValidators() {
+            return MemoryCacheInterceptor.hasValidators(headers);
+        }
+
+        Request addConditions(Request request) {
+            Request.Builder conditionalRequest = request.newBuilder();
+
+            if (headers.get("ETag") != null) {
+                conditionalRequest.header("If-None-Match", headers.get("ETag"));
+            }
+            if (headers.get("Last-Modified") != null) {
+                conditionalRequest.header("If-Modified-Since", headers.get("Last-Modified"));
+            }
+
+            return conditionalRequest.build();
+        }
+
+        /**
+         * @return a copy of this entry whose headers & freshness are updated from a 304 response
+         */
+        CacheEntry revalidatedBy(Response notModified) {
+            Headers.Builder mergedHeaders = headers.newBuilder();
+            for (String name : notModified.headers().names()) {
+                if (!isContentSpecific(name)) {
+                    mergedHeaders.set(name, notModified.header(name));
+                }
+            }
+
+            return new CacheEntry(code, message, protocol, mergedHeaders.build(), contentType, body);
+        }
+
+        Response toResponse(Request request, Response networkResponse) {
+            Response cacheResponse = new Response.Builder()
+                    .request(request)
+                    .protocol(protocol)
+                    .code(code)
+                    .message(message)
+                    .headers(headers)
+                    .build();
+
+            return cacheResponse.newBuilder()
+                    .body(ResponseBody.create(contentType, body))
+                    .cacheResponse(cacheResponse)
+                    .networkResponse(networkResponse == null ? null : withoutBody(networkResponse))
+                    .build();
+        }
+
+        private static boolean isContentSpecific(String headerName) {
+            return "Content-Length".equalsIgnoreCase(headerName)
+                    || "Content-Encoding".equalsIgnoreCase(headerName)
+                    || "Content-Type".equalsIgnoreCase(headerName)
+                    || "Transfer-Encoding".equalsIgnoreCase(headerName);
+        }
+
+        private static Response withoutBody(Response response) {
+            return new Response.Builder()
+                    .request(response.request())
+                    .protocol(response.protocol())
+                    .code(response.code())
+                    .message(response.message())
+                    .headers(response.headers())
+                    .sentRequestAtMillis(response.sentRequestAtMillis())
+                    .receivedResponseAtMillis(response.receivedResponseAtMillis())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package te.http.handling.coalescing;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import okhttp3.Request;
+import te.http.handling.HttpResponse;
+import te.http.handling.RequestExecutor;
+import te.http.handling.error.exceptions.HttpClientException;
+import te.http.handling.error.exceptions.HttpServerException;
+import te.http.handling.error.exceptions.NoResponseException;
+
+/**
+ * Collapses concurrent, identical requests into a single in-flight call ("single-flight").
+ *
+ * <p>Requests are identical when their method, final URL, credentials (the Authorization and
+ * Cookie headers) and the values of the headers given at construction are equal, so a response
+ * is never shared between callers with different credentials.  The first caller executes the
+ * request; callers arriving while it is in-flight wait for it and receive their own copy of its
+ * {@link HttpResponse} (or the same exception).  Nothing is cached: once the call completes the next caller starts a new one.
+ */
+public class RequestCoalescer {
+
+    private static final List<String> CREDENTIAL_HEADER_NAMES = Arrays.asList("Authorization", "Cookie");
+
+    private final List<String> keyHeaderNames;
+    private final Map<String, CompletableFuture<HttpResponse>> inFlightCalls = new ConcurrentHashMap<>();
+    private final AtomicLong executedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /**
+     * @param keyHeaderNames the headers whose values, in addition to the URL & credentials,
+     *                       distinguish one request from another (e.g. "Accept-Language")
+     */
+    public RequestCoalescer(String... keyHeaderNames) {
+        Map<String, String> headerNames = new LinkedHashMap<>();
+        Stream.concat(CREDENTIAL_HEADER_NAMES.stream(), Arrays.stream(keyHeaderNames))
+                .forEach(headerName -> headerNames.putIfAbsent(headerName.toLowerCase(Locale.ROOT), headerName));
+
+        this.keyHeaderNames = new ArrayList<>(headerNames.values());
+    }
+
+    public HttpResponse execute(Request request, RequestExecutor executor) throws HttpClientException, HttpServerException, NoResponseException {
+        String key = keyFor(request);
+        CompletableFuture<HttpResponse> call = new CompletableFuture<>();
+        CompletableFuture<HttpResponse> inFlightCall = inFlightCalls.putIfAbsent(key, call);
+
+        if (inFlightCall == null) {
+            executedCount.incrementAndGet();
+            try {
+                HttpResponse response = executor.execute(request);
+                // Waiting callers copy a response of their own, which the first caller cannot modify
+                call.complete(response.copy());
+
+                return response;
+            } catch (Throwable throwable) {
+                call.completeExceptionally(throwable);
+                throw throwable;
+            } finally {
+                inFlightCalls.remove(key, call);
+            }
+        }
+
+        coalescedCount.incrementAndGet();
+        return awaitCopyOf(inFlightCall, request);
+    }
+
+    /**
+     * @return the number of calls actually executed
+     */
+    public long getExecutedCount() {
+        return executedCount.get();
+    }
+
+    /**
+     * @return the number of calls that were collapsed into an already in-flight call
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private HttpResponse awaitCopyOf(CompletableFuture<HttpResponse> inFlightCall, Request request) throws HttpClientException, HttpServerException, NoResponseException {
+        try {
+            return inFlightCall.get().copy();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new NoResponseException(ex, request);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+
+            if (cause instanceof HttpClientException) throw (HttpClientException) cause;
+            if (cause instanceof HttpServerException) throw (HttpServerException) cause;
+            if (cause instanceof NoResponseException) throw (NoResponseException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+
+            throw new NoResponseException(cause, request);
+        }
+    }
+
+    private String keyFor(Request request) {
+        StringBuilder key = new StringBuilder(request.method())
+                .append(' ')
+                .append(request.url());
+
+        for (String headerName : keyHeaderNames) {
+            key.append('\n').append(headerName).append('=').append(request.headers(headerName));
+        }
+
+        return key.toString();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("keyHeaderNames", keyHeaderNames)
+                .append("inFlight", inFlightCalls.size())
+                .append("executed", getExecutedCount())
+                .append("coalesced", getCoalescedCount())
+                .toString();
+    }
+}
@@ -0,0 +1,373 @@
+package te.http.handling.concurrency;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import te.http.handling.error.exceptions.ConcurrencyLimitExceededException;
+import te.http.handling.error.exceptions.NoResponseException;
+
+/**
+ * Limits the number of in-flight requests to each host (host & port) to a limit that adapts to
+ * the latency & timeouts of that host's requests, per a {@link LimitAlgorithm}.
+ *
+ * <p>Requests beyond the limit wait in a per-host queue of at most {@link #getMaxQueueSize()}
+ * requests, for at most {@link #getMaxWait()}, before failing with a {@link
+ * ConcurrencyLimitExceededException}; a max queue size of 0 rejects them straight away.
+ *
+ * <p>A request's latency is measured from when its {@link Permit} is granted, or, for a request
+ * {@link Permit#attachTo(Request) carrying its permit}, from when a client decorated by {@link
+ * #decorate(OkHttpClient)} starts it; so asynchronous calls waiting in the {@link
+ * okhttp3.Dispatcher}'s queue (e.g. beyond its max requests per host) are not measured as slow.
+ *
+ * <p>Limiters are meant to be long-lived: create one, keep it in a static field and return it
+ * from {@link te.http.handling.HttpRequestHandling#getConcurrencyLimiter()}.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "http-concurrency-limiter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Supplier<LimitAlgorithm> algorithmFactory;
+    private final Map<String, HostLimiter> hosts = new ConcurrentHashMap<>();
+    private final AtomicReference<Tuple2<OkHttpClient, OkHttpClient>> lastDecoratedClient = new AtomicReference<>();
+
+    private int maxQueueSize = 128;
+    private Duration maxWait = Duration.ofSeconds(1);
+
+    /**
+     * @param algorithmFactory creates the {@link LimitAlgorithm} of each host
+     */
+    public AdaptiveConcurrencyLimiter(Supplier<LimitAlgorithm> algorithmFactory) {
+        this.algorithmFactory = algorithmFactory;
+    }
+
+    /**
+     * @return a limiter using the default {@link AimdLimit}
+     */
+    public static AdaptiveConcurrencyLimiter aimd() {
+        return new AdaptiveConcurrencyLimiter(AimdLimit::new);
+    }
+
+    /**
+     * @return a limiter using the default {@link VegasLimit}
+     */
+    public static AdaptiveConcurrencyLimiter vegas() {
+        return new AdaptiveConcurrencyLimiter(VegasLimit::new);
+    }
+
+    /**
+     * @return a client sharing everything (connection pool, dispatcher, etc.) with 'httpClient'
+     * except that calls of requests carrying a {@link Permit} restart its clock once they start;
+     * the most recently decorated client is reused.
+     */
+    public OkHttpClient decorate(OkHttpClient httpClient) {
+        Tuple2<OkHttpClient, OkHttpClient> last = lastDecoratedClient.get();
+        if (last != null && last._1 == httpClient) {
+            return last._2;
+        }
+
+        OkHttpClient decorated = httpClient.newBuilder()
+                .addInterceptor(chain -> {
+                    Permit permit = chain.request().tag(Permit.class);
+                    if (permit != null) {
+                        permit.restartClock();
+                    }
+
+                    return chain.proceed(chain.request());
+                })
+                .build();
+        lastDecoratedClient.set(Tuple.of(httpClient, decorated));
+
+        return decorated;
+    }
+
+    /**
+     * Takes a slot for 'request', waiting in its host's queue if there is none.  The returned
+     * {@link Permit} must be released once the request has completed.
+     *
+     * @throws ConcurrencyLimitExceededException if no slot became available in time; the request
+     *                                           should not be sent.
+     */
+    public Permit acquire(Request request) throws ConcurrencyLimitExceededException {
+        HostLimiter host = hostLimiter(request.url());
+
+        Permit permit = host.tryAcquire();
+        if (permit != null) return permit;
+
+        CompletableFuture<Permit> waiter = host.enqueue(request);
+        try {
+            return waiter.get();
+        } catch (ExecutionException ex) {
+            throw (ConcurrencyLimitExceededException) ex.getCause();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            host.abandon(waiter);
+            throw new ConcurrencyLimitExceededException(request, host.getLimit());
+        }
+    }
+
+    /**
+     * Takes a slot for 'request' like {@link #acquire(Request)}, but without blocking.
+     *
+     * @return a future that completes with the {@link Permit} once the request may be sent, or
+     * completes exceptionally with a {@link ConcurrencyLimitExceededException}
+     */
+    public CompletableFuture<Permit> acquireAsync(Request request) {
+        HostLimiter host = hostLimiter(request.url());
+
+        Permit permit = host.tryAcquire();
+        if (permit != null) {
+            return CompletableFuture.completedFuture(permit);
+        }
+
+        return host.enqueue(request);
+    }
+
+    /**
+     * @return the current limit of the host of 'url'
+     */
+    public int getLimit(HttpUrl url) {
+        return hostLimiter(url).getLimit();
+    }
+
+    /**
+     * @return the current limit of each host that has been called, by "host:port"
+     */
+    public Map<String, Integer> getLimits() {
+        Map<String, Integer> limits = new TreeMap<>();
+        hosts.forEach((host, hostLimiter) -> limits.put(host, hostLimiter.getLimit()));
+
+        return limits;
+    }
+
+    /**
+     * @return the number of in-flight requests to each host that has been called, by "host:port"
+     */
+    public Map<String, Integer> getInFlightCounts() {
+        Map<String, Integer> inFlightCounts = new TreeMap<>();
+        hosts.forEach((host, hostLimiter) -> inFlightCounts.put(host, hostLimiter.getInFlight()));
+
+        return inFlightCounts;
+    }
+
+    private HostLimiter hostLimiter(HttpUrl url) {
+        return hosts.computeIfAbsent(url.host() + ":" + url.port(), host -> new HostLimiter(algorithmFactory.get()));
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    /**
+     * @param maxQueueSize how many requests may wait for a slot per host; 0 rejects requests
+     *                     beyond the limit straight away
+     */
+    public AdaptiveConcurrencyLimiter setMaxQueueSize(int maxQueueSize) {
+        this.maxQueueSize = maxQueueSize;
+        return this;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public AdaptiveConcurrencyLimiter setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("maxQueueSize", maxQueueSize)
+                .append("maxWait", maxWait)
+                .append("hosts", hosts)
+                .toString();
+    }
+
+    /**
+     * A slot for one in-flight request.  Releasing it feeds the request's latency & outcome to
+     * the host's {@link LimitAlgorithm}; releasing it more than once has no effect.
+     */
+    public static class Permit {
+        private final HostLimiter host;
+        private final int inFlight;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile long startNanos = System.nanoTime();
+
+        private Permit(HostLimiter host, int inFlight) {
+            this.host = host;
+            this.inFlight = inFlight;
+        }
+
+        /**
+         * @return a copy of 'request' carrying this permit, whose latency is then measured from
+         * when a client decorated by {@link AdaptiveConcurrencyLimiter#decorate(OkHttpClient)}
+         * starts the call
+         */
+        public Request attachTo(Request request) {
+            return request.newBuilder()
+                    .tag(Permit.class, this)
+                    .build();
+        }
+
+        /**
+         * @param failure why the request failed, or null if a response was received.  Timeouts
+         *                count as the host being overloaded, other failures are not measured.
+         */
+        public void release(@Nullable Throwable failure) {
+            if (!released.compareAndSet(false, true)) return;
+
+            long rttNanos = System.nanoTime() - startNanos;
+            if (failure == null) {
+                host.release(this, rttNanos, false);
+            } else if (isTimeout(failure)) {
+                host.release(this, rttNanos, true);
+            } else {
+                host.release(null, 0, false);
+            }
+        }
+
+        /**
+         * Frees the slot without measuring anything, e.g. for a request that was never sent.
+         */
+        public void cancel() {
+            if (released.compareAndSet(false, true)) {
+                host.release(null, 0, false);
+            }
+        }
+
+        private void restartClock() {
+            startNanos = System.nanoTime();
+        }
+
+        private static boolean isTimeout(Throwable failure) {
+            Throwable cause = failure instanceof NoResponseException
+                    ? ((NoResponseException) failure).getRootCause()
+                    : failure;
+
+            // Covers socket timeouts as well as OkHttp's call timeout
+            return cause instanceof InterruptedIOException;
+        }
+    }
+
+    private class HostLimiter {
+        private final LimitAlgorithm algorithm;
+        private final Deque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+        private int inFlight;
+
+        HostLimiter(LimitAlgorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        synchronized Permit tryAcquire() {
+            if (inFlight >= algorithm.getLimit()) return null;
+
+            return new Permit(this, ++inFlight);
+        }
+
+        CompletableFuture<Permit> enqueue(Request request) {
+            CompletableFuture<Permit> waiter = new CompletableFuture<>();
+
+            synchronized (this) {
+                if (inFlight < algorithm.getLimit()) {
+                    waiter.complete(new Permit(this, ++inFlight));
+                    return waiter;
+                }
+
+                if (waiters.size() >= maxQueueSize) {
+                    waiter.completeExceptionally(new ConcurrencyLimitExceededException(request, algorithm.getLimit()));
+                    return waiter;
+                }
+
+                waiters.add(waiter);
+            }
+
+            scheduler.schedule(() -> {
+                if (remove(waiter)) {
+                    waiter.completeExceptionally(new ConcurrencyLimitExceededException(request, getLimit()));
+                }
+            }, maxWait.toNanos(), TimeUnit.NANOSECONDS);
+
+            return waiter;
+        }
+
+        /**
+         * Gives up on a waiter, returning its slot if it has been granted one in the meantime.
+         */
+        void abandon(CompletableFuture<Permit> waiter) {
+            if (!remove(waiter)) {
+                waiter.thenAccept(Permit::cancel);
+            }
+        }
+
+        private synchronized boolean remove(CompletableFuture<Permit> waiter) {
+            return waiters.remove(waiter);
+        }
+
+        /**
+         * @param permit the permit to measure, or null to only free its slot
+         */
+        void release(@Nullable Permit permit, long rttNanos, boolean didDrop) {
+            List<CompletableFuture<Permit>> granted = new ArrayList<>();
+            List<Permit> permits = new ArrayList<>();
+
+            synchronized (this) {
+                inFlight--;
+                if (permit != null) {
+                    algorithm.onSample(rttNanos, permit.inFlight, didDrop);
+                }
+
+                while (!waiters.isEmpty() && inFlight < algorithm.getLimit()) {
+                    granted.add(waiters.poll());
+                    permits.add(new Permit(this, ++inFlight));
+                }
+            }
+
+            // Completed outside of the lock, as completing runs whatever is waiting on the permit
+            for (int i = 0; i < granted.size(); i++) {
+                granted.get(i).complete(permits.get(i));
+            }
+        }
+
+        synchronized int getLimit() {
+            return algorithm.getLimit();
+        }
+
+        synchronized int getInFlight() {
+            return inFlight;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return inFlight + "/" + algorithm.getLimit() + " in-flight, " + waiters.size() + " queued";
+        }
+    }
+}
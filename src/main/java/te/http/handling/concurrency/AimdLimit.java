@@ -0,0 +1,98 @@
+package te.http.handling.concurrency;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.time.Duration;
+
+/**
+ * Additive-increase/multiplicative-decrease: the limit grows by one for every request that
+ * completes within {@link #getLatencyThreshold()} while the limit is being used, and shrinks by
+ * {@link #getBackoffRatio()} whenever a request times out or exceeds the threshold.
+ */
+public class AimdLimit implements LimitAlgorithm {
+
+    private int limit = 20;
+    private int minLimit = 1;
+    private int maxLimit = 200;
+    private double backoffRatio = 0.9;
+    private long latencyThresholdNanos = Duration.ofSeconds(5).toNanos();
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public int onSample(long rttNanos, int inFlight, boolean didDrop) {
+        if (didDrop || rttNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, (int) (limit * backoffRatio));
+        } else if (inFlight * 2 >= limit) {
+            // Only grow while the limit is actually being used, otherwise it grows without bound
+            limit = Math.min(maxLimit, limit + 1);
+        }
+
+        return limit;
+    }
+
+    public AimdLimit setInitialLimit(int initialLimit) {
+        this.limit = initialLimit;
+        return this;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public AimdLimit setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+        return this;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public AimdLimit setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    /**
+     * @param backoffRatio what the limit is multiplied by on a timeout, between 0 & 1
+     */
+    public AimdLimit setBackoffRatio(double backoffRatio) {
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1 but was " + backoffRatio);
+        }
+
+        this.backoffRatio = backoffRatio;
+        return this;
+    }
+
+    public Duration getLatencyThreshold() {
+        return Duration.ofNanos(latencyThresholdNanos);
+    }
+
+    /**
+     * @param latencyThreshold requests slower than this are treated as timeouts
+     */
+    public AimdLimit setLatencyThreshold(Duration latencyThreshold) {
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("limit", limit)
+                .append("minLimit", minLimit)
+                .append("maxLimit", maxLimit)
+                .append("backoffRatio", backoffRatio)
+                .append("latencyThreshold", getLatencyThreshold())
+                .toString();
+    }
+}
@@ -0,0 +1,22 @@
+package te.http.handling.concurrency;
+
+/**
+ * Decides a host's concurrency limit from the outcome of each request to it.
+ *
+ * <p>Each host gets its own instance, which is only ever called while holding that host's lock,
+ * so implementations need not be thread-safe.
+ */
+public interface LimitAlgorithm {
+
+    int getLimit();
+
+    /**
+     * @param rttNanos how long the request took
+     * @param inFlight how many requests to the host were in-flight when the request was sent,
+     *                 including itself
+     * @param didDrop  whether or not the request timed out, i.e. the host is overloaded
+     * @return the new limit
+     */
+    int onSample(long rttNanos, int inFlight, boolean didDrop);
+
+}
@@ -0,0 +1,102 @@
+package te.http.handling.concurrency;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A delay-based limit, after TCP Vegas: the fastest RTT seen is taken as the host's latency
+ * without any queueing, and the slowdown of each request relative to it as an estimate of how
+ * many requests are queued at the host.  The limit grows while that queue is short and shrinks
+ * once it grows, or on a timeout, well before the host starts failing.
+ *
+ * <p>Every so often the fastest RTT is re-measured, in case the host itself got slower.
+ */
+public class VegasLimit implements LimitAlgorithm {
+
+    private static final int PROBE_MULTIPLIER = 30;
+
+    private double estimatedLimit = 20;
+    private int minLimit = 1;
+    private int maxLimit = 200;
+    private long rttNoLoadNanos;
+    private int samplesUntilProbe = nextProbeCountdown();
+
+    @Override
+    public int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    @Override
+    public int onSample(long rttNanos, int inFlight, boolean didDrop) {
+        if (rttNanos <= 0) return getLimit();
+
+        if (--samplesUntilProbe <= 0) {
+            samplesUntilProbe = nextProbeCountdown();
+            rttNoLoadNanos = rttNanos;
+            return getLimit();
+        }
+
+        if (rttNoLoadNanos == 0 || rttNanos < rttNoLoadNanos) {
+            rttNoLoadNanos = rttNanos;
+            return getLimit();
+        }
+
+        double log = Math.max(1, Math.log10(estimatedLimit));
+        double newLimit = estimatedLimit;
+
+        if (didDrop) {
+            newLimit = estimatedLimit - log;
+        } else if (inFlight * 2 >= estimatedLimit) {
+            int queueSize = (int) Math.ceil(estimatedLimit * (1 - (double) rttNoLoadNanos / rttNanos));
+
+            if (queueSize <= log) {
+                newLimit = estimatedLimit + 6 * log;
+            } else if (queueSize < 3 * log) {
+                newLimit = estimatedLimit + log;
+            } else if (queueSize > 6 * log) {
+                newLimit = estimatedLimit - log;
+            }
+        }
+
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        return getLimit();
+    }
+
+    private int nextProbeCountdown() {
+        return PROBE_MULTIPLIER * (int) Math.max(1, estimatedLimit) + ThreadLocalRandom.current().nextInt(PROBE_MULTIPLIER);
+    }
+
+    public VegasLimit setInitialLimit(int initialLimit) {
+        this.estimatedLimit = initialLimit;
+        return this;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public VegasLimit setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+        return this;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public VegasLimit setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("limit", getLimit())
+                .append("minLimit", minLimit)
+                .append("maxLimit", maxLimit)
+                .append("rttNoLoadNanos", rttNoLoadNanos)
+                .toString();
+    }
+}
@@ -2,19 +2,32 @@ package te.http.handling.deserialization;
 
 import java.util.Date;
 
+import io.vavr.Lazy;
 import io.vavr.collection.List;
 import te.http.handling.deserialization.parsing.DateParser;
+import te.http.handling.deserialization.parsing.DateParsingEngine;
 import te.http.handling.deserialization.parsing.JavaDateParser;
 
 public class JavaDateDeserializer implements MultiFormatDateDeserializer<Date> {
 
+    private static final List<DateParser<Date>> SUPPORTED_FORMATS = List.of(
+            new JavaDateParser("yyyy-MM-dd", "[0-9]{4}-[0-9]{2}-[0-9]{2}"),
+            new JavaDateParser("MM/dd/yyyy", "[0-9]{2}/[0-9]{2}/[0-9]{4}"),
+            new JavaDateParser("MM-dd-yyyy", "[0-9]{2}-[0-9]{2}-[0-9]{4}")
+    );
+
+    private final Lazy<DateParsingEngine<Date>> parsingEngine = Lazy.of(() ->
+            new DateParsingEngine<>(supportedFormats(), this::fromUnixEpoch)
+    );
+
     @Override
     public List<DateParser<Date>> supportedFormats() {
-        return List.of(
-                new JavaDateParser("yyyy-MM-dd", "[0-9]{4}-[0-9]{2}-[0-9]{2}"),
-                new JavaDateParser("MM/dd/yyyy", "[0-9]{2}/[0-9]{2}/[0-9]{4}"),
-                new JavaDateParser("MM-dd-yyyy", "[0-9]{2}-[0-9]{2}-[0-9]{4}")
-        );
+        return SUPPORTED_FORMATS;
+    }
+
+    @Override
+    public DateParsingEngine<Date> parsingEngine() {
+        return parsingEngine.get();
     }
 
     @Override
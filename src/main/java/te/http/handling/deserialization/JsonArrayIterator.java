@@ -0,0 +1,81 @@
+package te.http.handling.deserialization;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily deserializes the elements of a JSON array one at a time, so only the current element is
+ * ever held in memory rather than the whole array.
+ *
+ * <p>The underlying {@link Reader} is closed once the end of the array is reached, or when {@link
+ * #close()} is called.
+ */
+public class JsonArrayIterator<T> implements Iterator<T>, Closeable {
+    private final JsonReader jsonReader;
+    private final TypeAdapter<T> typeAdapter;
+    private boolean started;
+    private boolean finished;
+
+    public JsonArrayIterator(Gson gson, Reader json, Class<T> classOfT) {
+        this.jsonReader = gson.newJsonReader(json);
+        this.typeAdapter = gson.getAdapter(classOfT);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (finished) return false;
+
+        try {
+            if (!started) {
+                jsonReader.beginArray();
+                started = true;
+            }
+
+            if (jsonReader.hasNext()) return true;
+
+            jsonReader.endArray();
+            close();
+            return false;
+        } catch (MalformedJsonException | IllegalStateException exception) {
+            throw new JsonSyntaxException(exception);
+        } catch (IOException exception) {
+            throw new JsonIOException(exception);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("The end of the JSON array has been reached.");
+        }
+
+        try {
+            return typeAdapter.read(jsonReader);
+        } catch (MalformedJsonException | IllegalStateException exception) {
+            throw new JsonSyntaxException(exception);
+        } catch (IOException exception) {
+            throw new JsonIOException(exception);
+        }
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+
+        try {
+            jsonReader.close();
+        } catch (IOException exception) {
+            throw new JsonIOException(exception);
+        }
+    }
+}
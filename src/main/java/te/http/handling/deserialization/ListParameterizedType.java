@@ -5,6 +5,7 @@ import org.apache.commons.lang3.builder.EqualsBuilder;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * This class allows us to preserve the type T of a list, which in turn allows us to generically
@@ -39,4 +40,13 @@ public class ListParameterizedType implements ParameterizedType {
     public boolean equals(Object obj) {
         return EqualsBuilder.reflectionEquals(this, obj);
     }
+
+    /**
+     * Follows the {@link ParameterizedType} contract so equal instances are interchangeable as
+     * cache keys.
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(getActualTypeArguments()) ^ getRawType().hashCode();
+    }
 }
@@ -4,19 +4,32 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 
+import io.vavr.Lazy;
 import io.vavr.collection.List;
 import te.http.handling.deserialization.parsing.DateParser;
+import te.http.handling.deserialization.parsing.DateParsingEngine;
 import te.http.handling.deserialization.parsing.LocalDateParser;
 
 public class LocalDateDeserializer implements MultiFormatDateDeserializer<LocalDate> {
 
+    private static final List<DateParser<LocalDate>> SUPPORTED_FORMATS = List.of(
+            new LocalDateParser("yyyy-MM-dd", "[0-9]{4}-[0-9]{2}-[0-9]{2}"),
+            new LocalDateParser("MM/dd/yyyy", "[0-9]{2}/[0-9]{2}/[0-9]{4}"),
+            new LocalDateParser("MM-dd-yyyy", "[0-9]{2}-[0-9]{2}-[0-9]{4}")
+    );
+
+    private final Lazy<DateParsingEngine<LocalDate>> parsingEngine = Lazy.of(() ->
+            new DateParsingEngine<>(supportedFormats(), this::fromUnixEpoch)
+    );
+
     @Override
     public List<DateParser<LocalDate>> supportedFormats() {
-        return List.of(
-                new LocalDateParser("yyyy-MM-dd", "[0-9]{4}-[0-9]{2}-[0-9]{2}"),
-                new LocalDateParser("MM/dd/yyyy", "[0-9]{2}/[0-9]{2}/[0-9]{4}"),
-                new LocalDateParser("MM-dd-yyyy", "[0-9]{2}-[0-9]{2}-[0-9]{4}")
-        );
+        return SUPPORTED_FORMATS;
+    }
+
+    @Override
+    public DateParsingEngine<LocalDate> parsingEngine() {
+        return parsingEngine.get();
     }
 
     @Override
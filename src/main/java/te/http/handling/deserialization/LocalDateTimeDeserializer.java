@@ -4,20 +4,33 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 
+import io.vavr.Lazy;
 import io.vavr.collection.List;
 import te.http.handling.deserialization.parsing.DateParser;
+import te.http.handling.deserialization.parsing.DateParsingEngine;
 import te.http.handling.deserialization.parsing.LocalDateTimeParser;
 
 public class LocalDateTimeDeserializer implements MultiFormatDateDeserializer<LocalDateTime> {
 
+    private static final List<DateParser<LocalDateTime>> SUPPORTED_FORMATS = List.of(
+            new LocalDateTimeParser(
+                    "yyyy-MM-dd'T'HH:mm:ss",
+                    "[0-9]{4}-[0-1][0-9]-[0-3][0-9]T[0-2][0-9]:[0-5][0-9]:[0-5][0-9]"
+            )
+    );
+
+    private final Lazy<DateParsingEngine<LocalDateTime>> parsingEngine = Lazy.of(() ->
+            new DateParsingEngine<>(supportedFormats(), this::fromUnixEpoch)
+    );
+
     @Override
     public List<DateParser<LocalDateTime>> supportedFormats() {
-        return List.of(
-                new LocalDateTimeParser(
-                        "yyyy-MM-dd'T'HH:mm:ss",
-                        "[0-9]{4}-[0-1][0-9]-[0-3][0-9]T[0-2][0-9]:[0-5][0-9]:[0-5][0-9]"
-                )
-        );
+        return SUPPORTED_FORMATS;
+    }
+
+    @Override
+    public DateParsingEngine<LocalDateTime> parsingEngine() {
+        return parsingEngine.get();
     }
 
     @Override
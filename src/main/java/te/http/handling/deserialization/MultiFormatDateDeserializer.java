@@ -11,14 +11,17 @@ import java.util.regex.Pattern;
 import io.vavr.collection.List;
 import io.vavr.control.Try;
 import te.http.handling.deserialization.parsing.DateParser;
+import te.http.handling.deserialization.parsing.DateParsingEngine;
 import te.http.handling.error.exceptions.DateTimeDeserializationException;
 
-import static java.lang.Long.parseLong;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
 /**
  * A {@link JsonDeserializer} that attempts all {@link DateParser}s returned from {@link
  * #supportedFormats()} during deserialization.
+ *
+ * <p>To support additional formats override {@link #supportedFormats()}, e.g. {@code
+ * super.supportedFormats().append(new LocalDateParser(...))}.
  */
 public interface MultiFormatDateDeserializer<T> extends JsonDeserializer<T> {
     Predicate<String> isUnixEpoch = Pattern.compile("[0-9]{9,}").asPredicate();
@@ -33,6 +36,16 @@ public interface MultiFormatDateDeserializer<T> extends JsonDeserializer<T> {
      */
     T fromUnixEpoch(long epoch);
 
+    /**
+     * @return the {@link DateParsingEngine} built from {@link #supportedFormats()}; by default a
+     * new engine is built on every call, so implementations should override this to cache it (as
+     * {@link JavaDateDeserializer}, {@link LocalDateDeserializer} and {@link
+     * LocalDateTimeDeserializer} do).
+     */
+    default DateParsingEngine<T> parsingEngine() {
+        return new DateParsingEngine<>(supportedFormats(), this::fromUnixEpoch);
+    }
+
     default T deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws DateTimeDeserializationException {
         return Try.of(json::getAsString)
                 .mapTry(dateString -> parseDateString(dateString, typeOfT))
@@ -41,13 +54,7 @@ public interface MultiFormatDateDeserializer<T> extends JsonDeserializer<T> {
 
     default T parseDateString(String dateString, Type typeOfT) {
         if (isBlank(dateString)) return null;
-        if (isUnixEpoch.test(dateString)) return fromUnixEpoch(parseLong(dateString));
-
-        return supportedFormats()
-                .find(dateFormat -> dateFormat.matches(dateString))
-                .map(dateFormat -> dateFormat.parse(dateString))
-                .getOrElseThrow(() ->
-                        new DateTimeDeserializationException(dateString, typeOfT, supportedFormats())
-                );
+
+        return parsingEngine().parse(dateString, typeOfT);
     }
 }
@@ -0,0 +1,166 @@
+package te.http.handling.deserialization;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of the {@link TypeAdapter}s {@link Gson} uses for generic containers (lists,
+ * sets, maps with String keys, and arrays), keyed by element type.
+ *
+ * <p>Looking up an adapter by element type allocates nothing, so once warmed-up decoding a
+ * container costs no reflection and no {@link TypeToken} creation.  Each container's cache is
+ * bounded to {@link #getMaxSize()} element types; beyond that entries are evicted arbitrarily.
+ */
+public class TypeAdapterRegistry {
+    public static final int DEFAULT_MAX_SIZE = 512;
+    public static final int MAX_SHARED_REGISTRIES = 16;
+
+    /**
+     * Cached adapters reference their {@link Gson}, so registries are held strongly & the least
+     * recently used is evicted rather than being weakly keyed by a {@link Gson} they keep alive.
+     */
+    private static final Map<Gson, TypeAdapterRegistry> registries = Collections.synchronizedMap(
+            new LinkedHashMap<Gson, TypeAdapterRegistry>(MAX_SHARED_REGISTRIES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Gson, TypeAdapterRegistry> eldest) {
+                    return size() > MAX_SHARED_REGISTRIES;
+                }
+            }
+    );
+    private static volatile TypeAdapterRegistry mostRecentRegistry;
+
+    private final Gson gson;
+    private final int maxSize;
+    private final Map<Type, TypeAdapter<?>> listAdapters = new ConcurrentHashMap<>();
+    private final Map<Type, TypeAdapter<?>> setAdapters = new ConcurrentHashMap<>();
+    private final Map<Type, TypeAdapter<?>> mapAdapters = new ConcurrentHashMap<>();
+    private final Map<Type, TypeAdapter<?>> arrayAdapters = new ConcurrentHashMap<>();
+
+    public TypeAdapterRegistry(Gson gson, int maxSize) {
+        this.gson = gson;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the shared registry for the given {@link Gson} instance; only the
+     * {@link #MAX_SHARED_REGISTRIES} most recently used are kept, so long-lived {@link Gson}
+     * instances should keep their own registry in a static field instead
+     */
+    public static TypeAdapterRegistry of(Gson gson) {
+        TypeAdapterRegistry registry = mostRecentRegistry;
+        if (registry != null && registry.gson == gson) {
+            return registry;
+        }
+
+        registry = registries.computeIfAbsent(gson, key -> new TypeAdapterRegistry(key, DEFAULT_MAX_SIZE));
+        mostRecentRegistry = registry;
+
+        return registry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<List<T>> listAdapter(Type elementType) {
+        return (TypeAdapter<List<T>>) cached(listAdapters, elementType, type ->
+                gson.getAdapter(TypeToken.get(new ListParameterizedType(type)))
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<Set<T>> setAdapter(Type elementType) {
+        return (TypeAdapter<Set<T>>) cached(setAdapters, elementType, type ->
+                gson.getAdapter(TypeToken.getParameterized(Set.class, type))
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<Map<String, T>> mapAdapter(Type valueType) {
+        return (TypeAdapter<Map<String, T>>) cached(mapAdapters, valueType, type ->
+                gson.getAdapter(TypeToken.getParameterized(Map.class, String.class, type))
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T[]> arrayAdapter(Class<T> componentType) {
+        return (TypeAdapter<T[]>) cached(arrayAdapters, componentType, type ->
+                gson.getAdapter(TypeToken.getArray(type))
+        );
+    }
+
+    /**
+     * Deserializes 'json' with the given adapter, following the same rules as {@link
+     * Gson#fromJson(String, Type)}: parsing is lenient, an empty document yields null, and the
+     * whole document must be consumed.
+     */
+    public <T> T fromJson(String json, TypeAdapter<T> typeAdapter) {
+        if (json == null) return null;
+
+        JsonReader jsonReader = gson.newJsonReader(new StringReader(json));
+        jsonReader.setLenient(true);
+
+        try {
+            jsonReader.peek();
+        } catch (EOFException emptyDocument) {
+            return null;
+        } catch (IOException exception) {
+            throw new JsonSyntaxException(exception);
+        }
+
+        try {
+            T result = typeAdapter.read(jsonReader);
+            if (jsonReader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonIOException("JSON document was not fully consumed.");
+            }
+
+            return result;
+        } catch (MalformedJsonException | IllegalStateException exception) {
+            throw new JsonSyntaxException(exception);
+        } catch (IOException exception) {
+            throw new JsonIOException(exception);
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the total number of adapters currently cached
+     */
+    public int size() {
+        return listAdapters.size() + setAdapters.size() + mapAdapters.size() + arrayAdapters.size();
+    }
+
+    private TypeAdapter<?> cached(Map<Type, TypeAdapter<?>> adapters, Type elementType, Function<Type, TypeAdapter<?>> adapterFactory) {
+        TypeAdapter<?> adapter = adapters.get(elementType);
+        if (adapter != null) return adapter;
+
+        if (adapters.size() >= maxSize) {
+            Iterator<Type> iterator = adapters.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+
+        return adapters.computeIfAbsent(elementType, adapterFactory);
+    }
+}
@@ -0,0 +1,196 @@
+package te.http.handling.deserialization.parsing;
+
+import java.lang.reflect.Type;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.function.LongFunction;
+
+import io.vavr.collection.List;
+import io.vavr.control.Option;
+import te.http.handling.error.exceptions.DateTimeDeserializationException;
+
+import static java.lang.Long.parseLong;
+import static te.http.handling.deserialization.MultiFormatDateDeserializer.isUnixEpoch;
+
+/**
+ * Parses date strings using a fixed set of {@link DateParser}s that is compiled once, up front.
+ *
+ * <p>Every {@link DateParser} whose pattern only contains fixed-width numeric fields (e.g.
+ * "yyyy-MM-dd" or "MM/dd/yyyy") is reduced to a "shape", where each digit is represented by '9'
+ * (e.g. "9999-99-99").  A single scan of the input classifies it as either a Unix Epoch or a
+ * shape, which is then dispatched straight to the matching parser without running any regular
+ * expressions.
+ *
+ * <p>Inputs that do not match any shape, or that a shaped parser fails to parse, fall back to
+ * testing each parser's regular expression in order; the same behavior as before this engine.
+ */
+public class DateParsingEngine<T> {
+    private static final int MIN_UNIX_EPOCH_DIGITS = 9;
+
+    private final List<DateParser<T>> parsers;
+    private final LongFunction<T> fromUnixEpoch;
+
+    private final String[] shapes;
+    private final int[] shapeHashes;
+    private final java.util.List<DateParser<T>> shapedParsers;
+
+    public DateParsingEngine(List<DateParser<T>> parsers, LongFunction<T> fromUnixEpoch) {
+        this.parsers = parsers;
+        this.fromUnixEpoch = fromUnixEpoch;
+
+        List<DateParser<T>> parsersWithShapes = parsers
+                .filter(parser -> shapeOf(parser.getPattern()).isDefined())
+                .distinctBy(parser -> shapeOf(parser.getPattern()).get());
+
+        this.shapedParsers = new ArrayList<>(parsersWithShapes.toJavaList());
+        this.shapes = parsersWithShapes.map(parser -> shapeOf(parser.getPattern()).get()).toJavaArray(String.class);
+        this.shapeHashes = new int[shapes.length];
+        for (int i = 0; i < shapes.length; i++) {
+            shapeHashes[i] = shapes[i].hashCode();
+        }
+    }
+
+    /**
+     * @return a new engine that additionally supports the given {@link DateParser}, which is
+     * attempted after all existing parsers
+     */
+    public DateParsingEngine<T> withFormat(DateParser<T> parser) {
+        return new DateParsingEngine<>(parsers.append(parser), fromUnixEpoch);
+    }
+
+    /**
+     * @return the parsers this engine supports, in the order they are attempted
+     */
+    public List<DateParser<T>> getParsers() {
+        return parsers;
+    }
+
+    /**
+     * @return a new instance of type T parsed from 'dateString'
+     * @throws DateTimeDeserializationException if no supported format matched 'dateString'
+     */
+    public T parse(String dateString, Type typeOfT) {
+        int length = dateString.length();
+        int shapeHash = 0;
+        boolean isAllDigits = length > 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = dateString.charAt(i);
+            boolean isDigit = c >= '0' && c <= '9';
+
+            isAllDigits &= isDigit;
+            shapeHash = 31 * shapeHash + (isDigit ? '9' : c);
+        }
+
+        if (isAllDigits && length >= MIN_UNIX_EPOCH_DIGITS) {
+            return fromUnixEpoch.apply(parseLong(dateString));
+        }
+
+        for (int i = 0; i < shapes.length; i++) {
+            if (shapeHashes[i] == shapeHash && hasShape(dateString, shapes[i])) {
+                try {
+                    return shapedParsers.get(i).parseDateString(dateString);
+                } catch (DateTimeParseException ex) {
+                    break;
+                }
+            }
+        }
+
+        return parseViaRegularExpressions(dateString, typeOfT);
+    }
+
+    private T parseViaRegularExpressions(String dateString, Type typeOfT) {
+        if (isUnixEpoch.test(dateString)) {
+            return fromUnixEpoch.apply(parseLong(dateString));
+        }
+
+        return parsers
+                .find(dateFormat -> dateFormat.matches(dateString))
+                .map(dateFormat -> dateFormat.parse(dateString))
+                .getOrElseThrow(() ->
+                        new DateTimeDeserializationException(dateString, typeOfT, parsers)
+                );
+    }
+
+    private static boolean hasShape(String dateString, String shape) {
+        if (dateString.length() != shape.length()) return false;
+
+        for (int i = 0; i < shape.length(); i++) {
+            char c = dateString.charAt(i);
+            char expected = shape.charAt(i);
+            boolean matches = expected == '9' ? (c >= '0' && c <= '9') : c == expected;
+
+            if (!matches) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the shape of the strings 'pattern' produces (e.g. "yyyy-MM-dd" becomes "9999-99-99"),
+     * or nothing if 'pattern' contains variable-width or non-numeric fields
+     */
+    static Option<String> shapeOf(String pattern) {
+        StringBuilder shape = new StringBuilder(pattern.length());
+
+        for (int i = 0; i < pattern.length(); ) {
+            char c = pattern.charAt(i);
+
+            if (c == '\'') {
+                int end = pattern.indexOf('\'', i + 1);
+                if (end == -1) return Option.none();
+
+                String literal = end == i + 1 ? "'" : pattern.substring(i + 1, end);
+                if (containsDigit(literal)) return Option.none();
+
+                shape.append(literal);
+                i = end + 1;
+            } else if (Character.isLetter(c)) {
+                int runLength = 1;
+                while (i + runLength < pattern.length() && pattern.charAt(i + runLength) == c) {
+                    runLength++;
+                }
+
+                if (!isFixedWidthNumericField(c, runLength)) return Option.none();
+
+                for (int j = 0; j < runLength; j++) {
+                    shape.append('9');
+                }
+                i += runLength;
+            } else {
+                if (Character.isDigit(c)) return Option.none();
+
+                shape.append(c);
+                i++;
+            }
+        }
+
+        return Option.of(shape.toString());
+    }
+
+    private static boolean isFixedWidthNumericField(char field, int width) {
+        switch (field) {
+            case 'y':
+            case 'u':
+                return width == 2 || width == 4;
+            case 'M':
+            case 'd':
+            case 'H':
+            case 'h':
+            case 'k':
+            case 'K':
+            case 'm':
+            case 's':
+                return width == 2;
+            case 'S':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean containsDigit(String string) {
+        return string.chars().anyMatch(Character::isDigit);
+    }
+
+}
@@ -0,0 +1,348 @@
+package te.http.handling.dns;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import okhttp3.Dns;
+import okhttp3.OkHttpClient;
+
+/**
+ * A {@link Dns} that caches the addresses of each hostname for {@link #getTtl()}, so new
+ * connections rarely wait for the resolver.
+ *
+ * <p>A hostname that is looked up after {@link #getRefreshAfter()} of its TTL has passed is
+ * re-resolved in the background, so hot hostnames never expire.  If the resolver fails, the last
+ * addresses of a hostname are served for up to {@link #getMaxStale()} after they expired instead
+ * of failing the request.  Concurrent lookups of an uncached hostname share one resolution.
+ *
+ * <p>Each lookup rotates the cached addresses, so connections are spread across every A/AAAA
+ * record of a hostname rather than always trying the first.
+ *
+ * <p>Caches are meant to be long-lived: create one, keep it in a static field and return it from
+ * {@link te.http.handling.HttpRequestHandling#getDns()}.
+ */
+public class CachingDns implements Dns {
+
+    private static final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "http-dns-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Dns resolver;
+    private final LongSupplier nanoClock;
+    private final DnsStats stats = new DnsStats();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Entry>> resolutions = new ConcurrentHashMap<>();
+    private final AtomicReference<Tuple2<OkHttpClient, OkHttpClient>> lastDecoratedClient = new AtomicReference<>();
+
+    private Duration ttl = Duration.ofMinutes(1);
+    private double refreshAfter = 0.75;
+    private Duration maxStale = Duration.ofHours(1);
+    private int maxEntries = 1_024;
+    private boolean rotating = true;
+
+    /**
+     * A cache in front of the system's resolver, see {@link Dns#SYSTEM}.
+     */
+    public CachingDns() {
+        this(Dns.SYSTEM);
+    }
+
+    public CachingDns(Dns resolver) {
+        this(resolver, System::nanoTime);
+    }
+
+    CachingDns(Dns resolver, LongSupplier nanoClock) {
+        this.resolver = resolver;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return a client sharing everything (connection pool, dispatcher, etc.) with 'httpClient'
+     * except that it resolves hostnames via this cache; the most recently decorated client is
+     * reused.
+     */
+    public OkHttpClient decorate(OkHttpClient httpClient) {
+        Tuple2<OkHttpClient, OkHttpClient> last = lastDecoratedClient.get();
+        if (last != null && last._1 == httpClient) {
+            return last._2;
+        }
+
+        OkHttpClient decorated = httpClient.newBuilder()
+                .dns(this)
+                .build();
+        lastDecoratedClient.set(Tuple.of(httpClient, decorated));
+
+        return decorated;
+    }
+
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        long nowNanos = nanoClock.getAsLong();
+        Entry entry = entries.get(hostname);
+
+        if (entry != null && nowNanos < entry.expiresAtNanos) {
+            stats.recordHit();
+            if (nowNanos >= entry.refreshAtNanos && entry.isRefreshing.compareAndSet(false, true)) {
+                refresher.execute(() -> refresh(hostname, entry));
+            }
+
+            return entry.addresses();
+        }
+
+        stats.recordMiss();
+        try {
+            return resolve(hostname).addresses();
+        } catch (UnknownHostException ex) {
+            if (entry != null && nowNanos < entry.expiresAtNanos + maxStale.toNanos()) {
+                stats.recordStaleHit();
+                return entry.addresses();
+            }
+
+            throw ex;
+        }
+    }
+
+    /**
+     * Resolves 'hostnames' ahead of their first request, e.g. on startup; failures are ignored.
+     */
+    public void prefetch(String... hostnames) {
+        for (String hostname : hostnames) {
+            refresher.execute(() -> {
+                try {
+                    resolve(hostname);
+                } catch (UnknownHostException ex) {
+                    // Resolved again on the first lookup
+                }
+            });
+        }
+    }
+
+    /**
+     * Forgets every cached address, e.g. after a network change.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return the addresses currently cached for each hostname, whether or not they have expired
+     */
+    public Map<String, List<InetAddress>> getEntries() {
+        Map<String, List<InetAddress>> addresses = new TreeMap<>();
+        entries.forEach((hostname, entry) -> addresses.put(hostname, entry.addresses));
+
+        return addresses;
+    }
+
+    public DnsStats getStats() {
+        return stats;
+    }
+
+    private void refresh(String hostname, Entry entry) {
+        try {
+            resolve(hostname);
+            stats.recordRefresh();
+        } catch (UnknownHostException ex) {
+            // Served until it expires, then stale
+        } finally {
+            entry.isRefreshing.set(false);
+        }
+    }
+
+    /**
+     * Resolves 'hostname' & caches its addresses, sharing the resolution with any concurrent
+     * lookup of the same hostname.
+     */
+    private Entry resolve(String hostname) throws UnknownHostException {
+        CompletableFuture<Entry> resolution = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = resolutions.putIfAbsent(hostname, resolution);
+
+        if (existing != null) {
+            return await(existing, hostname);
+        }
+
+        try {
+            List<InetAddress> addresses = resolver.lookup(hostname);
+            if (addresses.isEmpty()) {
+                throw new UnknownHostException("No addresses for " + hostname);
+            }
+
+            Entry entry = store(hostname, addresses);
+            resolution.complete(entry);
+
+            return entry;
+        } catch (UnknownHostException | RuntimeException ex) {
+            stats.recordFailure();
+            resolution.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            resolutions.remove(hostname, resolution);
+        }
+    }
+
+    private Entry store(String hostname, List<InetAddress> addresses) {
+        if (entries.size() >= maxEntries && !entries.containsKey(hostname)) {
+            evictOldest();
+        }
+
+        long nowNanos = nanoClock.getAsLong();
+        long ttlNanos = ttl.toNanos();
+        Entry entry = new Entry(addresses, nowNanos + (long) (ttlNanos * refreshAfter), nowNanos + ttlNanos);
+        entries.put(hostname, entry);
+
+        return entry;
+    }
+
+    private void evictOldest() {
+        entries.entrySet().stream()
+                .min((a, b) -> Long.compare(a.getValue().expiresAtNanos, b.getValue().expiresAtNanos))
+                .ifPresent(oldest -> entries.remove(oldest.getKey(), oldest.getValue()));
+    }
+
+    private static Entry await(CompletableFuture<Entry> resolution, String hostname) throws UnknownHostException {
+        try {
+            return resolution.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new UnknownHostException("Interrupted while resolving " + hostname);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof UnknownHostException) throw (UnknownHostException) ex.getCause();
+            if (ex.getCause() instanceof RuntimeException) throw (RuntimeException) ex.getCause();
+
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * @param ttl how long the addresses of a hostname are served before it is resolved again;
+     *            {@link InetAddress} does not expose the TTL of DNS records, so one TTL applies to
+     *            every hostname
+     */
+    public CachingDns setTtl(Duration ttl) {
+        this.ttl = ttl;
+        return this;
+    }
+
+    public double getRefreshAfter() {
+        return refreshAfter;
+    }
+
+    /**
+     * @param refreshAfter the fraction of the TTL after which a looked up hostname is refreshed in
+     *                     the background, between 0 and 1; 1 disables refreshing
+     */
+    public CachingDns setRefreshAfter(double refreshAfter) {
+        if (!(refreshAfter > 0 && refreshAfter <= 1)) {
+            throw new IllegalArgumentException("Refresh after must be between 0 and 1 but was " + refreshAfter);
+        }
+
+        this.refreshAfter = refreshAfter;
+        return this;
+    }
+
+    public Duration getMaxStale() {
+        return maxStale;
+    }
+
+    /**
+     * @param maxStale how long after they expired addresses are served if the resolver fails; 0
+     *                 never serves expired addresses
+     */
+    public CachingDns setMaxStale(Duration maxStale) {
+        this.maxStale = maxStale;
+        return this;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @param maxEntries how many hostnames are cached; beyond that the entry closest to expiring
+     *                   is evicted
+     */
+    public CachingDns setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+        return this;
+    }
+
+    public boolean isRotating() {
+        return rotating;
+    }
+
+    /**
+     * @param rotating whether each lookup rotates the order of the addresses of a hostname
+     */
+    public CachingDns setRotating(boolean rotating) {
+        this.rotating = rotating;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("ttl", ttl)
+                .append("refreshAfter", refreshAfter)
+                .append("maxStale", maxStale)
+                .append("maxEntries", maxEntries)
+                .append("rotating", rotating)
+                .append("entries", entries.size())
+                .append("stats", stats)
+                .toString();
+    }
+
+    private class Entry {
+        private final List<InetAddress> addresses;
+        private final long refreshAtNanos;
+        private final long expiresAtNanos;
+        private final AtomicInteger rotation = new AtomicInteger();
+        private final AtomicBoolean isRefreshing = new AtomicBoolean();
+
+        Entry(List<InetAddress> addresses, long refreshAtNanos, long expiresAtNanos) {
+            this.addresses = Collections.unmodifiableList(new ArrayList<>(addresses));
+            this.refreshAtNanos = refreshAtNanos;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        /**
+         * @return the addresses, starting from the next one in turn if rotating
+         */
+        List<InetAddress> addresses() {
+            if (!rotating || addresses.size() == 1) {
+                return addresses;
+            }
+
+            int offset = Math.floorMod(rotation.getAndIncrement(), addresses.size());
+            List<InetAddress> rotated = new ArrayList<>(addresses.size());
+            rotated.addAll(addresses.subList(offset, addresses.size()));
+            rotated.addAll(addresses.subList(0, offset));
+
+            return rotated;
+        }
+    }
+}
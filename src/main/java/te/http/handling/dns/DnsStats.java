@@ -0,0 +1,86 @@
+package te.http.handling.dns;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing how lookups made through a {@link CachingDns} were answered.
+ */
+public class DnsStats {
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    void recordStaleHit() {
+        staleHits.incrementAndGet();
+    }
+
+    void recordRefresh() {
+        refreshes.incrementAndGet();
+    }
+
+    void recordFailure() {
+        failures.incrementAndGet();
+    }
+
+    /**
+     * @return the number of lookups answered from the cache before their entry expired
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of lookups that had to wait for the resolver
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of lookups answered with an expired entry because the resolver failed
+     */
+    public long getStaleHitCount() {
+        return staleHits.get();
+    }
+
+    /**
+     * @return the number of entries refreshed in the background before they expired
+     */
+    public long getRefreshCount() {
+        return refreshes.get();
+    }
+
+    /**
+     * @return the number of times the resolver failed, whether or not a stale entry was served
+     */
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    public long getLookupCount() {
+        return getHitCount() + getMissCount();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("hits", getHitCount())
+                .append("misses", getMissCount())
+                .append("staleHits", getStaleHitCount())
+                .append("refreshes", getRefreshCount())
+                .append("failures", getFailureCount())
+                .toString();
+    }
+}
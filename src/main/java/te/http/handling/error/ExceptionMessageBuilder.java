@@ -1,6 +1,15 @@
 package te.http.handling.error;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import okhttp3.MediaType;
 import okhttp3.Request;
+import okhttp3.Response;
 import te.http.handling.HttpResponse;
 
 public class ExceptionMessageBuilder {
@@ -44,4 +53,58 @@ public class ExceptionMessageBuilder {
         );
     }
 
-}
\ No newline at end of file
+    /**
+     * Builds the same message as {@link #buildNon200ResponseMessage(HttpResponse)}, but only
+     * decodes at most the first 'maxBodyBytes' of the body and without {@link String#format}.
+     * The body is decoded with the response's charset (UTF-8 by default) and never cut within a
+     * character.
+     */
+    public String buildNon200ResponseMessage(HttpResponse httpResponse, long maxBodyBytes) {
+        StringBuilder message = new StringBuilder(128)
+                .append("Request returned ").append(httpResponse.getStatusCode()).append('!')
+                .append("\n\tURL = ").append(httpResponse.getRequest().url())
+                .append("\n\tMethod = ").append(httpResponse.getRequest().method())
+                .append("\n\tMessage = ").append(httpResponse.getStatusMessage())
+                .append("\n\tBody = ");
+
+        byte[] body = httpResponse.getBodyAsBytes().orElse(null);
+        Charset charset = charsetOf(httpResponse);
+        if (body == null) {
+            message.append((String) null);
+        } else if (body.length <= maxBodyBytes) {
+            message.append(new String(body, charset));
+        } else {
+            ByteBuffer prefix = ByteBuffer.wrap(body, 0, (int) Math.max(maxBodyBytes, 0));
+            message.append(decodeWholeCharacters(prefix, charset))
+                    .append("... (")
+                    .append(body.length - prefix.position())
+                    .append(" more bytes)");
+        }
+
+        return message.append('\n').toString();
+    }
+
+    private static Charset charsetOf(HttpResponse httpResponse) {
+        Response response = httpResponse.getWrappedResponse();
+        MediaType contentType = response == null || response.body() == null ? null : response.body().contentType();
+
+        return contentType == null ? StandardCharsets.UTF_8 : contentType.charset(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes 'bytes' up to the last whole character, leaving the bytes of a character cut short
+     * at its end unread.
+     */
+    private static CharBuffer decodeWholeCharacters(ByteBuffer bytes, Charset charset) {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer characters = CharBuffer.allocate((int) Math.ceil(bytes.remaining() * (double) decoder.maxCharsPerByte()));
+
+        decoder.decode(bytes, characters, false);
+        characters.flip();
+
+        return characters;
+    }
+
+}
@@ -17,7 +17,6 @@ public class TimeoutDetector {
     public boolean isConnectTimeout(Throwable throwable) {
         if (throwable instanceof SocketTimeoutException) {
             return Optional.of(throwable)
-                    .map(Throwable::fillInStackTrace)
                     .map(Throwable::getMessage)
                     .map(msg -> msg.contains(CONNECT_TIMEOUT_TEXT))
                     .orElse(false);
@@ -35,7 +34,6 @@ public class TimeoutDetector {
         if (throwable instanceof SocketTimeoutException && throwable.getCause() != null) {
             return Optional.of(throwable.getCause())
                     .filter(cause -> cause instanceof SocketTimeoutException)
-                    .map(Throwable::fillInStackTrace)
                     .map(Throwable::getMessage)
                     .map(message -> message.contains(READ_TIMEOUT_TEXT))
                     .orElse(false);
@@ -0,0 +1,27 @@
+package te.http.handling.error.exceptions;
+
+import okhttp3.Request;
+
+/**
+ * Occurs when a request is not sent because its host's bulkhead has no free slot, i.e. too many
+ * requests to that host are already in-flight.
+ */
+public class BulkheadFullException extends NoResponseException {
+
+    public BulkheadFullException(Request request, int maxConcurrentCalls) {
+        super(
+                String.format(
+                        "Bulkhead is full, request was not sent!" +
+                                "\n\tURL = %s" +
+                                "\n\tMethod = %s" +
+                                "\n\tMax concurrent calls = %d" +
+                                "\n",
+                        request.url(),
+                        request.method(),
+                        maxConcurrentCalls
+                ),
+                request
+        );
+    }
+
+}
@@ -0,0 +1,25 @@
+package te.http.handling.error.exceptions;
+
+import okhttp3.Request;
+
+/**
+ * Occurs when a request is not sent because the circuit breaker for its host is open, i.e. the
+ * host has recently been failing.
+ */
+public class CircuitBreakerOpenException extends NoResponseException {
+
+    public CircuitBreakerOpenException(Request request) {
+        super(
+                String.format(
+                        "Circuit breaker is open, request was not sent!" +
+                                "\n\tURL = %s" +
+                                "\n\tMethod = %s" +
+                                "\n",
+                        request.url(),
+                        request.method()
+                ),
+                request
+        );
+    }
+
+}
@@ -0,0 +1,27 @@
+package te.http.handling.error.exceptions;
+
+import okhttp3.Request;
+
+/**
+ * Occurs when a request is not sent because its host already has as many requests in-flight as
+ * its adaptive concurrency limit allows, and none finished soon enough.
+ */
+public class ConcurrencyLimitExceededException extends NoResponseException {
+
+    public ConcurrencyLimitExceededException(Request request, int limit) {
+        super(
+                String.format(
+                        "Concurrency limit reached, request was not sent!" +
+                                "\n\tURL = %s" +
+                                "\n\tMethod = %s" +
+                                "\n\tLimit = %d" +
+                                "\n",
+                        request.url(),
+                        request.method(),
+                        limit
+                ),
+                request
+        );
+    }
+
+}
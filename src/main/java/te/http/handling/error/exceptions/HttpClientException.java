@@ -23,6 +23,24 @@ public class HttpClientException extends IOException {
         this.httpResponse = httpResponse;
     }
 
+    /**
+     * For subclasses that build their message lazily, see {@link #getMessage()}.
+     */
+    protected HttpClientException(HttpResponse httpResponse, String message) {
+        super(message);
+
+        this.httpResponse = httpResponse;
+    }
+
+    /**
+     * @return an exception for 'httpResponse' that skips capturing a stack trace, and whose
+     * message is only built, with at most 'maxBodyBytes' of the body, when first requested.
+     * Useful when 400-level responses are frequent & expected.
+     */
+    public static HttpClientException lightweight(HttpResponse httpResponse, long maxBodyBytes) {
+        return new LightweightHttpClientException(httpResponse, maxBodyBytes);
+    }
+
     public HttpResponse getHttpResponse() {
         return httpResponse;
     }
@@ -22,6 +22,24 @@ public class HttpServerException extends IOException {
         this.httpResponse = httpResponse;
     }
 
+    /**
+     * For subclasses that build their message lazily, see {@link #getMessage()}.
+     */
+    protected HttpServerException(HttpResponse httpResponse, String message) {
+        super(message);
+
+        this.httpResponse = httpResponse;
+    }
+
+    /**
+     * @return an exception for 'httpResponse' that skips capturing a stack trace, and whose
+     * message is only built, with at most 'maxBodyBytes' of the body, when first requested.
+     * Useful when 500-level responses are frequent & expected.
+     */
+    public static HttpServerException lightweight(HttpResponse httpResponse, long maxBodyBytes) {
+        return new LightweightHttpServerException(httpResponse, maxBodyBytes);
+    }
+
     public HttpResponse getHttpResponse() {
         return httpResponse;
     }
@@ -0,0 +1,33 @@
+package te.http.handling.error.exceptions;
+
+import te.http.handling.HttpResponse;
+import te.http.handling.error.ExceptionMessageBuilder;
+
+/**
+ * A {@link HttpServerException} without a stack trace, whose message is built on first use.
+ */
+class LightweightHttpServerException extends HttpServerException {
+
+    private final long maxBodyBytes;
+    private volatile String message;
+
+    LightweightHttpServerException(HttpResponse httpResponse, long maxBodyBytes) {
+        super(httpResponse, null);
+
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = new ExceptionMessageBuilder().buildNon200ResponseMessage(getHttpResponse(), maxBodyBytes);
+        }
+
+        return message;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
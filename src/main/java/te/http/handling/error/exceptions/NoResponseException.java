@@ -2,6 +2,8 @@ package te.http.handling.error.exceptions;
 
 import java.io.IOException;
 
+import javax.annotation.Nullable;
+
 import okhttp3.Request;
 import te.http.handling.error.ExceptionMessageBuilder;
 import te.http.handling.error.TimeoutDetector;
@@ -19,6 +21,15 @@ public class NoResponseException extends IOException {
         super(message, ex);
     }
 
+    /**
+     * For when a request was deliberately never sent, e.g. because a circuit breaker is open.
+     */
+    public NoResponseException(String message, Request request) {
+        this(message, (Throwable) null);
+
+        this.request = request;
+    }
+
     public NoResponseException(Throwable throwable, Request request) {
         this(
                 new ExceptionMessageBuilder().buildNoResponseMessage(throwable, request),
@@ -29,6 +40,27 @@ public class NoResponseException extends IOException {
         this.rootCause = throwable;
     }
 
+    /**
+     * @return 'throwable' itself if it already is a {@link NoResponseException}, e.g. thrown by an
+     * interceptor that refused to send the request, otherwise a new one caused by it
+     */
+    public static NoResponseException of(Throwable throwable, Request request) {
+        return throwable instanceof NoResponseException
+                ? (NoResponseException) throwable
+                : new NoResponseException(throwable, request);
+    }
+
+    /**
+     * @return true if 'throwable' means the request was deliberately never sent: rejected by a
+     * rate limiter, concurrency limiter, bulkhead or open circuit breaker
+     */
+    public static boolean isNotSent(@Nullable Throwable throwable) {
+        return throwable instanceof RateLimitExceededException
+                || throwable instanceof ConcurrencyLimitExceededException
+                || throwable instanceof BulkheadFullException
+                || throwable instanceof CircuitBreakerOpenException;
+    }
+
     public Request getRequest() {
         return request;
     }
@@ -0,0 +1,40 @@
+package te.http.handling.error.exceptions;
+
+import java.time.Duration;
+
+import okhttp3.Request;
+
+/**
+ * Occurs when a request is not sent because the client-side rate limit for its host has been
+ * reached, and no permit became available soon enough.
+ */
+public class RateLimitExceededException extends NoResponseException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(Request request, Duration retryAfter) {
+        super(
+                String.format(
+                        "Rate limit exceeded, request was not sent!" +
+                                "\n\tURL = %s" +
+                                "\n\tMethod = %s" +
+                                "\n\tRetry after = %s" +
+                                "\n",
+                        request.url(),
+                        request.method(),
+                        retryAfter
+                ),
+                request
+        );
+
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return roughly how long until a permit would have been available
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+}
@@ -0,0 +1,296 @@
+package te.http.handling.hedging;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import okhttp3.Request;
+import te.http.handling.HttpResponse;
+import te.http.handling.error.exceptions.HttpClientException;
+import te.http.handling.error.exceptions.HttpServerException;
+import te.http.handling.error.exceptions.NoResponseException;
+import te.http.handling.metrics.LatencyHistogram;
+import te.http.handling.resilience.RetryBudget;
+
+/**
+ * Hedges GET & HEAD requests: if a request has not completed after a delay, a duplicate is sent
+ * and whichever responds first wins, while the others are cancelled.
+ *
+ * <p>The delay is either fixed, or a percentile of the latencies of recent requests (e.g. the
+ * 95th, so only the slowest 5% of requests are hedged).  Each hedge is withdrawn from a {@link
+ * RetryBudget}, capping the extra load hedging puts on the webservice.
+ *
+ * <p>A response, or a {@link HttpClientException}, is final; other failures only fail the call
+ * once no other attempt is in-flight.  Scheduled hedges are not sent once an attempt failed.
+ *
+ * <p>Policies are meant to be long-lived: create one, keep it in a static field and return it
+ * from {@link te.http.handling.GETRequestHandling#getHedgingPolicy()}.
+ */
+public class HedgingPolicy {
+    private static final int DEFAULT_WINDOW_SIZE = 1_000;
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "http-hedging");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final double percentile;
+    private volatile long delayNanos;
+    private int maxHedges = 1;
+    private RetryBudget budget = new RetryBudget(0.1, 10);
+    private Duration minDelay = Duration.ofMillis(1);
+    private int windowSize = DEFAULT_WINDOW_SIZE;
+
+    private volatile LatencyHistogram window = new LatencyHistogram();
+    private final AtomicLong windowCount = new AtomicLong();
+    private final AtomicLong hedgeCount = new AtomicLong();
+    private final AtomicLong hedgeWinCount = new AtomicLong();
+
+    private HedgingPolicy(double percentile, Duration initialDelay) {
+        this.percentile = percentile;
+        this.delayNanos = initialDelay.toNanos();
+    }
+
+    /**
+     * @return a policy that hedges requests that have not completed after 'delay'
+     */
+    public static HedgingPolicy afterDelay(Duration delay) {
+        return new HedgingPolicy(Double.NaN, delay);
+    }
+
+    /**
+     * @param percentile   between 0 and 100, e.g. 95
+     * @param initialDelay the delay used until enough latencies have been recorded
+     * @return a policy that hedges requests that take longer than 'percentile' percent of recent
+     * requests
+     */
+    public static HedgingPolicy afterPercentile(double percentile, Duration initialDelay) {
+        if (!(percentile > 0 && percentile < 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100 but was " + percentile);
+        }
+
+        return new HedgingPolicy(percentile, initialDelay);
+    }
+
+    /**
+     * Executes 'request' via 'executor', hedging it as described in {@link HedgingPolicy}.
+     * Requests other than GET & HEAD are executed once.
+     *
+     * @apiNote Cancelling the returned future cancels every attempt.
+     */
+    public CompletableFuture<HttpResponse> executeAsync(Request request, Function<Request, CompletableFuture<HttpResponse>> executor) {
+        if (!"GET".equals(request.method()) && !"HEAD".equals(request.method())) {
+            return executor.apply(request);
+        }
+
+        if (budget != null) {
+            budget.recordRequest();
+        }
+
+        HedgedCall call = new HedgedCall(request, executor);
+        call.send(false);
+
+        long delay = getDelay().toNanos();
+        for (int hedge = 1; hedge <= maxHedges && !call.result.isDone(); hedge++) {
+            call.scheduledHedges.add(scheduler.schedule(call::hedge, delay * hedge, TimeUnit.NANOSECONDS));
+        }
+        if (call.result.isDone()) {
+            call.cancelOthers();
+        }
+
+        return call.result;
+    }
+
+    /**
+     * Synchronous version of {@link #executeAsync(Request, Function)}.
+     */
+    public HttpResponse execute(Request request, Function<Request, CompletableFuture<HttpResponse>> executor) throws HttpClientException, HttpServerException, NoResponseException {
+        CompletableFuture<HttpResponse> result = executeAsync(request, executor);
+
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new NoResponseException(ex, request);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+
+            if (cause instanceof HttpClientException) throw (HttpClientException) cause;
+            if (cause instanceof HttpServerException) throw (HttpServerException) cause;
+            if (cause instanceof NoResponseException) throw (NoResponseException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+
+            throw new NoResponseException(cause, request);
+        }
+    }
+
+    /**
+     * @return how long a request may take before it is hedged
+     */
+    public Duration getDelay() {
+        return Duration.ofNanos(Math.max(delayNanos, minDelay.toNanos()));
+    }
+
+    /**
+     * Records the latency of a completed request, from which the percentile-based delay is
+     * learned; each window of {@link #getWindowSize()} latencies replaces the last.
+     */
+    void recordLatency(long nanos) {
+        if (Double.isNaN(percentile)) return;
+
+        LatencyHistogram current = window;
+        current.record(nanos);
+
+        if (windowCount.incrementAndGet() % windowSize == 0) {
+            window = new LatencyHistogram();
+            delayNanos = current.snapshot().getValueAtPercentile(percentile);
+        }
+    }
+
+    /**
+     * @return the number of hedges sent
+     */
+    public long getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    /**
+     * @return the number of hedges that responded before the original request
+     */
+    public long getHedgeWinCount() {
+        return hedgeWinCount.get();
+    }
+
+    public int getMaxHedges() {
+        return maxHedges;
+    }
+
+    /**
+     * @param maxHedges how many duplicates of a request may be sent, each after another delay
+     */
+    public HedgingPolicy setMaxHedges(int maxHedges) {
+        if (maxHedges < 0) {
+            throw new IllegalArgumentException("Max hedges must be at least 0 but was " + maxHedges);
+        }
+
+        this.maxHedges = maxHedges;
+        return this;
+    }
+
+    @Nullable
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * @param budget the budget each hedge is withdrawn from, or null to hedge without limit;
+     *               defaults to hedging at most 10% of requests
+     */
+    public HedgingPolicy setBudget(@Nullable RetryBudget budget) {
+        this.budget = budget;
+        return this;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public HedgingPolicy setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+        return this;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * @param windowSize how many latencies the percentile-based delay is learned from at a time
+     */
+    public HedgingPolicy setWindowSize(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be at least 1 but was " + windowSize);
+        }
+
+        this.windowSize = windowSize;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("percentile", percentile)
+                .append("delay", getDelay())
+                .append("maxHedges", maxHedges)
+                .append("budget", budget)
+                .append("hedges", getHedgeCount())
+                .append("hedgeWins", getHedgeWinCount())
+                .toString();
+    }
+
+    private class HedgedCall {
+        private final Request request;
+        private final Function<Request, CompletableFuture<HttpResponse>> executor;
+        private final long startNanos = System.nanoTime();
+        private final CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+        private final List<CompletableFuture<HttpResponse>> attempts = new CopyOnWriteArrayList<>();
+        private final List<ScheduledFuture<?>> scheduledHedges = new CopyOnWriteArrayList<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        HedgedCall(Request request, Function<Request, CompletableFuture<HttpResponse>> executor) {
+            this.request = request;
+            this.executor = executor;
+
+            result.whenComplete((response, exception) -> cancelOthers());
+        }
+
+        void hedge() {
+            if (result.isDone() || (budget != null && !budget.tryAcquireRetry())) return;
+
+            hedgeCount.incrementAndGet();
+            send(true);
+        }
+
+        void send(boolean isHedge) {
+            inFlight.incrementAndGet();
+            CompletableFuture<HttpResponse> attempt = executor.apply(request);
+            attempts.add(attempt);
+
+            attempt.whenComplete((response, exception) -> {
+                if (exception == null || exception instanceof HttpClientException) {
+                    if (exception == null ? result.complete(response) : result.completeExceptionally(exception)) {
+                        recordLatency(System.nanoTime() - startNanos);
+                        if (isHedge) hedgeWinCount.incrementAndGet();
+                    }
+                } else if (inFlight.decrementAndGet() == 0) {
+                    result.completeExceptionally(exception);
+                }
+            });
+
+            if (result.isDone()) {
+                attempt.cancel(true);
+            }
+        }
+
+        void cancelOthers() {
+            scheduledHedges.forEach(hedge -> hedge.cancel(false));
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+}
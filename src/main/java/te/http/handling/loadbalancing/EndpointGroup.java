@@ -0,0 +1,319 @@
+package te.http.handling.loadbalancing;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import okhttp3.Request;
+import te.http.handling.HttpResponse;
+import te.http.handling.RequestExecutor;
+import te.http.handling.error.exceptions.HttpClientException;
+import te.http.handling.error.exceptions.HttpServerException;
+import te.http.handling.error.exceptions.NoResponseException;
+
+/**
+ * Spreads requests across several base URLs of a replicated webservice, picking one per request
+ * by "power of two choices": of two random endpoints, the one with the lower peak-EWMA latency
+ * multiplied by its number of in-flight requests wins.  Slow or busy endpoints therefore receive
+ * less traffic, without every client converging on the same fastest endpoint.  The latency of an
+ * endpoint decays towards zero while it receives no requests, so one that was slow once is
+ * eventually tried again.
+ *
+ * <p>An endpoint that fails {@link #getFailuresBeforeEjection()} requests in a row, with a
+ * {@link NoResponseException} or a 5xx response, is ejected for {@link #getEjectionDuration()}.
+ * If every endpoint is ejected, requests are spread across all of them regardless.
+ *
+ * <p>Groups are meant to be long-lived: create one per webservice and keep it in a static field.
+ */
+public class EndpointGroup {
+
+    private final List<Endpoint> endpoints;
+    private final LongSupplier nanoClock;
+
+    private Duration decayTime = Duration.ofSeconds(10);
+    private int failuresBeforeEjection = 3;
+    private Duration ejectionDuration = Duration.ofSeconds(30);
+
+    /**
+     * @param baseUrls the base URL of each endpoint, e.g. "https://replica-1.example.com/api",
+     *                 which request paths are appended to
+     */
+    public EndpointGroup(String... baseUrls) {
+        this(Arrays.asList(baseUrls));
+    }
+
+    public EndpointGroup(List<String> baseUrls) {
+        this(baseUrls, System::nanoTime);
+    }
+
+    EndpointGroup(List<String> baseUrls, LongSupplier nanoClock) {
+        if (baseUrls.isEmpty()) {
+            throw new IllegalArgumentException("An endpoint group needs at least one base URL");
+        }
+
+        this.nanoClock = nanoClock;
+        this.endpoints = Collections.unmodifiableList(baseUrls.stream()
+                .map(baseUrl -> new Endpoint(baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Executes the request built by 'requestBuilder' for the base URL of the selected endpoint
+     * via 'executor', recording its latency & outcome against that endpoint.
+     */
+    public HttpResponse execute(Function<String, Request> requestBuilder, RequestExecutor executor) throws HttpClientException, HttpServerException, NoResponseException {
+        Endpoint endpoint = select();
+        Request request = requestBuilder.apply(endpoint.baseUrl);
+
+        long startNanos = endpoint.start();
+        try {
+            HttpResponse response = executor.execute(request);
+            endpoint.complete(startNanos, response, null);
+
+            return response;
+        } catch (HttpClientException | HttpServerException | NoResponseException | RuntimeException exception) {
+            endpoint.complete(startNanos, null, exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * Asynchronous version of {@link #execute(Function, RequestExecutor)}.
+     */
+    public CompletableFuture<HttpResponse> executeAsync(Function<String, Request> requestBuilder, Function<Request, CompletableFuture<HttpResponse>> executor) {
+        Endpoint endpoint = select();
+        Request request = requestBuilder.apply(endpoint.baseUrl);
+
+        long startNanos = endpoint.start();
+        CompletableFuture<HttpResponse> future = executor.apply(request);
+        future.whenComplete((response, exception) -> endpoint.complete(
+                startNanos,
+                response,
+                exception instanceof CompletionException ? exception.getCause() : exception
+        ));
+
+        return future;
+    }
+
+    /**
+     * @return the endpoint the next request should be sent to
+     */
+    public Endpoint select() {
+        long nowNanos = nanoClock.getAsLong();
+
+        List<Endpoint> candidates = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (!endpoint.isEjected(nowNanos)) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates = endpoints;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) second++;
+
+        Endpoint a = candidates.get(first);
+        Endpoint b = candidates.get(second);
+
+        return a.cost() <= b.cost() ? a : b;
+    }
+
+    /**
+     * @return every endpoint of this group, in the order their base URLs were given
+     */
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public Duration getDecayTime() {
+        return decayTime;
+    }
+
+    /**
+     * @param decayTime how quickly the latency of an endpoint forgets older requests; latencies
+     *                  older than this carry about a third of their original weight, whether or
+     *                  not newer requests have been completed since
+     */
+    public EndpointGroup setDecayTime(Duration decayTime) {
+        this.decayTime = decayTime;
+        return this;
+    }
+
+    public int getFailuresBeforeEjection() {
+        return failuresBeforeEjection;
+    }
+
+    public EndpointGroup setFailuresBeforeEjection(int failuresBeforeEjection) {
+        this.failuresBeforeEjection = failuresBeforeEjection;
+        return this;
+    }
+
+    public Duration getEjectionDuration() {
+        return ejectionDuration;
+    }
+
+    public EndpointGroup setEjectionDuration(Duration ejectionDuration) {
+        this.ejectionDuration = ejectionDuration;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("decayTime", decayTime)
+                .append("failuresBeforeEjection", failuresBeforeEjection)
+                .append("ejectionDuration", ejectionDuration)
+                .append("endpoints", endpoints)
+                .toString();
+    }
+
+    /**
+     * One base URL of an {@link EndpointGroup}, along with the state its selection is based on.
+     */
+    public class Endpoint {
+        private final String baseUrl;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong requestCount = new AtomicLong();
+        private final AtomicLong failureCount = new AtomicLong();
+
+        private double ewmaNanos;
+        private long lastSampleNanos;
+        private int consecutiveFailures;
+        private volatile long ejectedUntilNanos;
+        private volatile boolean isEjected;
+
+        private Endpoint(String baseUrl) {
+            this.baseUrl = baseUrl;
+            this.lastSampleNanos = nanoClock.getAsLong();
+        }
+
+        long start() {
+            inFlight.incrementAndGet();
+            requestCount.incrementAndGet();
+
+            return nanoClock.getAsLong();
+        }
+
+        void complete(long startNanos, @Nullable HttpResponse response, @Nullable Throwable exception) {
+            inFlight.decrementAndGet();
+            long nowNanos = nanoClock.getAsLong();
+
+            // Requests that were deliberately never sent say nothing about the endpoint
+            if (NoResponseException.isNotSent(exception)) return;
+
+            recordLatency(nowNanos - startNanos, nowNanos);
+
+            boolean isFailure = exception instanceof NoResponseException
+                    || exception instanceof HttpServerException
+                    || (response != null && response.getStatusCode() >= 500);
+
+            synchronized (this) {
+                if (!isFailure) {
+                    consecutiveFailures = 0;
+                    return;
+                }
+
+                failureCount.incrementAndGet();
+                if (++consecutiveFailures >= failuresBeforeEjection) {
+                    consecutiveFailures = 0;
+                    ejectedUntilNanos = nowNanos + ejectionDuration.toNanos();
+                    isEjected = true;
+                }
+            }
+        }
+
+        /**
+         * Peak-EWMA: a slower request is taken at face value straight away, while faster requests
+         * only lower the latency gradually.
+         */
+        private synchronized void recordLatency(long latencyNanos, long nowNanos) {
+            if (latencyNanos > ewmaNanos) {
+                ewmaNanos = latencyNanos;
+            } else {
+                double weight = Math.exp(-(double) (nowNanos - lastSampleNanos) / decayTime.toNanos());
+                ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+            }
+
+            lastSampleNanos = nowNanos;
+        }
+
+        private double cost() {
+            return (getEwmaNanos() + 1) * (inFlight.get() + 1);
+        }
+
+        /**
+         * @return the EWMA decayed by the time since the last sample, as if a request with no
+         * latency had just completed
+         */
+        private synchronized double getEwmaNanos() {
+            long nowNanos = nanoClock.getAsLong();
+
+            return ewmaNanos * Math.exp(-(double) Math.max(0, nowNanos - lastSampleNanos) / decayTime.toNanos());
+        }
+
+        boolean isEjected(long nowNanos) {
+            if (isEjected && nowNanos >= ejectedUntilNanos) {
+                isEjected = false;
+            }
+
+            return isEjected;
+        }
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public Duration getEwmaLatency() {
+            return Duration.ofNanos((long) getEwmaNanos());
+        }
+
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        public long getRequestCount() {
+            return requestCount.get();
+        }
+
+        public long getFailureCount() {
+            return failureCount.get();
+        }
+
+        public boolean isEjected() {
+            return isEjected(nanoClock.getAsLong());
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this)
+                    .append("baseUrl", baseUrl)
+                    .append("ewmaLatency", getEwmaLatency())
+                    .append("inFlight", getInFlight())
+                    .append("requests", getRequestCount())
+                    .append("failures", getFailureCount())
+                    .append("ejected", isEjected())
+                    .toString();
+        }
+    }
+}
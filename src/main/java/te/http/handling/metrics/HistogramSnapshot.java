@@ -0,0 +1,66 @@
+package te.http.handling.metrics;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.time.Duration;
+
+/**
+ * An immutable copy of a {@link LatencyHistogram}.  All values are in nanoseconds.
+ */
+public class HistogramSnapshot {
+    private final long[] bucketCounts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(long[] bucketCounts, long count, long sum, long max) {
+        this.bucketCounts = bucketCounts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @param percentile between 0 and 100, e.g. 99.9
+     * @return the value at or below which 'percentile' percent of recorded values fall, or 0 if
+     * nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValueIn(i), max);
+            }
+        }
+
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("count", count)
+                .append("mean", Duration.ofNanos((long) getMean()))
+                .append("p50", Duration.ofNanos(getValueAtPercentile(50)))
+                .append("p90", Duration.ofNanos(getValueAtPercentile(90)))
+                .append("p99", Duration.ofNanos(getValueAtPercentile(99)))
+                .append("max", Duration.ofNanos(max))
+                .toString();
+    }
+}
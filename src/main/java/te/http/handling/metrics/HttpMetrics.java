@@ -0,0 +1,221 @@
+package te.http.handling.metrics;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.control.Try;
+import okhttp3.OkHttpClient;
+import te.http.handling.concurrency.AdaptiveConcurrencyLimiter;
+
+/**
+ * Records per-host, per-{@link Phase} latency histograms of the requests made through the
+ * clients it decorates, and publishes {@link MetricsSnapshot}s of them to {@link MetricsSink}s.
+ *
+ * <p>Metrics are meant to be long-lived: create one, keep it in a static field and return it from
+ * {@link te.http.handling.HttpRequestHandling#getHttpMetrics()}.
+ */
+public class HttpMetrics {
+    /**
+     * The host that measurements which cannot be attributed to one host are recorded under.
+     */
+    public static final String ANY_HOST = "*";
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private static final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "http-metrics-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<MetricsSink> sinks;
+    private final Map<String, HostMetrics> hosts = new ConcurrentHashMap<>();
+    private final AtomicReference<Tuple2<OkHttpClient, OkHttpClient>> lastDecoratedClient = new AtomicReference<>();
+    private volatile AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * Creates metrics that publish to an {@link InMemoryMetricsReporter}.
+     */
+    public HttpMetrics() {
+        this(new InMemoryMetricsReporter());
+    }
+
+    public HttpMetrics(MetricsSink... sinks) {
+        this.sinks = Arrays.asList(sinks);
+    }
+
+    /**
+     * @return a client sharing everything (connection pool, dispatcher, etc.) with 'httpClient'
+     * except that its calls are measured; the most recently decorated client is reused.
+     */
+    public OkHttpClient decorate(OkHttpClient httpClient) {
+        Tuple2<OkHttpClient, OkHttpClient> last = lastDecoratedClient.get();
+        if (last != null && last._1 == httpClient) {
+            return last._2;
+        }
+
+        OkHttpClient decorated = httpClient.newBuilder()
+                .eventListenerFactory(new MetricsEventListener.Factory(this, httpClient.eventListenerFactory()))
+                .build();
+        lastDecoratedClient.set(Tuple.of(httpClient, decorated));
+
+        return decorated;
+    }
+
+    /**
+     * Includes the current limits of 'concurrencyLimiter' in every snapshot.
+     */
+    public HttpMetrics trackConcurrencyLimits(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        return this;
+    }
+
+    public void record(String host, Phase phase, long nanos) {
+        hostMetrics(host).histograms[phase.ordinal()].record(nanos);
+    }
+
+    /**
+     * Records the latency of every phase at once, where 'phaseNanos' is indexed by {@link
+     * Phase#ordinal()} and negative values are not recorded.
+     */
+    void record(String host, long[] phaseNanos) {
+        LatencyHistogram[] histograms = hostMetrics(host).histograms;
+
+        for (int i = 0; i < phaseNanos.length; i++) {
+            if (phaseNanos[i] >= 0) {
+                histograms[i].record(phaseNanos[i]);
+            }
+        }
+    }
+
+    /**
+     * Records that a call to 'host' failed without a response.
+     */
+    public void recordFailure(String host) {
+        hostMetrics(host).failures.increment();
+    }
+
+    /**
+     * Runs 'deserialization', recording its latency as {@link Phase#DESERIALIZATION} under {@link
+     * #ANY_HOST}.
+     */
+    public <T> T timeDeserialization(Supplier<T> deserialization) {
+        long start = System.nanoTime();
+        try {
+            return deserialization.get();
+        } finally {
+            record(ANY_HOST, Phase.DESERIALIZATION, System.nanoTime() - start);
+        }
+    }
+
+    public MetricsSnapshot snapshot() {
+        Map<String, Map<Phase, HistogramSnapshot>> histograms = new HashMap<>();
+        Map<String, Long> failureCounts = new HashMap<>();
+
+        hosts.forEach((host, hostMetrics) -> {
+            Map<Phase, HistogramSnapshot> phases = new EnumMap<>(Phase.class);
+            for (Phase phase : PHASES) {
+                HistogramSnapshot histogram = hostMetrics.histograms[phase.ordinal()].snapshot();
+                if (histogram.getCount() > 0) {
+                    phases.put(phase, histogram);
+                }
+            }
+
+            histograms.put(host, phases);
+            failureCounts.put(host, hostMetrics.failures.sum());
+        });
+
+        AdaptiveConcurrencyLimiter concurrencyLimiter = this.concurrencyLimiter;
+        Map<String, Integer> concurrencyLimits = concurrencyLimiter == null
+                ? Collections.emptyMap()
+                : concurrencyLimiter.getLimits();
+
+        Tuple2<OkHttpClient, OkHttpClient> last = lastDecoratedClient.get();
+        if (last == null) {
+            return new MetricsSnapshot(Instant.now(), histograms, failureCounts, 0, 0, 0, 0, concurrencyLimits);
+        }
+
+        OkHttpClient httpClient = last._1;
+        return new MetricsSnapshot(
+                Instant.now(),
+                histograms,
+                failureCounts,
+                httpClient.connectionPool().connectionCount(),
+                httpClient.connectionPool().idleConnectionCount(),
+                httpClient.dispatcher().runningCallsCount(),
+                httpClient.dispatcher().queuedCallsCount(),
+                concurrencyLimits
+        );
+    }
+
+    /**
+     * Takes a snapshot and publishes it to every {@link MetricsSink}.
+     */
+    public MetricsSnapshot publish() {
+        MetricsSnapshot snapshot = snapshot();
+        sinks.forEach(sink -> sink.publish(snapshot));
+
+        return snapshot;
+    }
+
+    /**
+     * Publishes a snapshot every 'interval' from a shared daemon thread, until the returned future
+     * is cancelled.  A sink throwing an exception does not stop later publishing.
+     */
+    public ScheduledFuture<?> publishEvery(Duration interval) {
+        return publisher.scheduleAtFixedRate(
+                () -> Try.run(this::publish),
+                interval.toNanos(),
+                interval.toNanos(),
+                TimeUnit.NANOSECONDS
+        );
+    }
+
+    public List<MetricsSink> getSinks() {
+        return sinks;
+    }
+
+    private HostMetrics hostMetrics(String host) {
+        HostMetrics hostMetrics = hosts.get(host);
+        if (hostMetrics != null) return hostMetrics;
+
+        return hosts.computeIfAbsent(host, key -> new HostMetrics());
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("hosts", hosts.keySet())
+                .append("sinks", sinks)
+                .toString();
+    }
+
+    private static class HostMetrics {
+        private final LatencyHistogram[] histograms = new LatencyHistogram[PHASES.length];
+        private final LongAdder failures = new LongAdder();
+
+        HostMetrics() {
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package te.http.handling.metrics;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link MetricsSink} that keeps the most recently published {@link MetricsSnapshot}.
+ */
+public class InMemoryMetricsReporter implements MetricsSink {
+    private volatile MetricsSnapshot latest;
+
+    @Override
+    public void publish(MetricsSnapshot snapshot) {
+        this.latest = snapshot;
+    }
+
+    /**
+     * @return the most recently published snapshot, or null if none has been published
+     */
+    @Nullable
+    public MetricsSnapshot getLatest() {
+        return latest;
+    }
+}
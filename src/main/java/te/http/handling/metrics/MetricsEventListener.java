@@ -0,0 +1,198 @@
+package te.http.handling.metrics;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Times the phases of a single call and records them into {@link HttpMetrics} once the call ends,
+ * while forwarding every event to the client's original {@link EventListener}.
+ *
+ * <p>Phases that happen more than once in a call (e.g. due to redirects) are summed.
+ */
+class MetricsEventListener extends EventListener {
+    private static final int NOT_RECORDED = -1;
+    private static final Phase[] PHASES = Phase.values();
+
+    private final HttpMetrics metrics;
+    private final EventListener delegate;
+
+    private final long[] phaseNanos = new long[PHASES.length];
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long requestSentAt;
+    private long responseBodyStart;
+
+    private MetricsEventListener(HttpMetrics metrics, EventListener delegate) {
+        this.metrics = metrics;
+        this.delegate = delegate;
+        Arrays.fill(phaseNanos, NOT_RECORDED);
+    }
+
+    @Override
+    public void callStart(Call call) {
+        callStart = System.nanoTime();
+        delegate.callStart(call);
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStart = System.nanoTime();
+        endQueue(dnsStart);
+        delegate.dnsStart(call, domainName);
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        add(Phase.DNS, System.nanoTime() - dnsStart);
+        delegate.dnsEnd(call, domainName, inetAddressList);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStart = System.nanoTime();
+        endQueue(connectStart);
+        delegate.connectStart(call, inetSocketAddress, proxy);
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        secureConnectStart = System.nanoTime();
+        delegate.secureConnectStart(call);
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        add(Phase.TLS, System.nanoTime() - secureConnectStart);
+        delegate.secureConnectEnd(call, handshake);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        add(Phase.CONNECT, System.nanoTime() - connectStart);
+        delegate.connectEnd(call, inetSocketAddress, proxy, protocol);
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol, IOException ioe) {
+        add(Phase.CONNECT, System.nanoTime() - connectStart);
+        delegate.connectFailed(call, inetSocketAddress, proxy, protocol, ioe);
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        if (phaseNanos[Phase.QUEUE.ordinal()] == NOT_RECORDED) {
+            endQueue(System.nanoTime());
+        }
+        delegate.connectionAcquired(call, connection);
+    }
+
+    @Override
+    public void connectionReleased(Call call, Connection connection) {
+        delegate.connectionReleased(call, connection);
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        delegate.requestHeadersStart(call);
+    }
+
+    @Override
+    public void requestHeadersEnd(Call call, Request request) {
+        requestSentAt = System.nanoTime();
+        delegate.requestHeadersEnd(call, request);
+    }
+
+    @Override
+    public void requestBodyStart(Call call) {
+        delegate.requestBodyStart(call);
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        requestSentAt = System.nanoTime();
+        delegate.requestBodyEnd(call, byteCount);
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        add(Phase.TIME_TO_FIRST_BYTE, System.nanoTime() - requestSentAt);
+        delegate.responseHeadersStart(call);
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        delegate.responseHeadersEnd(call, response);
+    }
+
+    @Override
+    public void responseBodyStart(Call call) {
+        responseBodyStart = System.nanoTime();
+        delegate.responseBodyStart(call);
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        add(Phase.RESPONSE_BODY, System.nanoTime() - responseBodyStart);
+        delegate.responseBodyEnd(call, byteCount);
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        recordAll(call.request().url().host());
+        delegate.callEnd(call);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        String host = call.request().url().host();
+        recordAll(host);
+        metrics.recordFailure(host);
+        delegate.callFailed(call, ioe);
+    }
+
+    private void endQueue(long now) {
+        if (phaseNanos[Phase.QUEUE.ordinal()] == NOT_RECORDED) {
+            phaseNanos[Phase.QUEUE.ordinal()] = now - callStart;
+        }
+    }
+
+    private void add(Phase phase, long nanos) {
+        int index = phase.ordinal();
+        phaseNanos[index] = phaseNanos[index] == NOT_RECORDED ? nanos : phaseNanos[index] + nanos;
+    }
+
+    private void recordAll(String host) {
+        phaseNanos[Phase.TOTAL.ordinal()] = System.nanoTime() - callStart;
+
+        metrics.record(host, phaseNanos);
+    }
+
+    static class Factory implements EventListener.Factory {
+        private final HttpMetrics metrics;
+        private final EventListener.Factory delegate;
+
+        Factory(HttpMetrics metrics, EventListener.Factory delegate) {
+            this.metrics = metrics;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public EventListener create(Call call) {
+            return new MetricsEventListener(metrics, delegate.create(call));
+        }
+    }
+}
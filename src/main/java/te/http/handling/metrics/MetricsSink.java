@@ -0,0 +1,12 @@
+package te.http.handling.metrics;
+
+/**
+ * Somewhere {@link HttpMetrics} publishes its {@link MetricsSnapshot}s to, e.g. a monitoring
+ * system.
+ */
+@FunctionalInterface
+public interface MetricsSink {
+
+    void publish(MetricsSnapshot snapshot);
+
+}
@@ -0,0 +1,118 @@
+package te.http.handling.metrics;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An immutable copy of the latency histograms recorded by {@link HttpMetrics}, per host and
+ * {@link Phase}, along with gauges of the connection pool, dispatcher and adaptive concurrency
+ * limits at the time it was taken.
+ */
+public class MetricsSnapshot {
+    private final Instant takenAt;
+    private final Map<String, Map<Phase, HistogramSnapshot>> histograms;
+    private final Map<String, Long> failureCounts;
+    private final int connectionCount;
+    private final int idleConnectionCount;
+    private final int runningCallCount;
+    private final int queuedCallCount;
+    private final Map<String, Integer> concurrencyLimits;
+
+    MetricsSnapshot(Instant takenAt,
+                    Map<String, Map<Phase, HistogramSnapshot>> histograms,
+                    Map<String, Long> failureCounts,
+                    int connectionCount,
+                    int idleConnectionCount,
+                    int runningCallCount,
+                    int queuedCallCount,
+                    Map<String, Integer> concurrencyLimits) {
+        this.takenAt = takenAt;
+        this.histograms = Collections.unmodifiableMap(histograms);
+        this.failureCounts = Collections.unmodifiableMap(failureCounts);
+        this.connectionCount = connectionCount;
+        this.idleConnectionCount = idleConnectionCount;
+        this.runningCallCount = runningCallCount;
+        this.queuedCallCount = queuedCallCount;
+        this.concurrencyLimits = Collections.unmodifiableMap(concurrencyLimits);
+    }
+
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+
+    /**
+     * @return the histograms of each host, for each phase that has been recorded for that host
+     */
+    public Map<String, Map<Phase, HistogramSnapshot>> getHistograms() {
+        return histograms;
+    }
+
+    /**
+     * @return the histogram of 'phase' for 'host', which is empty if nothing was recorded
+     */
+    public HistogramSnapshot getHistogram(String host, Phase phase) {
+        return histograms
+                .getOrDefault(host, Collections.emptyMap())
+                .getOrDefault(phase, new LatencyHistogram().snapshot());
+    }
+
+    /**
+     * @return the number of calls to 'host' that failed without a response
+     */
+    public long getFailureCount(String host) {
+        return failureCounts.getOrDefault(host, 0L);
+    }
+
+    /**
+     * @return the number of open connections in the connection pool
+     */
+    public int getConnectionCount() {
+        return connectionCount;
+    }
+
+    /**
+     * @return the number of idle connections in the connection pool
+     */
+    public int getIdleConnectionCount() {
+        return idleConnectionCount;
+    }
+
+    /**
+     * @return the number of calls executing, both synchronous & asynchronous
+     */
+    public int getRunningCallCount() {
+        return runningCallCount;
+    }
+
+    /**
+     * @return the number of asynchronous calls waiting in the dispatcher's queue
+     */
+    public int getQueuedCallCount() {
+        return queuedCallCount;
+    }
+
+    /**
+     * @return the current limit of each host ("host:port") of the tracked {@link
+     * te.http.handling.concurrency.AdaptiveConcurrencyLimiter}, if any
+     */
+    public Map<String, Integer> getConcurrencyLimits() {
+        return concurrencyLimits;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("takenAt", takenAt)
+                .append("connectionCount", connectionCount)
+                .append("idleConnectionCount", idleConnectionCount)
+                .append("runningCallCount", runningCallCount)
+                .append("queuedCallCount", queuedCallCount)
+                .append("concurrencyLimits", concurrencyLimits)
+                .append("failureCounts", failureCounts)
+                .append("histograms", histograms)
+                .toString();
+    }
+}
@@ -0,0 +1,33 @@
+package te.http.handling.metrics;
+
+/**
+ * The phases of a request whose latency {@link HttpMetrics} records.
+ */
+public enum Phase {
+    /**
+     * From the call starting (or being enqueued) until a connection is sought, i.e. time spent
+     * queued in the {@link okhttp3.Dispatcher} and in interceptors.
+     */
+    QUEUE,
+    DNS,
+    /**
+     * Establishing a new connection, including {@link #TLS}.
+     */
+    CONNECT,
+    TLS,
+    /**
+     * From the request being fully sent until the response headers start arriving.
+     */
+    TIME_TO_FIRST_BYTE,
+    RESPONSE_BODY,
+    /**
+     * Deserializing JSON via {@link te.http.handling.HttpRequestHandling#fromJson(String, Class)} &
+     * {@link te.http.handling.HttpRequestHandling#fromJsonList(String, Class)},
+     * which is recorded under {@link HttpMetrics#ANY_HOST}.
+     */
+    DESERIALIZATION,
+    /**
+     * The whole call, from start to end.
+     */
+    TOTAL
+}
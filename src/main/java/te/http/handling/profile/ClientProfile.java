@@ -0,0 +1,229 @@
+package te.http.handling.profile;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+/**
+ * A named configuration of an {@link OkHttpClient}: its connection pool, dispatcher limits,
+ * timeouts and, optionally, per-host bulkheads.  Give each downstream webservice (or group of
+ * them) its own profile so a slow one cannot exhaust the dispatcher & connections of the others.
+ *
+ * <p>The client is built the first time {@link #getHttpClient()} is called, after which the
+ * profile can no longer be changed.  Profiles are meant to be long-lived: create one, keep it in
+ * a static field and return it from {@link te.http.handling.HttpRequestHandling#getClientProfile()}.
+ *
+ * <p>By default a profile has OkHttp's defaults: 5 idle connections kept alive for 5 minutes, 64
+ * concurrent requests (5 per host), 10 second connect/read/write timeouts, and no bulkheads.
+ */
+public class ClientProfile {
+
+    private final String name;
+    private int maxIdleConnections = 5;
+    private Duration keepAlive = Duration.ofMinutes(5);
+    private @Nullable ConnectionPool connectionPool;
+    private int maxRequests = 64;
+    private int maxRequestsPerHost = 5;
+    private Duration connectTimeout = Duration.ofSeconds(10);
+    private Duration readTimeout = Duration.ofSeconds(10);
+    private Duration writeTimeout = Duration.ofSeconds(10);
+    private Duration callTimeout = Duration.ZERO;
+    private int maxConcurrentCallsPerHost;
+    private Duration maxBulkheadWait = Duration.ZERO;
+
+    private volatile OkHttpClient httpClient;
+    private @Nullable HostBulkheads hostBulkheads;
+
+    private ClientProfile(String name) {
+        this.name = name;
+    }
+
+    public static ClientProfile named(String name) {
+        return new ClientProfile(name);
+    }
+
+    /**
+     * @return this profile's client, building it on the first call
+     */
+    public OkHttpClient getHttpClient() {
+        OkHttpClient client = httpClient;
+        if (client != null) return client;
+
+        synchronized (this) {
+            if (httpClient == null) {
+                httpClient = buildHttpClient();
+            }
+
+            return httpClient;
+        }
+    }
+
+    /**
+     * @return the current occupancy of this profile's connection pool, dispatcher and bulkheads
+     */
+    public ClientProfileStats getStats() {
+        OkHttpClient client = getHttpClient();
+
+        return new ClientProfileStats(
+                name,
+                client.connectionPool().connectionCount(),
+                client.connectionPool().idleConnectionCount(),
+                client.dispatcher().runningCallsCount(),
+                client.dispatcher().queuedCallsCount(),
+                hostBulkheads == null ? Collections.emptyMap() : hostBulkheads.getInFlightCounts(),
+                hostBulkheads == null ? 0 : hostBulkheads.getWaitingCount(),
+                hostBulkheads == null ? 0 : hostBulkheads.getRejectedCount()
+        );
+    }
+
+    private OkHttpClient buildHttpClient() {
+        Dispatcher dispatcher = new Dispatcher(newDispatcherExecutor());
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(connectionPool != null
+                        ? connectionPool
+                        : new ConnectionPool(maxIdleConnections, keepAlive.toNanos(), TimeUnit.NANOSECONDS))
+                .connectTimeout(connectTimeout.toNanos(), TimeUnit.NANOSECONDS)
+                .readTimeout(readTimeout.toNanos(), TimeUnit.NANOSECONDS)
+                .writeTimeout(writeTimeout.toNanos(), TimeUnit.NANOSECONDS)
+                .callTimeout(callTimeout.toNanos(), TimeUnit.NANOSECONDS);
+
+        if (maxConcurrentCallsPerHost > 0) {
+            hostBulkheads = new HostBulkheads(maxConcurrentCallsPerHost, maxBulkheadWait);
+            builder.addInterceptor(hostBulkheads);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @return the same kind of executor as OkHttp's default, but with threads named after this
+     * profile
+     */
+    private ExecutorService newDispatcherExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "OkHttp " + name + " Dispatcher #" + threadCount.incrementAndGet());
+            thread.setDaemon(false);
+            return thread;
+        });
+    }
+
+    private ClientProfile configure(Runnable change) {
+        if (httpClient != null) {
+            throw new IllegalStateException("Client profile '" + name + "' cannot be changed once its client has been built.");
+        }
+
+        change.run();
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ClientProfile setMaxIdleConnections(int maxIdleConnections) {
+        return configure(() -> this.maxIdleConnections = maxIdleConnections);
+    }
+
+    public ClientProfile setKeepAlive(Duration keepAlive) {
+        return configure(() -> this.keepAlive = keepAlive);
+    }
+
+    /**
+     * @param connectionPool a pool to share with other profiles (e.g. another profile's {@code
+     *                       getHttpClient().connectionPool()}), in which case the max idle
+     *                       connections & keep-alive of this profile are ignored.  Connections
+     *                       are only ever reused for requests to the same address w/ the same
+     *                       TLS & proxy configuration, so sharing is safe.
+     */
+    public ClientProfile setConnectionPool(ConnectionPool connectionPool) {
+        return configure(() -> this.connectionPool = connectionPool);
+    }
+
+    /**
+     * @param maxRequests the maximum number of asynchronous requests in-flight at once
+     */
+    public ClientProfile setMaxRequests(int maxRequests) {
+        return configure(() -> this.maxRequests = maxRequests);
+    }
+
+    /**
+     * @param maxRequestsPerHost the maximum number of asynchronous requests in-flight to each host
+     */
+    public ClientProfile setMaxRequestsPerHost(int maxRequestsPerHost) {
+        return configure(() -> this.maxRequestsPerHost = maxRequestsPerHost);
+    }
+
+    public ClientProfile setConnectTimeout(Duration connectTimeout) {
+        return configure(() -> this.connectTimeout = connectTimeout);
+    }
+
+    public ClientProfile setReadTimeout(Duration readTimeout) {
+        return configure(() -> this.readTimeout = readTimeout);
+    }
+
+    public ClientProfile setWriteTimeout(Duration writeTimeout) {
+        return configure(() -> this.writeTimeout = writeTimeout);
+    }
+
+    /**
+     * @param callTimeout the maximum duration of a whole call, or zero (the default) for none
+     */
+    public ClientProfile setCallTimeout(Duration callTimeout) {
+        return configure(() -> this.callTimeout = callTimeout);
+    }
+
+    /**
+     * Isolates each host behind its own bulkhead, which limits the concurrent calls to it, both
+     * synchronous & asynchronous.  Calls that cannot get a slot within 'maxWait' fail with a
+     * {@link te.http.handling.error.exceptions.BulkheadFullException} without being sent.
+     *
+     * <p>Asynchronous calls wait for a slot on a {@link okhttp3.Dispatcher} thread, so keep
+     * 'maxWait' short (or zero) for them; {@link #setMaxRequestsPerHost(int)} queues them without
+     * holding a thread instead.
+     *
+     * @param maxConcurrentCallsPerHost the slots per host, or 0 (the default) for no bulkheads
+     * @param maxWait                   how long a call may wait for a slot; zero to fail fast
+     */
+    public ClientProfile setBulkhead(int maxConcurrentCallsPerHost, Duration maxWait) {
+        return configure(() -> {
+            this.maxConcurrentCallsPerHost = maxConcurrentCallsPerHost;
+            this.maxBulkheadWait = maxWait;
+        });
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("name", name)
+                .append("maxIdleConnections", maxIdleConnections)
+                .append("keepAlive", keepAlive)
+                .append("sharedConnectionPool", connectionPool != null)
+                .append("maxRequests", maxRequests)
+                .append("maxRequestsPerHost", maxRequestsPerHost)
+                .append("connectTimeout", connectTimeout)
+                .append("readTimeout", readTimeout)
+                .append("writeTimeout", writeTimeout)
+                .append("callTimeout", callTimeout)
+                .append("maxConcurrentCallsPerHost", maxConcurrentCallsPerHost)
+                .append("maxBulkheadWait", maxBulkheadWait)
+                .toString();
+    }
+}
@@ -0,0 +1,101 @@
+package te.http.handling.profile;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The occupancy of a {@link ClientProfile}'s connection pool, dispatcher and bulkheads at the
+ * time it was taken.
+ */
+public class ClientProfileStats {
+    private final String profileName;
+    private final int connectionCount;
+    private final int idleConnectionCount;
+    private final int runningCallCount;
+    private final int queuedCallCount;
+    private final Map<String, Integer> inFlightCallsPerHost;
+    private final int bulkheadWaitingCount;
+    private final long bulkheadRejectedCount;
+
+    ClientProfileStats(String profileName,
+                       int connectionCount,
+                       int idleConnectionCount,
+                       int runningCallCount,
+                       int queuedCallCount,
+                       Map<String, Integer> inFlightCallsPerHost,
+                       int bulkheadWaitingCount,
+                       long bulkheadRejectedCount) {
+        this.profileName = profileName;
+        this.connectionCount = connectionCount;
+        this.idleConnectionCount = idleConnectionCount;
+        this.runningCallCount = runningCallCount;
+        this.queuedCallCount = queuedCallCount;
+        this.inFlightCallsPerHost = Collections.unmodifiableMap(inFlightCallsPerHost);
+        this.bulkheadWaitingCount = bulkheadWaitingCount;
+        this.bulkheadRejectedCount = bulkheadRejectedCount;
+    }
+
+    public String getProfileName() {
+        return profileName;
+    }
+
+    public int getConnectionCount() {
+        return connectionCount;
+    }
+
+    public int getIdleConnectionCount() {
+        return idleConnectionCount;
+    }
+
+    /**
+     * @return the number of calls executing, both synchronous & asynchronous
+     */
+    public int getRunningCallCount() {
+        return runningCallCount;
+    }
+
+    /**
+     * @return the number of asynchronous calls waiting in the dispatcher's queue
+     */
+    public int getQueuedCallCount() {
+        return queuedCallCount;
+    }
+
+    /**
+     * @return the number of bulkhead slots in use for each host ("host:port"), or nothing if the
+     * profile has no bulkheads
+     */
+    public Map<String, Integer> getInFlightCallsPerHost() {
+        return inFlightCallsPerHost;
+    }
+
+    /**
+     * @return the number of calls waiting for a bulkhead slot
+     */
+    public int getBulkheadWaitingCount() {
+        return bulkheadWaitingCount;
+    }
+
+    /**
+     * @return the number of calls rejected because their host's bulkhead was full
+     */
+    public long getBulkheadRejectedCount() {
+        return bulkheadRejectedCount;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("profileName", profileName)
+                .append("connectionCount", connectionCount)
+                .append("idleConnectionCount", idleConnectionCount)
+                .append("runningCallCount", runningCallCount)
+                .append("queuedCallCount", queuedCallCount)
+                .append("inFlightCallsPerHost", inFlightCallsPerHost)
+                .append("bulkheadWaitingCount", bulkheadWaitingCount)
+                .append("bulkheadRejectedCount", bulkheadRejectedCount)
+                .toString();
+    }
+}
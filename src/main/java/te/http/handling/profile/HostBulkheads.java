@@ -0,0 +1,107 @@
+package te.http.handling.profile;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import te.http.handling.error.exceptions.BulkheadFullException;
+
+/**
+ * An application {@link Interceptor} that gives each host its own pool of concurrency slots, so a
+ * slow host can only tie up its own slots rather than every thread making requests.
+ *
+ * <p>A slot is held from the moment the call is intercepted until its response headers have been
+ * received (or it failed).
+ *
+ * <p>Asynchronous calls are intercepted on the {@link okhttp3.Dispatcher}'s threads, so waiting
+ * for a slot holds one of those threads for up to 'maxWait'.
+ */
+class HostBulkheads implements Interceptor {
+
+    private final int maxConcurrentCallsPerHost;
+    private final Duration maxWait;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    HostBulkheads(int maxConcurrentCallsPerHost, Duration maxWait) {
+        this.maxConcurrentCallsPerHost = maxConcurrentCallsPerHost;
+        this.maxWait = maxWait;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        String host = hostOf(chain.request().url());
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(host, key -> new Bulkhead(maxConcurrentCallsPerHost));
+
+        bulkhead.acquire(chain.request());
+        try {
+            return chain.proceed(chain.request());
+        } finally {
+            bulkhead.slots.release();
+        }
+    }
+
+    /**
+     * @return the number of slots in use for each host that has been called
+     */
+    Map<String, Integer> getInFlightCounts() {
+        Map<String, Integer> inFlightCounts = new TreeMap<>();
+        bulkheads.forEach((host, bulkhead) ->
+                inFlightCounts.put(host, maxConcurrentCallsPerHost - bulkhead.slots.availablePermits())
+        );
+
+        return inFlightCounts;
+    }
+
+    /**
+     * @return the number of calls waiting for a slot, across all hosts
+     */
+    int getWaitingCount() {
+        return bulkheads.values().stream().mapToInt(bulkhead -> bulkhead.waiting.get()).sum();
+    }
+
+    long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private static String hostOf(HttpUrl url) {
+        return url.host() + ":" + url.port();
+    }
+
+    private class Bulkhead {
+        private final Semaphore slots;
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        Bulkhead(int size) {
+            this.slots = new Semaphore(size, true);
+        }
+
+        void acquire(Request request) throws IOException {
+            if (slots.tryAcquire()) return;
+
+            waiting.incrementAndGet();
+            try {
+                if (!slots.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                    rejectedCount.incrementAndGet();
+                    throw new BulkheadFullException(request, maxConcurrentCallsPerHost);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a slot for " + hostOf(request.url()));
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+    }
+}
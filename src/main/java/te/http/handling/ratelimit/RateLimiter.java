@@ -0,0 +1,313 @@
+package te.http.handling.ratelimit;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+import te.http.handling.error.exceptions.RateLimitExceededException;
+
+/**
+ * A client-side rate limiter that gives each configured host, or URL prefix, its own token
+ * bucket so requests stay within a webservice's quota instead of running into 429 responses.
+ *
+ * <p>Limits are matched by the longest configured URL prefix, then by host, then by the default
+ * limit (if any), which gives every other host its own bucket.  Requests that match no limit are
+ * never limited.
+ *
+ * <p>When no permit is available the limiter either waits, for at most {@link #getMaxWait()},
+ * or fails fast, depending on its {@link Mode}; either way it throws a {@link
+ * RateLimitExceededException} if the request is not to be sent.  Asynchronous requests wait
+ * without holding a thread.
+ *
+ * <p>Responses with a "Retry-After" header (on a 429 or 503), or that report no remaining quota
+ * via "RateLimit-Remaining"/"X-RateLimit-Remaining" & the matching "Reset" header, pause their
+ * bucket until then.
+ */
+public class RateLimiter {
+
+    public enum Mode {
+        /**
+         * Wait up to {@link #getMaxWait()} for a permit
+         */
+        BLOCK,
+        /**
+         * Never wait for a permit
+         */
+        FAIL_FAST
+    }
+
+    private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L;
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "http-rate-limiter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongSupplier nanoClock;
+    private final List<Tuple2<String, TokenBucket>> prefixLimits = new CopyOnWriteArrayList<>();
+    private final Map<String, TokenBucket> hostLimits = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> defaultLimits = new ConcurrentHashMap<>();
+
+    private Mode mode = Mode.BLOCK;
+    private Duration maxWait = Duration.ofSeconds(10);
+    private double defaultPermitsPerSecond;
+    private int defaultBurst;
+    private boolean adaptingToResponseHeaders = true;
+
+    public RateLimiter() {
+        this(System::nanoTime);
+    }
+
+    RateLimiter(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Limits requests to 'host' to 'permitsPerSecond', allowing bursts of up to 'burst' requests.
+     */
+    public RateLimiter limitHost(String host, double permitsPerSecond, int burst) {
+        hostLimits.put(host, new TokenBucket(permitsPerSecond, burst, nanoClock));
+        return this;
+    }
+
+    /**
+     * Limits requests to URLs starting with 'urlPrefix' (e.g. "https://example.com/search") to
+     * 'permitsPerSecond', allowing bursts of up to 'burst' requests.
+     */
+    public RateLimiter limitUrlPrefix(String urlPrefix, double permitsPerSecond, int burst) {
+        prefixLimits.add(Tuple.of(urlPrefix, new TokenBucket(permitsPerSecond, burst, nanoClock)));
+        return this;
+    }
+
+    /**
+     * Limits requests to every host without a more specific limit to 'permitsPerSecond' per host,
+     * allowing bursts of up to 'burst' requests.
+     */
+    public RateLimiter setDefaultLimit(double permitsPerSecond, int burst) {
+        TokenBucket.validate(permitsPerSecond, burst);
+
+        this.defaultPermitsPerSecond = permitsPerSecond;
+        this.defaultBurst = burst;
+        defaultLimits.clear();
+        return this;
+    }
+
+    /**
+     * Takes a permit for 'request', waiting for one according to {@link #getMode()}.
+     *
+     * @throws RateLimitExceededException if no permit is available in time; the request should
+     *                                    not be sent.
+     */
+    public void acquire(Request request) throws RateLimitExceededException {
+        TokenBucket bucket = bucketFor(request.url());
+        if (bucket == null) return;
+
+        long waitNanos = reserve(bucket, request);
+        if (waitNanos == 0) return;
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RateLimitExceededException(request, Duration.ofNanos(waitNanos));
+        }
+    }
+
+    /**
+     * Takes a permit for 'request' like {@link #acquire(Request)}, but without blocking.
+     *
+     * @return a future that completes once the request may be sent, or completes exceptionally
+     * with a {@link RateLimitExceededException} if it should not be sent
+     */
+    public CompletableFuture<Void> acquireAsync(Request request) {
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        TokenBucket bucket = bucketFor(request.url());
+
+        try {
+            long waitNanos = bucket == null ? 0 : reserve(bucket, request);
+
+            if (waitNanos == 0) {
+                permit.complete(null);
+            } else {
+                scheduler.schedule(() -> permit.complete(null), waitNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (RateLimitExceededException exception) {
+            permit.completeExceptionally(exception);
+        }
+
+        return permit;
+    }
+
+    /**
+     * Takes a permit for 'request' if one is available right now, regardless of {@link
+     * #getMode()}.
+     */
+    public boolean tryAcquire(Request request) {
+        TokenBucket bucket = bucketFor(request.url());
+
+        return bucket == null || bucket.reserve(0) == 0;
+    }
+
+    /**
+     * Pauses the bucket of the response's request if the response asks the client to back off,
+     * see {@link RateLimiter}.
+     */
+    public void onResponse(Response response) {
+        if (!adaptingToResponseHeaders) return;
+
+        long pauseMillis = pauseMillisRequestedBy(response, System.currentTimeMillis());
+        if (pauseMillis <= 0) return;
+
+        TokenBucket bucket = bucketFor(response.request().url());
+        if (bucket != null) {
+            bucket.pauseUntil(nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(pauseMillis));
+        }
+    }
+
+    /**
+     * @return the number of requests to 'url' that can be sent right now without waiting, or
+     * {@link Integer#MAX_VALUE} if they are not limited
+     */
+    public int getAvailablePermits(HttpUrl url) {
+        TokenBucket bucket = bucketFor(url);
+
+        return bucket == null ? Integer.MAX_VALUE : bucket.availablePermits();
+    }
+
+    private long reserve(TokenBucket bucket, Request request) throws RateLimitExceededException {
+        long maxWaitNanos = mode == Mode.FAIL_FAST ? 0 : maxWait.toNanos();
+        long waitNanos = bucket.reserve(maxWaitNanos);
+
+        if (waitNanos < 0) {
+            throw new RateLimitExceededException(request, Duration.ofNanos(bucket.nanosUntilAvailable()));
+        }
+
+        return waitNanos;
+    }
+
+    private TokenBucket bucketFor(HttpUrl url) {
+        if (!prefixLimits.isEmpty()) {
+            String urlString = url.toString();
+            Tuple2<String, TokenBucket> longestMatch = null;
+
+            for (Tuple2<String, TokenBucket> prefixLimit : prefixLimits) {
+                if (urlString.startsWith(prefixLimit._1) && (longestMatch == null || prefixLimit._1.length() > longestMatch._1.length())) {
+                    longestMatch = prefixLimit;
+                }
+            }
+
+            if (longestMatch != null) return longestMatch._2;
+        }
+
+        TokenBucket bucket = hostLimits.get(url.host());
+        if (bucket != null || defaultBurst == 0) {
+            return bucket;
+        }
+
+        return defaultLimits.computeIfAbsent(url.host(), host -> new TokenBucket(defaultPermitsPerSecond, defaultBurst, nanoClock));
+    }
+
+    /**
+     * @return how long 'response' asks the client to wait before sending another request, or 0
+     */
+    static long pauseMillisRequestedBy(Response response, long nowMillis) {
+        if (response.code() == 429 || response.code() == 503) {
+            String retryAfter = response.header("Retry-After");
+
+            if (retryAfter != null) {
+                Long retryAfterSeconds = parseSeconds(retryAfter);
+                if (retryAfterSeconds != null) {
+                    return retryAfterSeconds * 1000;
+                }
+
+                Date retryAt = response.headers().getDate("Retry-After");
+                if (retryAt != null) {
+                    return retryAt.getTime() - nowMillis;
+                }
+            }
+        }
+
+        Long remaining = parseSeconds(headerOf(response, "RateLimit-Remaining", "X-RateLimit-Remaining"));
+        Long reset = parseSeconds(headerOf(response, "RateLimit-Reset", "X-RateLimit-Reset"));
+
+        if (remaining != null && remaining == 0 && reset != null) {
+            // Some webservices send the reset as a Unix Epoch rather than a number of seconds
+            return reset >= EPOCH_SECONDS_THRESHOLD ? reset * 1000 - nowMillis : reset * 1000;
+        }
+
+        return 0;
+    }
+
+    private static String headerOf(Response response, String name, String alternativeName) {
+        String value = response.header(name);
+
+        return value == null ? response.header(alternativeName) : value;
+    }
+
+    private static Long parseSeconds(String value) {
+        if (value == null) return null;
+
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public RateLimiter setMode(Mode mode) {
+        this.mode = mode;
+        return this;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    /**
+     * @param maxWait the longest a request waits for a permit in {@link Mode#BLOCK}
+     */
+    public RateLimiter setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+        return this;
+    }
+
+    public boolean isAdaptingToResponseHeaders() {
+        return adaptingToResponseHeaders;
+    }
+
+    public RateLimiter setAdaptingToResponseHeaders(boolean adaptingToResponseHeaders) {
+        this.adaptingToResponseHeaders = adaptingToResponseHeaders;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("mode", mode)
+                .append("maxWait", maxWait)
+                .append("prefixLimits", prefixLimits)
+                .append("hostLimits", hostLimits)
+                .append("defaultLimits", defaultLimits)
+                .toString();
+    }
+}
@@ -0,0 +1,113 @@
+package te.http.handling.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A lock-free token bucket, implemented as a "generic cell rate algorithm": rather than counting
+ * tokens it tracks the time at which the bucket would next be empty, so taking a permit is a
+ * single compare-and-set.
+ *
+ * <p>A permit may be reserved ahead of time, in which case the caller is told how long to wait
+ * before using it; this keeps waiting callers in a fair, first-come first-served order.
+ */
+class TokenBucket {
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong emptyAtNanos;
+
+    TokenBucket(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        validate(permitsPerSecond, burst);
+
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstNanos = intervalNanos * burst;
+        this.nanoClock = nanoClock;
+        this.emptyAtNanos = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    static void validate(double permitsPerSecond, int burst) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("Permits per second must be positive but was " + permitsPerSecond);
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("Burst must be at least 1 but was " + burst);
+        }
+    }
+
+    /**
+     * Reserves a permit if one is available within 'maxWaitNanos'.
+     *
+     * @return how many nanoseconds to wait before using the reserved permit, or -1 if no permit
+     * was reserved
+     */
+    long reserve(long maxWaitNanos) {
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long emptyAt = emptyAtNanos.get();
+            long newEmptyAt = later(emptyAt, now) + intervalNanos;
+            long waitNanos = Math.max(0, newEmptyAt - burstNanos - now);
+
+            if (waitNanos > maxWaitNanos) {
+                return -1;
+            }
+            if (emptyAtNanos.compareAndSet(emptyAt, newEmptyAt)) {
+                return waitNanos;
+            }
+        }
+    }
+
+    /**
+     * @return how many nanoseconds until a permit would be available without waiting
+     */
+    long nanosUntilAvailable() {
+        long now = nanoClock.getAsLong();
+
+        return Math.max(0, later(emptyAtNanos.get(), now) + intervalNanos - burstNanos - now);
+    }
+
+    /**
+     * @return the number of permits that can be taken right now without waiting
+     */
+    int availablePermits() {
+        long now = nanoClock.getAsLong();
+        long backlogNanos = Math.max(0, emptyAtNanos.get() - now);
+
+        return (int) Math.max(0, (burstNanos - backlogNanos) / intervalNanos);
+    }
+
+    /**
+     * Ensures no permit is handed out before 'resumeAtNanos'; from then on permits are handed out
+     * at the configured rate, starting with an empty bucket.
+     */
+    void pauseUntil(long resumeAtNanos) {
+        long emptyAt = resumeAtNanos + burstNanos - intervalNanos;
+
+        emptyAtNanos.accumulateAndGet(emptyAt, TokenBucket::later);
+    }
+
+    double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    int getBurst() {
+        return burst;
+    }
+
+    /**
+     * Compares by difference rather than value, as {@link System#nanoTime()} may overflow.
+     */
+    private static long later(long nanos, long otherNanos) {
+        return nanos - otherNanos > 0 ? nanos : otherNanos;
+    }
+
+    @Override
+    public String toString() {
+        return permitsPerSecond + "/s (burst " + burst + ", " + availablePermits() + " available)";
+    }
+}
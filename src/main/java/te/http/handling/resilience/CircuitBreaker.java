@@ -0,0 +1,149 @@
+package te.http.handling.resilience;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import okhttp3.HttpUrl;
+
+/**
+ * A per-host circuit breaker.  After 'failureThreshold' consecutive failures to a host its
+ * circuit opens and requests to it fail fast, without using a socket, for 'openDuration'.  Then a
+ * single trial request is let through (half-open): if it succeeds the circuit closes, otherwise
+ * it opens again.  A trial whose outcome is not recorded within 'openDuration' is presumed lost,
+ * and another trial is let through.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final LongSupplier nanoClock;
+    private final Map<String, HostCircuit> circuits = new ConcurrentHashMap<>();
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return a circuit breaker that opens for 30 seconds after 5 consecutive failures
+     */
+    public static CircuitBreaker ofDefaults() {
+        return new CircuitBreaker(5, Duration.ofSeconds(30));
+    }
+
+    /**
+     * @return whether or not a request to 'url' may be sent
+     */
+    public boolean tryAcquire(HttpUrl url) {
+        return circuitFor(url).tryAcquire();
+    }
+
+    /**
+     * Hands back a permit from {@link #tryAcquire(HttpUrl)} that was not used, e.g. because the
+     * request was rate limited, so a half-open circuit lets another trial through.
+     */
+    public void release(HttpUrl url) {
+        circuitFor(url).release();
+    }
+
+    public void onSuccess(HttpUrl url) {
+        circuitFor(url).onSuccess();
+    }
+
+    public void onFailure(HttpUrl url) {
+        circuitFor(url).onFailure();
+    }
+
+    public State getState(HttpUrl url) {
+        return circuitFor(url).getState();
+    }
+
+    private HostCircuit circuitFor(HttpUrl url) {
+        return circuits.computeIfAbsent(url.host() + ":" + url.port(), host -> new HostCircuit());
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("failureThreshold", failureThreshold)
+                .append("openDuration", openDuration)
+                .append("circuits", circuits)
+                .toString();
+    }
+
+    private class HostCircuit {
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAtNanos;
+        private long trialStartedAtNanos;
+        private boolean isTrialInFlight;
+
+        synchronized boolean tryAcquire() {
+            long nowNanos = nanoClock.getAsLong();
+
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (nowNanos - openedAtNanos >= openDuration.toNanos()) {
+                        state = State.HALF_OPEN;
+                        return startTrial(nowNanos);
+                    }
+                    return false;
+                default:
+                    // Only the single trial request is allowed while half-open, unless it was lost
+                    if (!isTrialInFlight || nowNanos - trialStartedAtNanos >= openDuration.toNanos()) {
+                        return startTrial(nowNanos);
+                    }
+                    return false;
+            }
+        }
+
+        synchronized void release() {
+            isTrialInFlight = false;
+        }
+
+        synchronized void onSuccess() {
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            isTrialInFlight = false;
+        }
+
+        synchronized void onFailure() {
+            consecutiveFailures++;
+            isTrialInFlight = false;
+
+            if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                state = State.OPEN;
+                openedAtNanos = nanoClock.getAsLong();
+            }
+        }
+
+        private boolean startTrial(long nowNanos) {
+            trialStartedAtNanos = nowNanos;
+            isTrialInFlight = true;
+
+            return true;
+        }
+
+        synchronized State getState() {
+            return state;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return state + " (" + consecutiveFailures + " consecutive failures)";
+        }
+    }
+}
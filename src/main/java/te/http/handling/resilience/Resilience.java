@@ -0,0 +1,225 @@
+package te.http.handling.resilience;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import javax.annotation.Nullable;
+
+import okhttp3.Request;
+import te.http.handling.HttpResponse;
+import te.http.handling.RequestExecutor;
+import te.http.handling.StreamingHttpResponse;
+import te.http.handling.StreamingRequestExecutor;
+import te.http.handling.error.exceptions.CircuitBreakerOpenException;
+import te.http.handling.error.exceptions.HttpClientException;
+import te.http.handling.error.exceptions.HttpServerException;
+import te.http.handling.error.exceptions.NoResponseException;
+
+/**
+ * Executes requests according to a {@link RetryPolicy}, spending retries from an optional {@link
+ * RetryBudget} and failing fast, without sending the request, while the optional {@link
+ * CircuitBreaker} for the request's host is open.
+ *
+ * <p>Failures to reach the webservice, 500 level responses and any unexpected exception count as
+ * failures towards the circuit breaker; every other response counts as a success.  Requests that
+ * a {@link te.http.handling.ratelimit.RateLimiter}, {@link
+ * te.http.handling.concurrency.AdaptiveConcurrencyLimiter} or bulkhead did not let through count
+ * as neither, hand their circuit breaker permit back (e.g. a half-open circuit's trial), and are
+ * not retried.
+ */
+public class Resilience {
+
+    private final RetryPolicy retryPolicy;
+    private final RetryBudget retryBudget;
+    private final CircuitBreaker circuitBreaker;
+
+    public Resilience(RetryPolicy retryPolicy, @Nullable RetryBudget retryBudget, @Nullable CircuitBreaker circuitBreaker) {
+        this.retryPolicy = retryPolicy;
+        this.retryBudget = retryBudget;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * @return the default {@link RetryPolicy}, {@link RetryBudget} and {@link CircuitBreaker}
+     */
+    public static Resilience ofDefaults() {
+        return new Resilience(new RetryPolicy(), RetryBudget.ofDefaults(), CircuitBreaker.ofDefaults());
+    }
+
+    /**
+     * @throws CircuitBreakerOpenException if the circuit breaker for the request's host is open
+     */
+    public HttpResponse execute(Request request, RequestExecutor executor) throws HttpClientException, HttpServerException, NoResponseException {
+        return execute(request, executor::execute, HttpResponse::getStatusCode, response -> {});
+    }
+
+    /**
+     * Version of {@link #execute(Request, RequestExecutor)} for responses whose body is streamed;
+     * responses that are retried are closed.
+     *
+     * @throws CircuitBreakerOpenException if the circuit breaker for the request's host is open
+     */
+    public StreamingHttpResponse executeStreaming(Request request, StreamingRequestExecutor executor) throws HttpClientException, HttpServerException, NoResponseException {
+        return execute(request, executor::execute, StreamingHttpResponse::getStatusCode, StreamingHttpResponse::close);
+    }
+
+    private <T> T execute(Request request, Attempt<T> executor, ToIntFunction<T> statusCode, Consumer<T> discard) throws HttpClientException, HttpServerException, NoResponseException {
+        if (retryBudget != null) {
+            retryBudget.recordRequest();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            if (circuitBreaker != null && !circuitBreaker.tryAcquire(request.url())) {
+                throw new CircuitBreakerOpenException(request);
+            }
+
+            T response;
+            try {
+                response = attempt(request, executor);
+            } catch (HttpClientException | HttpServerException | NoResponseException exception) {
+                if (NoResponseException.isNotSent(exception)) {
+                    releasePermit(request);
+                    throw exception;
+                }
+
+                recordOutcome(request, exception instanceof HttpClientException);
+
+                if (!retryPolicy.shouldRetry(request, exception, attempt) || !awaitRetry(attempt)) {
+                    throw exception;
+                }
+                continue;
+            }
+
+            recordOutcome(request, statusCode.applyAsInt(response) < 500);
+
+            if (!retryPolicy.shouldRetry(request, statusCode.applyAsInt(response), attempt) || !awaitRetry(attempt)) {
+                return response;
+            }
+            discard.accept(response);
+        }
+    }
+
+    /**
+     * Asynchronous version of {@link #execute(Request, RequestExecutor)} that only applies the
+     * circuit breaker: the request is not retried, as waiting out a backoff would hold a thread.
+     *
+     * @return a future that completes exceptionally with a {@link CircuitBreakerOpenException} if
+     * the circuit breaker for the request's host is open; cancelling it cancels the attempt
+     */
+    public CompletableFuture<HttpResponse> executeAsync(Request request, Function<Request, CompletableFuture<HttpResponse>> executor) {
+        if (circuitBreaker != null && !circuitBreaker.tryAcquire(request.url())) {
+            CompletableFuture<HttpResponse> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new CircuitBreakerOpenException(request));
+
+            return rejected;
+        }
+
+        CompletableFuture<HttpResponse> attempt = executor.apply(request);
+        attempt.whenComplete((response, exception) -> {
+            Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+
+            if (cause == null) {
+                recordOutcome(request, response.getStatusCode() < 500);
+            } else if (NoResponseException.isNotSent(cause) || cause instanceof CancellationException) {
+                releasePermit(request);
+            } else {
+                recordOutcome(request, cause instanceof HttpClientException);
+            }
+        });
+
+        return attempt;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    @Nullable
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    @Nullable
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Executes a single attempt, recording a failure if it throws an exception the caller does not
+     * classify, e.g. a {@link RuntimeException}, so a half-open circuit is not left waiting on it.
+     */
+    private <T> T attempt(Request request, Attempt<T> executor) throws HttpClientException, HttpServerException, NoResponseException {
+        boolean isUnclassified = true;
+        try {
+            T response = executor.execute(request);
+            isUnclassified = false;
+
+            return response;
+        } catch (HttpClientException | HttpServerException | NoResponseException exception) {
+            isUnclassified = false;
+            throw exception;
+        } finally {
+            if (isUnclassified) {
+                recordOutcome(request, false);
+            }
+        }
+    }
+
+    /**
+     * Hands the circuit breaker's permit back for a request that was not sent.
+     */
+    private void releasePermit(Request request) {
+        if (circuitBreaker != null) {
+            circuitBreaker.release(request.url());
+        }
+    }
+
+    private void recordOutcome(Request request, boolean isSuccess) {
+        if (circuitBreaker == null) return;
+
+        if (isSuccess) {
+            circuitBreaker.onSuccess(request.url());
+        } else {
+            circuitBreaker.onFailure(request.url());
+        }
+    }
+
+    /**
+     * @return whether or not a retry may be attempted, after having waited for its backoff
+     */
+    private boolean awaitRetry(int attempt) {
+        if (retryBudget != null && !retryBudget.tryAcquireRetry()) {
+            return false;
+        }
+
+        Duration backoff = retryPolicy.backoffBefore(attempt);
+        try {
+            Thread.sleep(backoff.toMillis());
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("retryPolicy", retryPolicy)
+                .append("retryBudget", retryBudget)
+                .append("circuitBreaker", circuitBreaker)
+                .toString();
+    }
+
+    @FunctionalInterface
+    private interface Attempt<T> {
+        T execute(Request request) throws HttpClientException, HttpServerException, NoResponseException;
+    }
+}
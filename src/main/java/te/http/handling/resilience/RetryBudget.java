@@ -0,0 +1,96 @@
+package te.http.handling.resilience;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries to a percentage of overall traffic so retries cannot amplify load on a degraded
+ * webservice.
+ *
+ * <p>Every request deposits 'retryRatio' of a token, and every retry withdraws a whole token; so
+ * with a ratio of 0.1 at most 1 retry is allowed per 10 requests.  A small reserve of tokens
+ * allows retries when traffic is low.  Balances are capped so a long healthy period cannot bank
+ * an unbounded burst of retries.
+ */
+public class RetryBudget {
+    private static final long TOKEN = 1_000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong rejectedRetryCount = new AtomicLong();
+
+    /**
+     * @param retryRatio   the fraction (0.0 - 1.0) of requests that may be retries
+     * @param reserve      the number of retries allowed regardless of traffic
+     */
+    public RetryBudget(double retryRatio, int reserve) {
+        if (retryRatio < 0 || retryRatio > 1) {
+            throw new IllegalArgumentException("Retry ratio must be between 0 and 1 but was " + retryRatio);
+        }
+
+        this.depositPerRequest = (long) (retryRatio * TOKEN);
+        this.maxBalance = Math.max(reserve, 1) * TOKEN * 10;
+        this.balance = new AtomicLong(reserve * TOKEN);
+    }
+
+    /**
+     * @return a budget allowing retries for 20% of requests, with a reserve of 10 retries
+     */
+    public static RetryBudget ofDefaults() {
+        return new RetryBudget(0.2, 10);
+    }
+
+    /**
+     * Records an original (non-retry) request.
+     */
+    public void recordRequest() {
+        requestCount.incrementAndGet();
+        balance.accumulateAndGet(depositPerRequest, (current, deposit) -> Math.min(current + deposit, maxBalance));
+    }
+
+    /**
+     * @return whether or not a retry is allowed; if so it is withdrawn from the budget
+     */
+    public boolean tryAcquireRetry() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                rejectedRetryCount.incrementAndGet();
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+
+        retryCount.incrementAndGet();
+        return true;
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * @return the number of retries that were not attempted because the budget was exhausted
+     */
+    public long getRejectedRetryCount() {
+        return rejectedRetryCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("balance", balance.get() / (double) TOKEN)
+                .append("requests", getRequestCount())
+                .append("retries", getRetryCount())
+                .append("rejectedRetries", getRejectedRetryCount())
+                .toString();
+    }
+}
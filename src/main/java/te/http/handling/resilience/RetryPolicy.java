@@ -0,0 +1,215 @@
+package te.http.handling.resilience;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import okhttp3.Request;
+import te.http.handling.HttpResponse;
+import te.http.handling.error.exceptions.HttpClientException;
+import te.http.handling.error.exceptions.HttpServerException;
+import te.http.handling.error.exceptions.NoResponseException;
+
+/**
+ * Decides which failed requests are retried and how long to wait before each retry.
+ *
+ * <p>By default a request is attempted up to 3 times, retrying connect timeouts & other failures
+ * to reach the webservice, and 502, 503 and 504 responses.  Read timeouts are not retried since
+ * the webservice may still be working on the request.  Backoff is exponential with "full jitter",
+ * i.e. a random delay between zero and the exponential backoff for that attempt.
+ *
+ * <p>Only idempotent requests (GET, HEAD, PUT, DELETE, OPTIONS) are retried unless {@link
+ * #setRetryNonIdempotentRequests(boolean)} is enabled, except for connect timeouts since those
+ * requests never reached the webservice.
+ */
+public class RetryPolicy {
+    private static final Set<String> IDEMPOTENT_METHODS = new HashSet<>(Arrays.asList("GET", "HEAD", "PUT", "DELETE", "OPTIONS"));
+
+    private int maxAttempts = 3;
+    private Duration initialBackoff = Duration.ofMillis(100);
+    private Duration maxBackoff = Duration.ofSeconds(5);
+    private double backoffMultiplier = 2;
+    private boolean retryOnConnectTimeout = true;
+    private boolean retryOnReadTimeout = false;
+    private boolean retryOnNoResponse = true;
+    private boolean retryNonIdempotentRequests = false;
+    private Set<Integer> retryableStatusCodes = new HashSet<>(Arrays.asList(502, 503, 504));
+
+    /**
+     * @return whether or not the request that failed with 'exception' on attempt number 'attempt'
+     * (starting at 1) should be retried
+     */
+    public boolean shouldRetry(Request request, Exception exception, int attempt) {
+        if (attempt >= maxAttempts || NoResponseException.isNotSent(exception)) {
+            return false;
+        }
+
+        if (exception instanceof NoResponseException) {
+            NoResponseException noResponse = (NoResponseException) exception;
+
+            if (noResponse.isConnectTimeout()) return retryOnConnectTimeout;
+            if (!isRetryable(request)) return false;
+            if (isReadTimeout(noResponse)) return retryOnReadTimeout;
+
+            return retryOnNoResponse;
+        }
+
+        if (exception instanceof HttpServerException) {
+            return shouldRetry(request, ((HttpServerException) exception).getHttpResponse(), attempt);
+        }
+
+        if (exception instanceof HttpClientException) {
+            return shouldRetry(request, ((HttpClientException) exception).getHttpResponse(), attempt);
+        }
+
+        return false;
+    }
+
+    /**
+     * @return whether or not the request that received 'response' on attempt number 'attempt'
+     * (starting at 1) should be retried, based on the response's status code
+     */
+    public boolean shouldRetry(Request request, HttpResponse response, int attempt) {
+        return response != null && shouldRetry(request, response.getStatusCode(), attempt);
+    }
+
+    boolean shouldRetry(Request request, int statusCode, int attempt) {
+        return attempt < maxAttempts
+                && retryableStatusCodes.contains(statusCode)
+                && isRetryable(request);
+    }
+
+    /**
+     * @return how long to wait before attempt number 'attempt' + 1
+     */
+    public Duration backoffBefore(int attempt) {
+        double exponentialMillis = initialBackoff.toMillis() * Math.pow(backoffMultiplier, attempt - 1);
+        long cappedMillis = (long) Math.min(exponentialMillis, maxBackoff.toMillis());
+
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(cappedMillis + 1));
+    }
+
+    /**
+     * Any timeout that is not a connect timeout is treated as a read timeout, since OkHttp reports
+     * some read timeouts (e.g. on HTTP/2) without the "Read timed out" message.
+     */
+    private static boolean isReadTimeout(NoResponseException exception) {
+        return exception.isReadTimeout() || exception.getRootCause() instanceof SocketTimeoutException;
+    }
+
+    private boolean isRetryable(Request request) {
+        return retryNonIdempotentRequests || IDEMPOTENT_METHODS.contains(request.method());
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param maxAttempts the maximum number of attempts, including the first; 1 disables retries
+     */
+    public RetryPolicy setMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be at least 1 but was " + maxAttempts);
+        }
+
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public RetryPolicy setInitialBackoff(Duration initialBackoff) {
+        this.initialBackoff = initialBackoff;
+        return this;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public RetryPolicy setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+        return this;
+    }
+
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    public RetryPolicy setBackoffMultiplier(double backoffMultiplier) {
+        this.backoffMultiplier = backoffMultiplier;
+        return this;
+    }
+
+    public boolean isRetryOnConnectTimeout() {
+        return retryOnConnectTimeout;
+    }
+
+    public RetryPolicy setRetryOnConnectTimeout(boolean retryOnConnectTimeout) {
+        this.retryOnConnectTimeout = retryOnConnectTimeout;
+        return this;
+    }
+
+    public boolean isRetryOnReadTimeout() {
+        return retryOnReadTimeout;
+    }
+
+    public RetryPolicy setRetryOnReadTimeout(boolean retryOnReadTimeout) {
+        this.retryOnReadTimeout = retryOnReadTimeout;
+        return this;
+    }
+
+    public boolean isRetryOnNoResponse() {
+        return retryOnNoResponse;
+    }
+
+    /**
+     * @param retryOnNoResponse whether or not to retry {@link NoResponseException}s that are not
+     *                          timeouts, e.g. connection resets
+     */
+    public RetryPolicy setRetryOnNoResponse(boolean retryOnNoResponse) {
+        this.retryOnNoResponse = retryOnNoResponse;
+        return this;
+    }
+
+    public boolean isRetryNonIdempotentRequests() {
+        return retryNonIdempotentRequests;
+    }
+
+    public RetryPolicy setRetryNonIdempotentRequests(boolean retryNonIdempotentRequests) {
+        this.retryNonIdempotentRequests = retryNonIdempotentRequests;
+        return this;
+    }
+
+    public Set<Integer> getRetryableStatusCodes() {
+        return retryableStatusCodes;
+    }
+
+    public RetryPolicy setRetryableStatusCodes(Integer... retryableStatusCodes) {
+        this.retryableStatusCodes = new HashSet<>(Arrays.asList(retryableStatusCodes));
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("maxAttempts", maxAttempts)
+                .append("initialBackoff", initialBackoff)
+                .append("maxBackoff", maxBackoff)
+                .append("backoffMultiplier", backoffMultiplier)
+                .append("retryOnConnectTimeout", retryOnConnectTimeout)
+                .append("retryOnReadTimeout", retryOnReadTimeout)
+                .append("retryOnNoResponse", retryOnNoResponse)
+                .append("retryNonIdempotentRequests", retryNonIdempotentRequests)
+                .append("retryableStatusCodes", retryableStatusCodes)
+                .toString();
+    }
+}
@@ -0,0 +1,20 @@
+package te.http.handling.serialization;
+
+import java.util.Date;
+
+import te.http.handling.deserialization.JavaDateDeserializer;
+
+import static org.apache.commons.lang3.time.DateFormatUtils.ISO_8601_EXTENDED_DATE_FORMAT;
+
+public class JavaDateTypeAdapter extends MultiFormatDateTypeAdapter<Date> {
+
+    public JavaDateTypeAdapter() {
+        super(Date.class, new JavaDateDeserializer());
+    }
+
+    @Override
+    protected String format(Date src) {
+        return ISO_8601_EXTENDED_DATE_FORMAT.format(src);
+    }
+
+}
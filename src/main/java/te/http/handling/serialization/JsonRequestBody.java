@@ -0,0 +1,117 @@
+package te.http.handling.serialization;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * A {@link RequestBody} that serializes an object to JSON via {@link Gson} directly into OkHttp's
+ * {@link BufferedSink} as the request is written, so no intermediate {@link String} or byte array
+ * of the whole payload is ever built.
+ *
+ * <p>Since the length of the JSON is not known up front the request is sent using chunked
+ * transfer encoding.  The object is serialized each time the body is written, so the body can be
+ * retried.
+ */
+public class JsonRequestBody extends RequestBody {
+    private static final MediaType applicationJSON = MediaType.parse("application/json; charset=utf-8");
+
+    private final Gson gson;
+    private final Object content;
+
+    public JsonRequestBody(Gson gson, Object content) {
+        this.gson = gson;
+        this.content = content;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return applicationJSON;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        Writer writer = new Utf8SinkWriter(sink);
+        gson.toJson(content, writer);
+        writer.close();
+    }
+
+    /**
+     * A {@link Writer} that UTF-8 encodes characters straight into a {@link BufferedSink}.
+     */
+    static class Utf8SinkWriter extends Writer {
+        private final BufferedSink sink;
+        private char pendingHighSurrogate;
+
+        Utf8SinkWriter(BufferedSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void write(String string, int offset, int length) throws IOException {
+            if (pendingHighSurrogate != 0 || length == 0) {
+                super.write(string, offset, length);
+                return;
+            }
+
+            int end = offset + length;
+            if (Character.isHighSurrogate(string.charAt(end - 1))) {
+                sink.writeUtf8(string, offset, end - 1);
+                write(string.charAt(end - 1));
+            } else {
+                sink.writeUtf8(string, offset, end);
+            }
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                write(chars[i]);
+            }
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            char character = (char) c;
+
+            if (pendingHighSurrogate != 0) {
+                char highSurrogate = pendingHighSurrogate;
+                pendingHighSurrogate = 0;
+
+                if (Character.isLowSurrogate(character)) {
+                    sink.writeUtf8CodePoint(Character.toCodePoint(highSurrogate, character));
+                    return;
+                }
+                sink.writeUtf8CodePoint('?');
+            }
+
+            if (Character.isHighSurrogate(character)) {
+                pendingHighSurrogate = character;
+            } else {
+                sink.writeUtf8CodePoint(character);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            sink.emit();
+        }
+
+        /**
+         * Flushes any pending characters, leaving the underlying {@link BufferedSink} open.
+         */
+        @Override
+        public void close() throws IOException {
+            if (pendingHighSurrogate != 0) {
+                pendingHighSurrogate = 0;
+                sink.writeUtf8CodePoint('?');
+            }
+            flush();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package te.http.handling.serialization;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import te.http.handling.deserialization.LocalDateTimeDeserializer;
+
+public class LocalDateTimeTypeAdapter extends MultiFormatDateTypeAdapter<LocalDateTime> {
+
+    public LocalDateTimeTypeAdapter() {
+        super(LocalDateTime.class, new LocalDateTimeDeserializer());
+    }
+
+    @Override
+    protected String format(LocalDateTime src) {
+        return src.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+}
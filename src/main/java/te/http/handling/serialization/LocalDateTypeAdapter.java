@@ -0,0 +1,18 @@
+package te.http.handling.serialization;
+
+import java.time.LocalDate;
+
+import te.http.handling.deserialization.LocalDateDeserializer;
+
+public class LocalDateTypeAdapter extends MultiFormatDateTypeAdapter<LocalDate> {
+
+    public LocalDateTypeAdapter() {
+        super(LocalDate.class, new LocalDateDeserializer());
+    }
+
+    @Override
+    protected String format(LocalDate src) {
+        return src.toString();
+    }
+
+}
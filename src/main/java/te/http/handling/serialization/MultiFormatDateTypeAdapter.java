@@ -0,0 +1,54 @@
+package te.http.handling.serialization;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import te.http.handling.deserialization.MultiFormatDateDeserializer;
+
+/**
+ * A streaming {@link TypeAdapter} that reads dates in every format supported by a {@link
+ * MultiFormatDateDeserializer} and writes them in ISO-8601.
+ *
+ * <p>Unlike a {@link com.google.gson.JsonSerializer}/{@link com.google.gson.JsonDeserializer}
+ * pair, this reads & writes directly on the {@link JsonReader}/{@link JsonWriter}, so Gson does
+ * not build an intermediate {@link com.google.gson.JsonElement} for every date.
+ */
+public abstract class MultiFormatDateTypeAdapter<T> extends TypeAdapter<T> {
+
+    private final Type type;
+    private final MultiFormatDateDeserializer<T> deserializer;
+
+    protected MultiFormatDateTypeAdapter(Type type, MultiFormatDateDeserializer<T> deserializer) {
+        this.type = type;
+        this.deserializer = deserializer;
+    }
+
+    /**
+     * @return 'src' formatted in ISO-8601
+     */
+    protected abstract String format(T src);
+
+    @Override
+    public void write(JsonWriter out, T value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(format(value));
+        }
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        return deserializer.parseDateString(in.nextString(), type);
+    }
+}
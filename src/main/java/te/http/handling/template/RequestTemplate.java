@@ -0,0 +1,228 @@
+package te.http.handling.template;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+
+/**
+ * A GET request whose URL & headers are parsed once, up front, and whose placeholders are bound
+ * per request, e.g. {@code "https://example.com/users/{userId}/orders?status={status}"}.
+ *
+ * <p>Path placeholders must be whole path segments and must be bound; query placeholders must be
+ * whole values and are omitted when not bound.  Query parameters keep their order in the template.
+ * Bound values are URL encoded.
+ *
+ * <p>Templates are immutable & thread-safe, so they are best kept in static fields.  Each request
+ * is built from a {@link Binding}, which is not thread-safe.
+ */
+public class RequestTemplate {
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{([^{}/]+)}");
+
+    private final String urlTemplate;
+    private final HttpUrl baseUrl;
+    private final Headers headers;
+    private final Map<String, Integer> slotsByName = new HashMap<>();
+    private final String[] slotNames;
+    private final int[] pathSegmentIndexes;
+    private final String[] queryNames;
+    private final String[] queryValues;
+    private final int[] querySlots;
+
+    private RequestTemplate(String urlTemplate, Headers headers) {
+        HttpUrl parsedUrl = HttpUrl.parse(urlTemplate);
+        if (parsedUrl == null) {
+            throw new IllegalArgumentException("Could not parse " + urlTemplate + " - URL appears to be malformed.");
+        }
+
+        List<String> names = new ArrayList<>();
+        List<Integer> segmentIndexes = new ArrayList<>();
+
+        List<String> pathSegments = parsedUrl.pathSegments();
+        for (int i = 0; i < pathSegments.size(); i++) {
+            String name = placeholderIn(pathSegments.get(i));
+            if (name != null) {
+                names.add(name);
+                segmentIndexes.add(i);
+            }
+        }
+
+        List<String> queryNames = new ArrayList<>();
+        List<String> queryValues = new ArrayList<>();
+        List<Integer> querySlots = new ArrayList<>();
+        for (int i = 0; i < parsedUrl.querySize(); i++) {
+            String name = placeholderIn(parsedUrl.queryParameterValue(i));
+            queryNames.add(parsedUrl.queryParameterName(i));
+
+            if (name != null) {
+                querySlots.add(names.size());
+                queryValues.add(null);
+                names.add(name);
+                segmentIndexes.add(-1);
+            } else {
+                querySlots.add(-1);
+                queryValues.add(parsedUrl.queryParameterValue(i));
+            }
+        }
+
+        this.urlTemplate = urlTemplate;
+        this.baseUrl = parsedUrl.newBuilder().query(null).build();
+        this.headers = headers;
+        this.slotNames = names.toArray(new String[0]);
+        this.pathSegmentIndexes = segmentIndexes.stream().mapToInt(Integer::intValue).toArray();
+        this.queryNames = queryNames.toArray(new String[0]);
+        this.queryValues = queryValues.toArray(new String[0]);
+        this.querySlots = querySlots.stream().mapToInt(Integer::intValue).toArray();
+
+        for (int slot = 0; slot < slotNames.length; slot++) {
+            if (slotsByName.put(slotNames[slot], slot) != null) {
+                throw new IllegalArgumentException("Placeholder {" + slotNames[slot] + "} appears more than once in " + urlTemplate);
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if 'urlTemplate' is malformed
+     */
+    public static RequestTemplate compile(String urlTemplate, Headers headers) {
+        return new RequestTemplate(urlTemplate, headers);
+    }
+
+    /**
+     * @return a new {@link Binding} of this template's placeholders, for a single request
+     */
+    public Binding bind() {
+        return new Binding(this);
+    }
+
+    public String getUrlTemplate() {
+        return urlTemplate;
+    }
+
+    public Headers getHeaders() {
+        return headers;
+    }
+
+    @Nullable
+    private static String placeholderIn(@Nullable String value) {
+        if (value == null) return null;
+
+        Matcher matcher = PLACEHOLDER.matcher(value);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("urlTemplate", urlTemplate)
+                .append("placeholders", Arrays.toString(slotNames))
+                .toString();
+    }
+
+    /**
+     * The values bound to a {@link RequestTemplate}'s placeholders, along with any additional
+     * query parameters, for a single request.
+     */
+    public static class Binding {
+        private final RequestTemplate template;
+        private final String[] values;
+        private List<String> extraQueryParameters;
+
+        private Binding(RequestTemplate template) {
+            this.template = template;
+            this.values = new String[template.slotNames.length];
+        }
+
+        /**
+         * Binds 'value' to the placeholder {name}.
+         *
+         * @throws IllegalArgumentException if the template has no such placeholder
+         */
+        public Binding set(String name, @Nullable Object value) {
+            Integer slot = template.slotsByName.get(name);
+            if (slot == null) {
+                throw new IllegalArgumentException("No placeholder {" + name + "} in " + template.urlTemplate);
+            }
+
+            values[slot] = Objects.toString(value, "");
+            return this;
+        }
+
+        /**
+         * Adds a query parameter named 'name' for each of 'values', in addition to those of the
+         * template.
+         */
+        public Binding addQueryParameter(String name, Object... values) {
+            if (extraQueryParameters == null) {
+                extraQueryParameters = new ArrayList<>(values.length * 2);
+            }
+
+            for (Object value : values) {
+                extraQueryParameters.add(name);
+                extraQueryParameters.add(Objects.toString(value, ""));
+            }
+
+            return this;
+        }
+
+        /**
+         * @throws IllegalStateException if a path placeholder has not been bound
+         */
+        public HttpUrl buildUrl() {
+            HttpUrl.Builder url = template.baseUrl.newBuilder();
+
+            for (int slot = 0; slot < values.length; slot++) {
+                int pathSegmentIndex = template.pathSegmentIndexes[slot];
+
+                if (pathSegmentIndex >= 0) {
+                    if (values[slot] == null) {
+                        throw new IllegalStateException("No value bound to {" + template.slotNames[slot] + "} of " + template.urlTemplate);
+                    }
+                    url.setPathSegment(pathSegmentIndex, values[slot]);
+                }
+            }
+
+            // The query is rebuilt in template order, each placeholder replaced by its value
+            for (int i = 0; i < template.querySlots.length; i++) {
+                int slot = template.querySlots[i];
+
+                if (slot < 0) {
+                    url.addQueryParameter(template.queryNames[i], template.queryValues[i]);
+                } else if (values[slot] != null) {
+                    url.addQueryParameter(template.queryNames[i], values[slot]);
+                }
+            }
+
+            if (extraQueryParameters != null) {
+                for (int i = 0; i < extraQueryParameters.size(); i += 2) {
+                    url.addQueryParameter(extraQueryParameters.get(i), extraQueryParameters.get(i + 1));
+                }
+            }
+
+            return url.build();
+        }
+
+        /**
+         * @throws IllegalStateException if a path placeholder has not been bound
+         */
+        public Request build() {
+            return new Request.Builder()
+                    .url(buildUrl())
+                    .headers(template.headers)
+                    .get()
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package te.http.handling.upload;
+
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
+
+/**
+ * Wraps a {@link RequestBody}, reporting its {@link UploadProgress} to an {@link
+ * UploadProgressListener} as it is written: at most once per {@link #REPORT_INTERVAL_BYTES}, and
+ * once the whole body has been written.
+ *
+ * <p>The wrapped body is written exactly as it would be otherwise, so this can wrap any body,
+ * e.g. a {@link okhttp3.MultipartBody} of {@link StreamingRequestBody} parts.
+ */
+public class ProgressRequestBody extends RequestBody {
+    public static final long REPORT_INTERVAL_BYTES = 64 * 1024;
+
+    private final RequestBody delegate;
+    private final UploadProgressListener listener;
+
+    public ProgressRequestBody(RequestBody delegate, UploadProgressListener listener) {
+        this.delegate = delegate;
+        this.listener = listener;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return delegate.contentType();
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return delegate.contentLength();
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        CountingSink countingSink = new CountingSink(sink, contentLength());
+        BufferedSink bufferedSink = Okio.buffer(countingSink);
+
+        delegate.writeTo(bufferedSink);
+        bufferedSink.emit();
+
+        countingSink.reportCompletion();
+    }
+
+    private class CountingSink extends ForwardingSink {
+        private final long contentLength;
+        private final long startNanos = System.nanoTime();
+        private long bytesWritten;
+        private long reportedBytes;
+
+        CountingSink(BufferedSink sink, long contentLength) {
+            super(sink);
+            this.contentLength = contentLength;
+        }
+
+        @Override
+        public void write(Buffer source, long byteCount) throws IOException {
+            super.write(source, byteCount);
+            bytesWritten += byteCount;
+
+            if (bytesWritten - reportedBytes >= REPORT_INTERVAL_BYTES || bytesWritten == contentLength) {
+                report(contentLength);
+            }
+        }
+
+        /**
+         * Reports the final progress, unless it has already been reported; bodies of unknown
+         * length report the number of bytes written as their length.
+         */
+        void reportCompletion() {
+            if (contentLength < 0 || reportedBytes != bytesWritten || bytesWritten == 0) {
+                report(bytesWritten);
+            }
+        }
+
+        private void report(long length) {
+            reportedBytes = bytesWritten;
+            listener.onProgress(new UploadProgress(bytesWritten, length, System.nanoTime() - startNanos));
+        }
+    }
+}
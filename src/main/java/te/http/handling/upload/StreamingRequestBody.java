@@ -0,0 +1,155 @@
+package te.http.handling.upload;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import io.vavr.control.Try;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * A {@link RequestBody} that streams a file, or an {@link InputStream}, into OkHttp's {@link
+ * BufferedSink} as the request is written, so the content is never held in memory as a whole.
+ * Files are read via {@link FileChannel#transferTo(long, long,
+ * java.nio.channels.WritableByteChannel)} from an explicit position, leaving the channel's own
+ * position untouched.  This is not zero-copy: the sink is not a file or socket channel, so the
+ * bytes are still copied through a buffer into Okio's segments.
+ *
+ * <p>Bodies from a {@link Path}, a {@link FileChannel} or a supplier of {@link InputStream}s are
+ * repeatable, so requests using them can be retried; a body from a single {@link InputStream} can
+ * only be written once.
+ */
+public class StreamingRequestBody extends RequestBody {
+    private static final MediaType applicationOctetStream = MediaType.parse("application/octet-stream");
+
+    private final MediaType contentType;
+    private final long contentLength;
+    private final BodyWriter bodyWriter;
+
+    private StreamingRequestBody(MediaType contentType, long contentLength, BodyWriter bodyWriter) {
+        this.contentType = contentType;
+        this.contentLength = contentLength;
+        this.bodyWriter = bodyWriter;
+    }
+
+    /**
+     * @return a body of the content of 'file', whose length is fixed when this is called
+     * @throws UncheckedIOException if 'file' could not be read
+     */
+    public static StreamingRequestBody of(@Nullable MediaType contentType, Path file) {
+        long length;
+        try {
+            length = Files.size(file);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        return new StreamingRequestBody(contentType, length, sink -> {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                transfer(channel, 0, length, sink);
+            }
+        });
+    }
+
+    /**
+     * @return a body of the content of 'file' like {@link #of(MediaType, Path)}, whose Content-Type
+     * is probed from the file, defaulting to "application/octet-stream"
+     */
+    public static StreamingRequestBody of(Path file) {
+        return of(probeContentType(file), file);
+    }
+
+    /**
+     * @return a body of 'count' bytes of 'channel' from 'position'; the channel's own position is
+     * not changed, and it is not closed.
+     */
+    public static StreamingRequestBody of(@Nullable MediaType contentType, FileChannel channel, long position, long count) {
+        return new StreamingRequestBody(contentType, count, sink -> transfer(channel, position, count, sink));
+    }
+
+    /**
+     * @param inputStreams opens a new stream of the same content each time the body is written
+     * @param contentLength the length of the content, or -1 to send it using chunked transfer
+     *                      encoding
+     */
+    public static StreamingRequestBody of(@Nullable MediaType contentType, Supplier<InputStream> inputStreams, long contentLength) {
+        return new StreamingRequestBody(contentType, contentLength, sink -> {
+            try (Source source = Okio.source(inputStreams.get())) {
+                sink.writeAll(source);
+            }
+        });
+    }
+
+    /**
+     * @param contentLength the length of the content, or -1 to send it using chunked transfer
+     *                      encoding
+     * @return a body that can only be written once, so requests using it cannot be retried
+     */
+    public static StreamingRequestBody ofOneShot(@Nullable MediaType contentType, InputStream inputStream, long contentLength) {
+        AtomicBoolean isWritten = new AtomicBoolean();
+
+        return new StreamingRequestBody(contentType, contentLength, sink -> {
+            if (!isWritten.compareAndSet(false, true)) {
+                throw new IOException("The body of an InputStream can only be written once");
+            }
+
+            try (Source source = Okio.source(inputStream)) {
+                sink.writeAll(source);
+            }
+        });
+    }
+
+    private static MediaType probeContentType(Path file) {
+        String contentType = Try.of(() -> Files.probeContentType(file)).getOrNull();
+        MediaType mediaType = contentType == null ? null : MediaType.parse(contentType);
+
+        return mediaType == null ? applicationOctetStream : mediaType;
+    }
+
+    private static void transfer(FileChannel channel, long position, long count, BufferedSink sink) throws IOException {
+        long transferred = 0;
+
+        while (transferred < count) {
+            // Copies through a temporary buffer, as the sink is not a file or socket channel
+            long bytes = channel.transferTo(position + transferred, count - transferred, sink);
+            if (bytes <= 0) {
+                throw new EOFException("Expected " + count + " bytes but the file ended after " + transferred);
+            }
+
+            transferred += bytes;
+        }
+    }
+
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        bodyWriter.writeTo(sink);
+    }
+
+    @FunctionalInterface
+    private interface BodyWriter {
+        void writeTo(BufferedSink sink) throws IOException;
+    }
+}
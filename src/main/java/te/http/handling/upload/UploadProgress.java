@@ -0,0 +1,66 @@
+package te.http.handling.upload;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.time.Duration;
+
+/**
+ * How much of a request body has been written to the connection so far, and how fast.
+ */
+public class UploadProgress {
+    private final long bytesWritten;
+    private final long contentLength;
+    private final long elapsedNanos;
+
+    public UploadProgress(long bytesWritten, long contentLength, long elapsedNanos) {
+        this.bytesWritten = bytesWritten;
+        this.contentLength = contentLength;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * @return the length of the body, or -1 if it is not known up front
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public Duration getElapsed() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    /**
+     * @return the average throughput since the body started being written
+     */
+    public double getBytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytesWritten * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return the fraction of the body written, between 0 and 1, or NaN if the length of the body
+     * is not known
+     */
+    public double getFraction() {
+        if (contentLength < 0) return Double.NaN;
+
+        return contentLength == 0 ? 1 : (double) bytesWritten / contentLength;
+    }
+
+    public boolean isComplete() {
+        return bytesWritten == contentLength;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("bytesWritten", bytesWritten)
+                .append("contentLength", contentLength)
+                .append("elapsed", getElapsed())
+                .append("bytesPerSecond", getBytesPerSecond())
+                .toString();
+    }
+}
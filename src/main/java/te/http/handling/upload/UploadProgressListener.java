@@ -0,0 +1,13 @@
+package te.http.handling.upload;
+
+/**
+ * Receives the {@link UploadProgress} of a request body as it is written to the connection.
+ *
+ * <p>It is called on the thread writing the body, so must not block.  If the body is written
+ * more than once (e.g. when the request is retried) progress starts again from 0.
+ */
+@FunctionalInterface
+public interface UploadProgressListener {
+
+    void onProgress(UploadProgress progress);
+}
@@ -0,0 +1,184 @@
+package te.http.handling
+
+import org.junit.Rule
+import org.mockserver.junit.MockServerRule
+import org.mockserver.matchers.Times
+import spock.lang.Specification
+import te.http.handling.error.exceptions.HttpServerException
+import te.http.handling.resilience.RetryPolicy
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Duration
+
+import static org.mockserver.model.HttpRequest.request
+import static org.mockserver.model.HttpResponse.response
+
+class ChunkedDownloaderTest extends Specification {
+
+    @Rule
+    MockServerRule webServer = new MockServerRule(this, 8888)
+
+    String uri = '/large-file'
+    String url = "http://localhost:8888$uri"
+    String body = (0..<1000).collect { ('a'..'z')[it % 26] }.join()
+
+    HttpRequestHandling requestHandling = new HttpRequestHandling() {}
+    ChunkedDownloader downloader = new ChunkedDownloader(requestHandling)
+            .setChunkSize(256)
+            .setRetryPolicy(new RetryPolicy().setInitialBackoff(Duration.ofMillis(1)))
+
+    Path directory = Files.createTempDirectory("downloads")
+    Path target = directory.resolve("large-file.txt")
+
+    def "downloads each range into its offset of the file"() {
+        given:
+            respondToHEADWith("Accept-Ranges": "bytes", "Content-Length": "1000", "ETag": '"v1"')
+            respondToRanges()
+
+        when:
+            FileHttpResponse fileResponse = downloader.download(url, target)
+
+        then:
+            fileResponse.size == 1000
+            target.text == body
+
+        and: 'each range was requested once, conditionally on the ETag'
+            [[0, 255], [256, 511], [512, 767], [768, 999]].every { range ->
+                webServer.getClient().retrieveRecordedRequests(request().withPath(uri)
+                        .withHeader("Range", "bytes=${range[0]}-${range[1]}".toString())
+                        .withHeader("If-Range", '"v1"')).length == 1
+            }
+
+        and: 'no temporary file is left behind'
+            Files.list(directory).count() == 1
+    }
+
+    def "retries a failed range"() {
+        given:
+            respondToHEADWith("Accept-Ranges": "bytes", "Content-Length": "1000", "ETag": '"v1"')
+            webServer.getClient()
+                    .when(request().withMethod("GET").withPath(uri).withHeader("Range", "bytes=256-511"), Times.once())
+                    .respond(response().withStatusCode(503))
+            respondToRanges()
+
+        when:
+            downloader.download(url, target)
+
+        then:
+            target.text == body
+            webServer.getClient().retrieveRecordedRequests(request().withPath(uri).withHeader("Range", "bytes=256-511")).length == 2
+    }
+
+    def "a range that keeps failing fails the download without touching the file"() {
+        given:
+            respondToHEADWith("Accept-Ranges": "bytes", "Content-Length": "1000", "ETag": '"v1"')
+            webServer.getClient()
+                    .when(request().withMethod("GET").withPath(uri).withHeader("Range", "bytes=512-767"))
+                    .respond(response().withStatusCode(503))
+            respondToRanges()
+
+        when:
+            downloader.download(url, target)
+
+        then:
+            thrown(HttpServerException)
+            Files.list(directory).count() == 0
+    }
+
+    def "falls back to a single stream if ranges are not supported"() {
+        given:
+            respondToHEADWith("Content-Length": "1000")
+            webServer.getClient()
+                    .when(request().withMethod("GET").withPath(uri))
+                    .respond(response(body))
+
+        when:
+            downloader.download(url, target)
+
+        then:
+            target.text == body
+            webServer.getClient().retrieveRecordedRequests(request().withMethod("GET").withPath(uri)).length == 1
+    }
+
+    def "falls back to a single stream if a range is answered with the whole object"() {
+        given:
+            respondToHEADWith("Accept-Ranges": "bytes", "Content-Length": "1000", "ETag": '"v1"')
+            webServer.getClient()
+                    .when(request().withMethod("GET").withPath(uri))
+                    .respond(response(body))
+
+        when:
+            downloader.download(url, target)
+
+        then:
+            target.text == body
+            Files.list(directory).count() == 1
+    }
+
+    def "falls back to a single stream without a strong ETag to make ranges conditional on"() {
+        given:
+            respondToHEADWith(["Accept-Ranges": "bytes", "Content-Length": "1000"] + headers)
+            webServer.getClient()
+                    .when(request().withMethod("GET").withPath(uri))
+                    .respond(response(body))
+
+        when:
+            downloader.download(url, target)
+
+        then:
+            target.text == body
+
+        and: 'no range was requested'
+            webServer.getClient().retrieveRecordedRequests(request().withMethod("GET").withPath(uri)).length == 1
+
+        where:
+            headers << [[:], ["ETag": 'W/"v1"']]
+    }
+
+    def "falls back to a single stream if a range is answered with a Content-Range other than the one requested"() {
+        given:
+            respondToHEADWith("Accept-Ranges": "bytes", "Content-Length": "1000", "ETag": '"v1"')
+            webServer.getClient()
+                    .when(request().withMethod("GET").withPath(uri).withHeader("Range", "bytes=256-511"))
+                    .respond(response(body.substring(256, 512))
+                            .withStatusCode(206)
+                            .withHeader("Content-Range", contentRange))
+            respondToRanges()
+            webServer.getClient()
+                    .when(request().withMethod("GET").withPath(uri))
+                    .respond(response(body))
+
+        when:
+            downloader.download(url, target)
+
+        then:
+            target.text == body
+            webServer.getClient().retrieveRecordedRequests(request().withMethod("GET").withPath(uri).withHeader("Range", "bytes=256-511")).length == 1
+            Files.list(directory).count() == 1
+
+        where:
+            contentRange << ["bytes 0-255/1000", "bytes 256-511/2000", "bytes */1000"]
+    }
+
+    private void respondToHEADWith(Map<String, String> headers) {
+        def headResponse = response().withStatusCode(200)
+        headers.each { name, value -> headResponse.withHeader(name, value) }
+
+        webServer.getClient()
+                .when(request().withMethod("HEAD").withPath(uri))
+                .respond(headResponse)
+    }
+
+    private void respondToRanges() {
+        for (int start = 0; start < body.length(); start += 256) {
+            int end = Math.min(start + 256, body.length()) - 1
+
+            webServer.getClient()
+                    .when(request().withMethod("GET").withPath(uri).withHeader("Range", "bytes=$start-$end".toString()))
+                    .respond(response(body.substring(start, end + 1))
+                            .withStatusCode(206)
+                            .withHeader("Content-Range", "bytes $start-$end/${body.length()}".toString()))
+        }
+    }
+}
@@ -48,6 +48,15 @@ class GETRequestHandlingTest extends Specification {
             ]
     }
 
+    def "executeGETAsync() falls back to executeRequest() when not backed by OkHttp"() {
+        when:
+            def response = requestHandling.executeGETAsync("http://www.google.com").get()
+
+        then:
+            response.statusCode == 200
+            response.bodyAsString.get() == "{}"
+    }
+
     def "buildRequestForGET() builds a GET request with the default headers"() {
         when:
             Request request = requestHandling.buildRequestForGET("http://www.google.com/", urlParams)
@@ -62,4 +71,23 @@ class GETRequestHandlingTest extends Specification {
             [:]                          | ''
             [apple: true, banana: false] | '?banana=false&apple=true'
     }
+
+    def "executeGETWithoutBody() falls back to dropping the body of executeRequest()'s response"() {
+        when:
+            def response = requestHandling.executeGETWithoutBody("http://www.google.com")
+
+        then:
+            response.statusCode == 200
+            !response.bodyAsBytes.isPresent()
+    }
+
+    def "buildRequestForHEAD() builds a HEAD request with the default headers"() {
+        when:
+            Request request = requestHandling.buildRequestForHEAD("http://www.google.com/", [apple: true])
+
+        then:
+            request.method() == "HEAD"
+            request.headers() == requestHandling.getDefaultHeaders()
+            request.url().toString() == "http://www.google.com/?apple=true"
+    }
 }
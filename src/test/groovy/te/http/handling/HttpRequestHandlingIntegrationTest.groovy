@@ -1,21 +1,34 @@
 package te.http.handling
 
 
+import okhttp3.MediaType
 import okhttp3.OkHttpClient
 import okhttp3.RequestBody
 import org.apache.commons.lang3.RandomUtils
 import org.junit.Rule
 import org.mockserver.junit.MockServerRule
+import org.mockserver.matchers.Times
 import org.mockserver.model.HttpStatusCode
+import org.mockserver.model.JsonBody
 import spock.lang.Retry
 import spock.lang.Shared
 import spock.lang.Specification
 import spock.lang.Subject
 import spock.lang.Unroll
+import spock.util.concurrent.PollingConditions
 import te.http.handling.error.exceptions.HttpClientException
 import te.http.handling.error.exceptions.HttpServerException
 import te.http.handling.error.exceptions.NoResponseException
-
+import te.http.handling.resilience.Resilience
+import te.http.handling.resilience.RetryPolicy
+import te.http.handling.upload.UploadProgress
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Duration
+import java.util.concurrent.CancellationException
+import java.util.concurrent.ExecutionException
 import java.util.concurrent.TimeUnit
 
 import static org.mockserver.model.HttpRequest.request
@@ -141,6 +154,313 @@ class HttpRequestHandlingIntegrationTest extends Specification {
             ]
     }
 
+    def "executeGETAsync() completes with the HttpResponse when a service returns a 200"() {
+        given:
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(response(json))
+
+        when:
+            HttpResponse httpResponse = requestHandling.executeGETAsync(url).get(5, TimeUnit.SECONDS)
+
+        then:
+            httpResponse.is200()
+            httpResponse.getBodyAsString().get() == json
+    }
+
+    def "executePOSTAsync() completes exceptionally with a HttpClientException when a service returns a 400"() {
+        given:
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(notFoundResponse())
+
+        when:
+            requestHandling.executePOSTAsync(url, requestHandling.applicationJSON, json).get(5, TimeUnit.SECONDS)
+
+        then:
+            def ex = thrown(ExecutionException)
+            ex.cause instanceof HttpClientException
+            (ex.cause as HttpClientException).httpResponse.statusCode == 404
+    }
+
+    def "executeFilePOST() streams the file, writing it again when the request is retried"() {
+        given:
+            Resilience resilience = new Resilience(new RetryPolicy().setRetryNonIdempotentRequests(true).setInitialBackoff(Duration.ofMillis(1)), null, null)
+            HttpRequestHandling retryingRequestHandling = new HttpRequestHandling() {
+                @Override
+                Resilience getResilience() {
+                    return resilience
+                }
+            }
+            webServer.getClient()
+                    .when(request().withPath(uri).withMethod("POST"), Times.once())
+                    .respond(response().withStatusCode(HttpStatusCode.SERVICE_UNAVAILABLE_503.code()))
+            webServer.getClient()
+                    .when(request().withPath(uri).withMethod("POST"))
+                    .respond(response(json))
+
+        and:
+            Path file = Files.createTempFile("upload", ".txt")
+            file.text = 'x' * 100_000
+            List<UploadProgress> reports = []
+
+        when:
+            HttpResponse httpResponse = retryingRequestHandling.executeFilePOST(url, MediaType.parse("text/plain"), file, { reports << it })
+
+        then:
+            httpResponse.bodyAsString.get() == json
+            webServer.getClient().retrieveRecordedRequests(request().withPath(uri))*.bodyAsString == [file.text, file.text]
+            reports.findAll { it.complete }.size() == 2
+
+        cleanup:
+            Files.deleteIfExists(file)
+    }
+
+    def "executeMultipartPOST() sends the form data & files as multipart/form-data"() {
+        given:
+            webServer.getClient()
+                    .when(request().withPath(uri).withMethod("POST"))
+                    .respond(response(json))
+
+        and:
+            Path file = Files.createTempFile("upload", ".txt")
+            file.text = 'file content'
+
+        when:
+            HttpResponse httpResponse = requestHandling.executeMultipartPOST(url, [some: 'form'], [attachment: file])
+
+        then:
+            httpResponse.bodyAsString.get() == json
+
+        and:
+            def recorded = webServer.getClient().retrieveRecordedRequests(request().withPath(uri))[0]
+            recorded.getFirstHeader("Content-Type").startsWith("multipart/form-data; boundary=")
+            recorded.bodyAsString.contains('Content-Disposition: form-data; name="some"')
+            recorded.bodyAsString.contains('form')
+            recorded.bodyAsString.contains("Content-Disposition: form-data; name=\"attachment\"; filename=\"${file.fileName}\"")
+            recorded.bodyAsString.contains('file content')
+
+        cleanup:
+            Files.deleteIfExists(file)
+    }
+
+    def "executeFormPOSTAsync() completes exceptionally with a HttpServerException when a service returns a 500"() {
+        given:
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(response().withStatusCode(HttpStatusCode.INTERNAL_SERVER_ERROR_500.code()))
+
+        when:
+            requestHandling.executeFormPOSTAsync(url, [some: 'form']).get(5, TimeUnit.SECONDS)
+
+        then:
+            def ex = thrown(ExecutionException)
+            ex.cause instanceof HttpServerException
+    }
+
+    def "cancelling the future returned by executeRequestAsync() cancels the underlying call"() {
+        given: 'a web server that takes 5 seconds to return'
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(response().withDelay(TimeUnit.SECONDS, 5))
+
+        and:
+            def dispatcher = requestHandling.getHttpClient().dispatcher()
+
+        when:
+            def future = requestHandling.executeGETAsync(url)
+
+        then:
+            dispatcher.runningCallsCount() == 1
+
+        when:
+            future.cancel(true)
+            future.get()
+
+        then:
+            thrown(CancellationException)
+            future.isCancelled()
+
+        and: 'the call is cancelled well before the web server would have returned'
+            new PollingConditions(timeout: 2).eventually {
+                assert dispatcher.runningCallsCount() == 0
+                assert dispatcher.queuedCallsCount() == 0
+            }
+    }
+
+    def "executeStreamingGET() streams the body from the connection"() {
+        given:
+            String largeBody = 'x' * 1_000_000
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(response(largeBody))
+
+        when:
+            String streamedBody = requestHandling.executeStreamingGET(url).withCloseable { response ->
+                response.bodyAsStream.text
+            }
+
+        then:
+            streamedBody == largeBody
+    }
+
+    def "executeStreamingGET() only buffers a prefix of the body of a non-200 response"() {
+        given:
+            HttpRequestHandling requestHandling = new HttpRequestHandling() {
+                @Override
+                long getMaxErrorBodyBytes() {
+                    return 4
+                }
+            }
+
+        and:
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(response().withStatusCode(HttpStatusCode.INTERNAL_SERVER_ERROR_500.code()).withBody("payload"))
+
+        when:
+            requestHandling.executeStreamingGET(url)
+
+        then:
+            def exception = thrown(HttpServerException)
+            exception.httpResponse.bodyAsString.get() == "payl"
+    }
+
+    def "executeGETToFile() writes the body to the file, which can be memory-mapped"() {
+        given:
+            String largeBody = 'x' * 1_000_000
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(response(largeBody))
+
+        and: 'an existing file to replace'
+            Path directory = Files.createTempDirectory("downloads")
+            Path target = directory.resolve("body.txt")
+            target.text = "old"
+
+        when:
+            FileHttpResponse fileResponse = requestHandling.executeGETToFile(url, target)
+
+        then:
+            fileResponse.is200()
+            fileResponse.path == target
+            fileResponse.size == largeBody.length()
+            target.text == largeBody
+            StandardCharsets.UTF_8.decode(fileResponse.map()).toString() == largeBody
+
+        and: 'no temporary file is left behind'
+            Files.list(directory).count() == 1
+    }
+
+    def "executeGETToFile() throws a HttpClientException with a bounded body, without touching the file"() {
+        given:
+            HttpRequestHandling requestHandling = new HttpRequestHandling() {
+                @Override
+                long getMaxErrorBodyBytes() {
+                    return 4
+                }
+            }
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(notFoundResponse().withBody("missing"))
+
+        and:
+            Path directory = Files.createTempDirectory("downloads")
+            Path target = directory.resolve("body.txt")
+
+        when:
+            requestHandling.executeGETToFile(url, target)
+
+        then:
+            def exception = thrown(HttpClientException)
+            exception.httpResponse.bodyAsString.get() == "miss"
+            Files.list(directory).count() == 0
+    }
+
+    @Unroll
+    def "executeGETWithoutBody() returns the status & headers but not the #size byte body"() {
+        given:
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(response('x' * size).withHeader("X-Health", "ok"))
+
+        when:
+            HttpResponse httpResponse = requestHandling.executeGETWithoutBody(url)
+
+        then:
+            httpResponse.statusCode == 200
+            httpResponse.headers.get("X-Health") == "ok"
+            !httpResponse.bodyAsBytes.isPresent()
+
+        and: 'the connection is still usable for later requests'
+            requestHandling.executeGET(url).bodyAsString.get().length() == size
+
+        where:
+            size << [100, 1_000_000]
+    }
+
+    def "executeHEAD() returns the status & headers of a HEAD request"() {
+        given:
+            webServer.getClient()
+                    .when(request().withMethod("HEAD").withPath(uri))
+                    .respond(response().withHeader("X-Health", "ok"))
+
+        when:
+            HttpResponse httpResponse = requestHandling.executeHEAD(url)
+
+        then:
+            httpResponse.statusCode == 200
+            httpResponse.headers.get("X-Health") == "ok"
+            httpResponse.request.method() == "HEAD"
+    }
+
+    def "executeGETWithoutBody() throws a HttpClientException w/o a body when a service returns a 404"() {
+        given:
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(notFoundResponse().withBody("missing"))
+
+        when:
+            requestHandling.executeGETWithoutBody(url)
+
+        then:
+            def exception = thrown(HttpClientException)
+            exception.httpResponse.statusCode == 404
+            !exception.httpResponse.bodyAsBytes.isPresent()
+    }
+
+    def "executeGETAsJsonStream() deserializes a JSON array straight from the connection"() {
+        given:
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(response('[' + (1..1000).collect { json }.join(',') + ']'))
+
+        when:
+            def stream = requestHandling.executeGETAsJsonStream(url, null, Map)
+            long count = stream.filter { it.some == 'json' }.count()
+            stream.close()
+
+        then:
+            count == 1000
+    }
+
+    @Unroll
+    def "executeJson#method() streams the object as JSON in the request body"() {
+        given:
+            webServer.getClient()
+                    .when(request().withPath(uri).withMethod(method).withBody(JsonBody.json(json)))
+                    .respond(response("ok"))
+
+        when:
+            HttpResponse httpResponse = requestHandling."executeJson$method"(url, [some: 'json'])
+
+        then:
+            httpResponse.bodyAsString.get() == "ok"
+
+        where:
+            method << ['POST', 'PUT', 'PATCH']
+    }
+
     def "when a service does not respond then a NoResponseException is thrown"() {
         given: 'a request to POST to URL that does not exist'
             def url = "https://www.someurlthatprobablydoesnotexistkappakappaboingboing.com"
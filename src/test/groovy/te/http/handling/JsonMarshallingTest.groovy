@@ -1,12 +1,14 @@
 package te.http.handling
 
-
+import com.google.gson.Gson
 import com.google.gson.annotations.SerializedName
 import groovy.transform.EqualsAndHashCode
 import spock.lang.Shared
 import spock.lang.Specification
 import spock.lang.Subject
+import te.http.handling.deserialization.TypeAdapterRegistry
 
+import java.lang.ref.WeakReference
 import java.time.LocalDate
 import java.time.LocalDateTime
 
@@ -59,6 +61,95 @@ class JsonMarshallingTest extends Specification {
             results[1].age == 27
     }
 
+    def "can deserialize JSON into sets, maps, and arrays of objects"() {
+        given:
+            def json = '[{"firstName":"Todd"}, {"firstName":"Missy"}]'
+
+        expect:
+            jsonMarshalling.fromJsonSet('["a", "b", "a"]', String) == ['a', 'b'] as Set
+            jsonMarshalling.fromJsonMap('{"todd": {"firstName":"Todd"}}', Person).todd.firstName == "Todd"
+            jsonMarshalling.fromJsonArray(json, Person)*.firstName == ["Todd", "Missy"]
+            jsonMarshalling.fromJsonArray(json, Person) instanceof Person[]
+    }
+
+    def "collection decoders reuse the same cached adapter across calls"() {
+        given:
+            def registry = jsonMarshalling.getTypeAdapterRegistry()
+
+        when:
+            def first = registry.listAdapter(Person)
+            jsonMarshalling.fromJsonList('[]', Person)
+
+        then:
+            registry.listAdapter(Person).is(first)
+            jsonMarshalling.getTypeAdapterRegistry().is(registry)
+    }
+
+    def "the registry of a Gson instance that is no longer used can be garbage collected"() {
+        given:
+            WeakReference<TypeAdapterRegistry> registry = new WeakReference<>(TypeAdapterRegistry.of(new Gson()))
+            registry.get().listAdapter(Person)
+
+        when:
+            TypeAdapterRegistry.MAX_SHARED_REGISTRIES.times { TypeAdapterRegistry.of(new Gson()) }
+            for (int i = 0; i < 10 && registry.get() != null; i++) {
+                System.gc()
+                Thread.sleep(10)
+            }
+
+        then:
+            registry.get() == null
+    }
+
+    def "the type adapter registry is bounded"() {
+        given:
+            def registry = new TypeAdapterRegistry(jsonMarshalling.getJsonMarshaller(), 2)
+
+        when:
+            [String, Integer, Long, Person].each { registry.listAdapter(it) }
+
+        then:
+            registry.size() == 2
+    }
+
+    def "empty JSON yields null like Gson does"() {
+        expect:
+            jsonMarshalling.fromJsonList('', Person) == null
+    }
+
+    def "can lazily deserialize a JSON array one element at a time"() {
+        given:
+            def json = new StringReader("""
+                [
+                    {"firstName":"Todd", "lastName":"Elvers", "years_old": 28},
+                    {"firstName":"Missy", "lastName":"Williams", "years_old": 27}
+                ]
+            """)
+
+        when:
+            def iterator = jsonMarshalling.fromJsonIterator(json, Person)
+
+        then:
+            iterator.hasNext()
+            iterator.next().firstName == "Todd"
+            iterator.next().firstName == "Missy"
+            !iterator.hasNext()
+    }
+
+    def "can deserialize a JSON array from an InputStream into a Stream"() {
+        given:
+            def json = new ByteArrayInputStream('[{"firstName":"Todd"}, {"firstName":"Missy"}, {"firstName":"Bob"}]'.bytes)
+
+        when:
+            List<String> firstNames = jsonMarshalling.fromJsonStream(json, Person)
+                    .map { it.firstName }
+                    .filter { it != "Bob" }
+                    .collect()
+
+        then:
+            firstNames == ["Todd", "Missy"]
+    }
+
     def "can serialize/deserialize Date, LocalDate, and LocalDateTime to/from JSON"() {
         given:
             ObjectWithDates original = new ObjectWithDates()
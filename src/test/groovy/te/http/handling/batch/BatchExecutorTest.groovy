@@ -0,0 +1,137 @@
+package te.http.handling.batch
+
+import io.vavr.CheckedFunction1
+import okhttp3.Request
+import spock.lang.Specification
+import spock.lang.Subject
+import te.http.handling.HttpRequestHandling
+import te.http.handling.HttpResponse
+import te.http.handling.error.exceptions.HttpClientException
+import te.http.handling.error.exceptions.HttpServerException
+import te.http.handling.error.exceptions.NoResponseException
+
+import java.util.concurrent.CancellationException
+import java.util.concurrent.atomic.AtomicInteger
+
+import static te.http.TestHelper.buildEmpty200ResponseFor
+import static te.http.TestHelper.buildResponse
+
+class BatchExecutorTest extends Specification {
+
+    AtomicInteger inFlight = new AtomicInteger()
+    AtomicInteger maxInFlight = new AtomicInteger()
+
+    @Subject
+    HttpRequestHandling requestHandling = new HttpRequestHandling() {
+        @Override
+        HttpResponse executeRequest(Request request) throws HttpServerException, HttpClientException, NoResponseException {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math.&max)
+            try {
+                Thread.sleep(5)
+                if (request.url().queryParameter("fail")) {
+                    throw new HttpServerException(buildResponse(request, 500, 'failed'))
+                }
+                return buildEmpty200ResponseFor(request)
+            } finally {
+                inFlight.decrementAndGet()
+            }
+        }
+    }
+
+    def "results are returned in the same order as the requests"() {
+        given:
+            def requests = (1..50).collect { requestHandling.buildRequestForGET("http://localhost/$it", null) }
+
+        when:
+            BatchResult result = requestHandling.executeAll(requests, new BatchOptions().setConcurrency(8))
+
+        then:
+            result.allSuccessful
+            result.successCount == 50
+            result.results*.get()*.request*.url()*.encodedPath() == (1..50).collect { "/$it".toString() }
+            result.throughputPerSecond > 0
+    }
+
+    def "failures are captured per request as the typed exception"() {
+        given:
+            def requests = [
+                    requestHandling.buildRequestForGET("http://localhost/1", null),
+                    requestHandling.buildRequestForGET("http://localhost/2", [fail: true]),
+                    requestHandling.buildRequestForGET("http://localhost/3", null)
+            ]
+
+        when:
+            BatchResult result = requestHandling.executeAll(requests)
+
+        then:
+            result.successCount == 2
+            result.failureCount == 1
+            result.results[1].cause instanceof HttpServerException
+    }
+
+    def "stopping on the first failure skips requests that have not started"() {
+        given:
+            def requests = [requestHandling.buildRequestForGET("http://localhost/1", [fail: true])] +
+                    (2..20).collect { requestHandling.buildRequestForGET("http://localhost/$it", null) }
+
+        when:
+            BatchResult result = requestHandling.executeAll(
+                    requests,
+                    new BatchOptions().setConcurrency(1).setStopOnFirstFailure(true)
+            )
+
+        then:
+            result.failureCount == 1
+            result.skippedCount == 19
+            result.results.tail().every { it.cause instanceof CancellationException }
+    }
+
+    def "concurrency never exceeds the dispatcher's per-host limit"() {
+        given:
+            int maxRequestsPerHost = requestHandling.getHttpClient().dispatcher().getMaxRequestsPerHost()
+            def requests = (1..40).collect { requestHandling.buildRequestForGET("http://localhost/$it", null) }
+
+        when:
+            requestHandling.executeAll(requests, new BatchOptions().setConcurrency(32).setUseVirtualThreads(true))
+
+        then:
+            maxInFlight.get() <= maxRequestsPerHost
+    }
+
+    def "requests to a saturated host do not hold up requests to other hosts"() {
+        given:
+            def slowRequests = (1..3).collect { requestHandling.buildRequestForGET("http://slow.test/$it", null) }
+            def fastRequests = (1..3).collect { requestHandling.buildRequestForGET("http://fast.test/$it", null) }
+            List<String> completed = Collections.synchronizedList([])
+            CheckedFunction1<Request, HttpResponse> executor = { Request request ->
+                if (request.url().host() == 'slow.test') Thread.sleep(200)
+                completed << request.url().toString()
+                return buildEmpty200ResponseFor(request)
+            }
+
+        when:
+            new BatchExecutor(new BatchOptions().setConcurrency(2), 2, 1).execute(slowRequests + fastRequests, executor)
+
+        then:
+            completed.take(3).every { it.startsWith('http://fast.test') }
+    }
+
+    def "the per-host limit applies across ports, as it does in the dispatcher"() {
+        given:
+            def requests = (1..20).collect { requestHandling.buildRequestForGET("http://localhost:${8000 + it % 2}/$it", null) }
+
+        when:
+            new BatchExecutor(new BatchOptions().setConcurrency(8), 8, 1).execute(requests, requestHandling.&executeRequest)
+
+        then:
+            maxInFlight.get() == 1
+    }
+
+    def "concurrency must be positive"() {
+        when:
+            new BatchOptions().setConcurrency(0)
+
+        then:
+            thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,206 @@
+package te.http.handling.cache
+
+import okhttp3.Request
+import org.apache.commons.lang3.RandomUtils
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import org.mockserver.junit.MockServerRule
+import org.mockserver.model.Header
+import org.mockserver.verify.VerificationTimes
+import spock.lang.Specification
+import te.http.handling.HttpRequestHandling
+import te.http.handling.HttpResponse
+
+import static org.mockserver.model.HttpRequest.request
+import static org.mockserver.model.HttpResponse.response
+
+class HttpResponseCacheTest extends Specification {
+
+    @Rule
+    MockServerRule webServer = new MockServerRule(this)
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    String uri = "/test/uri/${RandomUtils.nextLong(1, 1_000_000)}"
+    String url = "http://localhost:${webServer.port}${uri}"
+
+    HttpRequestHandling requestHandlingWith(HttpResponseCache cache) {
+        return new HttpRequestHandling() {
+            @Override
+            HttpResponseCache getResponseCache() {
+                return cache
+            }
+        }
+    }
+
+    def "fresh responses are served from memory without contacting the webservice"() {
+        given:
+            def cache = HttpResponseCache.inMemory(10, 1024)
+            def requestHandling = requestHandlingWith(cache)
+
+        and:
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(response("cached").withHeader("Cache-Control", "max-age=60"))
+
+        when:
+            HttpResponse first = requestHandling.executeGET(url)
+            HttpResponse second = requestHandling.executeGET(url)
+
+        then:
+            first.cacheOutcome == CacheOutcome.MISS
+            second.cacheOutcome == CacheOutcome.HIT
+            second.bodyAsString.get() == "cached"
+
+        and:
+            webServer.getClient().verify(request().withPath(uri), VerificationTimes.once())
+            cache.stats.memoryHitCount == 1
+            cache.stats.missCount == 1
+            cache.memoryEntryCount == 1
+    }
+
+    def "stale responses with an ETag are revalidated and served from memory on a 304"() {
+        given:
+            def cache = HttpResponseCache.inMemory(10, 1024)
+            def requestHandling = requestHandlingWith(cache)
+
+        and:
+            webServer.getClient()
+                    .when(request().withPath(uri).withHeader(Header.header("If-None-Match", '"v1"')))
+                    .respond(response().withStatusCode(304).withHeader("ETag", '"v1"'))
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(response("versioned").withHeader("ETag", '"v1"').withHeader("Cache-Control", "no-cache"))
+
+        when:
+            HttpResponse first = requestHandling.executeGET(url)
+            HttpResponse second = requestHandling.executeGET(url)
+
+        then:
+            first.cacheOutcome == CacheOutcome.MISS
+            second.cacheOutcome == CacheOutcome.REVALIDATED
+            second.statusCode == 200
+            second.bodyAsString.get() == "versioned"
+            cache.stats.revalidationCount == 1
+    }
+
+    def "responses are served from disk when the memory tier is disabled"() {
+        given:
+            def cache = HttpResponseCache.onDisk(temporaryFolder.newFolder(), 1024 * 1024)
+            def requestHandling = requestHandlingWith(cache)
+
+        and:
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(response("on disk").withHeader("Cache-Control", "max-age=60"))
+
+        when:
+            requestHandling.executeGET(url)
+            HttpResponse second = requestHandling.executeGET(url)
+
+        then:
+            second.cacheOutcome == CacheOutcome.HIT
+            second.bodyAsString.get() == "on disk"
+            cache.stats.diskHitCount == 1
+            cache.diskSize > 0
+    }
+
+    def "responses that forbid caching are not cached"() {
+        given:
+            def cache = HttpResponseCache.inMemory(10, 1024)
+            def requestHandling = requestHandlingWith(cache)
+
+        and:
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(response("secret").withHeader("Cache-Control", "no-store"))
+
+        when:
+            requestHandling.executeGET(url)
+            HttpResponse second = requestHandling.executeGET(url)
+
+        then:
+            second.cacheOutcome == CacheOutcome.MISS
+            cache.stats.missCount == 2
+            cache.memoryEntryCount == 0
+    }
+
+    def "responses to requests with credentials are not shared with other credentials"() {
+        given:
+            def cache = HttpResponseCache.inMemory(10, 1024)
+            def requestHandling = requestHandlingWith(cache)
+
+        and:
+            ['alice', 'bob'].each { token ->
+                webServer.getClient()
+                        .when(request().withPath(uri).withHeader("Authorization", "Bearer $token".toString()))
+                        .respond(response("account of $token".toString()).withHeader("Cache-Control", "max-age=60"))
+            }
+
+        when:
+            HttpResponse alice = requestHandling.executeGETRequest(requestWithToken('alice'))
+            HttpResponse bob = requestHandling.executeGETRequest(requestWithToken('bob'))
+
+        then:
+            alice.bodyAsString.get() == "account of alice"
+            bob.bodyAsString.get() == "account of bob"
+            bob.cacheOutcome == CacheOutcome.MISS
+            cache.memoryEntryCount == 0
+    }
+
+    def "responses to requests with credentials are shared if the webservice marks them public"() {
+        given:
+            def cache = HttpResponseCache.inMemory(10, 1024)
+            def requestHandling = requestHandlingWith(cache)
+
+        and:
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(response("catalog").withHeader("Cache-Control", "public, max-age=60"))
+
+        when:
+            requestHandling.executeGETRequest(requestWithToken('alice'))
+            HttpResponse bob = requestHandling.executeGETRequest(requestWithToken('bob'))
+
+        then:
+            bob.cacheOutcome == CacheOutcome.HIT
+            bob.bodyAsString.get() == "catalog"
+    }
+
+    def "private responses are not cached in memory"() {
+        given:
+            def cache = HttpResponseCache.inMemory(10, 1024)
+            def requestHandling = requestHandlingWith(cache)
+
+        and:
+            webServer.getClient()
+                    .when(request().withPath(uri))
+                    .respond(response("mine").withHeader("Cache-Control", "private, max-age=60"))
+
+        when:
+            requestHandling.executeGET(url)
+            HttpResponse second = requestHandling.executeGET(url)
+
+        then:
+            second.cacheOutcome == CacheOutcome.MISS
+            cache.memoryEntryCount == 0
+    }
+
+    def "the decorated client is reused while the underlying client is the same"() {
+        given:
+            def cache = HttpResponseCache.inMemory(10, 1024)
+            def httpClient = HttpRequestHandling.Defaults.httpClient
+
+        expect:
+            cache.decorate(httpClient).is(cache.decorate(httpClient))
+            cache.decorate(httpClient).connectionPool().is(httpClient.connectionPool())
+    }
+
+    private Request requestWithToken(String token) {
+        return new Request.Builder()
+                .url(url)
+                .header("Authorization", "Bearer $token".toString())
+                .build()
+    }
+}
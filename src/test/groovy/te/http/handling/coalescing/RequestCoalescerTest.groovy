@@ -0,0 +1,179 @@
+package te.http.handling.coalescing
+
+import okhttp3.Headers
+import okhttp3.Request
+import spock.lang.Specification
+import spock.lang.Subject
+import spock.util.concurrent.PollingConditions
+import te.http.handling.GETRequestHandling
+import te.http.handling.HttpResponse
+import te.http.handling.RequestExecutor
+import te.http.handling.error.exceptions.HttpServerException
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import static te.http.TestHelper.buildEmpty200ResponseFor
+import static te.http.TestHelper.buildResponse
+
+class RequestCoalescerTest extends Specification {
+
+    PollingConditions conditions = new PollingConditions(timeout: 5)
+
+    CountDownLatch release = new CountDownLatch(1)
+    AtomicInteger executions = new AtomicInteger()
+    boolean fail = false
+
+    @Subject
+    RequestCoalescer coalescer = new RequestCoalescer("Authorization")
+
+    GETRequestHandling requestHandling = new GETRequestHandling() {
+        @Override
+        Headers getDefaultHeaders() {
+            return new Headers.Builder().add("Authorization", "token").build()
+        }
+
+        @Override
+        HttpResponse executeRequest(Request request) {
+            executions.incrementAndGet()
+            release.await(5, TimeUnit.SECONDS)
+            if (fail) throw new HttpServerException(buildResponse(request, 500, 'failed'))
+            return buildEmpty200ResponseFor(request)
+        }
+
+        @Override
+        RequestCoalescer getRequestCoalescer() {
+            return coalescer
+        }
+    }
+
+    def "concurrent identical GETs share a single in-flight call"() {
+        given:
+            def executor = Executors.newFixedThreadPool(8)
+
+        when:
+            def futures = (1..8).collect {
+                executor.submit({ requestHandling.executeGET("http://localhost/same", [id: 1]) } as Callable<HttpResponse>)
+            }
+            conditions.eventually { assert coalescer.coalescedCount + coalescer.executedCount == 8 }
+            release.countDown()
+            List<HttpResponse> responses = futures*.get()
+
+        then:
+            executions.get() == 1
+            coalescer.executedCount == 1
+            coalescer.coalescedCount == 7
+            responses.every { it.bodyAsString.get() == '{}' }
+
+        and: 'every caller has its own copy of the body'
+            responses*.bodyAsBytes*.get().unique(false) { System.identityHashCode(it) }.size() == 8
+
+        cleanup:
+            executor.shutdownNow()
+    }
+
+    def "exceptions are shared by every caller of the in-flight call"() {
+        given:
+            fail = true
+            def executor = Executors.newFixedThreadPool(4)
+
+        when:
+            def futures = (1..4).collect {
+                executor.submit({
+                    try {
+                        requestHandling.executeGET("http://localhost/same")
+                        return null
+                    } catch (HttpServerException ex) {
+                        return ex
+                    }
+                } as Callable<Exception>)
+            }
+            conditions.eventually { assert coalescer.coalescedCount + coalescer.executedCount == 4 }
+            release.countDown()
+
+        then:
+            futures*.get().every { it instanceof HttpServerException }
+            executions.get() == 1
+
+        cleanup:
+            executor.shutdownNow()
+    }
+
+    def "requests that are not in-flight at the same time are each executed"() {
+        given:
+            release.countDown()
+
+        when:
+            requestHandling.executeGET("http://localhost/same")
+            requestHandling.executeGET("http://localhost/same")
+            requestHandling.executeGET("http://localhost/different")
+
+        then:
+            executions.get() == 3
+            coalescer.coalescedCount == 0
+    }
+
+    def "requests with different credentials are never coalesced"() {
+        given:
+            RequestCoalescer defaultCoalescer = new RequestCoalescer()
+            def executor = Executors.newFixedThreadPool(4)
+            def requests = ['Authorization', 'Cookie'].collectMany { headerName ->
+                ['alice', 'bob'].collect { new Request.Builder().url("http://localhost/same").header(headerName, it).build() }
+            }
+
+        when:
+            def futures = requests.collect { request ->
+                executor.submit({ defaultCoalescer.execute(request, requestHandling.&executeRequest) } as Callable<HttpResponse>)
+            }
+            conditions.eventually { assert executions.get() == 4 }
+            release.countDown()
+            futures*.get()
+
+        then:
+            defaultCoalescer.executedCount == 4
+            defaultCoalescer.coalescedCount == 0
+            defaultCoalescer.toString().contains("[Authorization, Cookie]")
+
+        cleanup:
+            executor.shutdownNow()
+    }
+
+    def "changes the first caller makes to its response are not seen by waiting callers"() {
+        given:
+            def firstCaller = Thread.currentThread()
+            def changed = new CountDownLatch(1)
+            def executor = Executors.newSingleThreadExecutor()
+            def request = new Request.Builder().url("http://localhost/same").build()
+
+        and: 'a response that, if shared, is only copied by waiting callers once it has been changed'
+            HttpResponse response = new HttpResponse() {
+                @Override
+                HttpResponse copy() {
+                    if (Thread.currentThread() != firstCaller) changed.await(5, TimeUnit.SECONDS)
+                    return super.copy()
+                }
+            }.setBody('{}'.bytes).setStatusCode(200)
+
+        when:
+            def waitingCaller = executor.submit({
+                conditions.eventually { assert coalescer.executedCount == 1 }
+                coalescer.execute(request, { throw new IllegalStateException("not the first caller") } as RequestExecutor)
+            } as Callable<HttpResponse>)
+            HttpResponse firstResponse = coalescer.execute(request, {
+                conditions.eventually { assert coalescer.coalescedCount == 1 }
+                return response
+            } as RequestExecutor)
+            firstResponse.bodyAsBytes.get()[0] = (byte) '['
+            firstResponse.setBody('changed'.bytes)
+            changed.countDown()
+
+        then:
+            waitingCaller.get(5, TimeUnit.SECONDS).bodyAsString.get() == '{}'
+
+        cleanup:
+            executor.shutdownNow()
+    }
+}
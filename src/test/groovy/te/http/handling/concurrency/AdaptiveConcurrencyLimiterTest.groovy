@@ -0,0 +1,225 @@
+package te.http.handling.concurrency
+
+import okhttp3.Dispatcher
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import org.junit.Rule
+import org.mockserver.junit.MockServerRule
+import spock.lang.Specification
+import te.http.handling.HttpRequestHandling
+import te.http.handling.error.exceptions.ConcurrencyLimitExceededException
+import te.http.handling.error.exceptions.NoResponseException
+import te.http.handling.metrics.HttpMetrics
+
+import java.time.Duration
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.function.Supplier
+
+import static org.mockserver.model.HttpRequest.request
+import static org.mockserver.model.HttpResponse.response
+
+class AdaptiveConcurrencyLimiterTest extends Specification {
+
+    @Rule
+    MockServerRule webServer = new MockServerRule(this, 8888)
+
+    static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1)
+
+    Request request = new Request.Builder().url("http://example.com/resource").build()
+
+    def "AIMD grows by one while the limit is used, and backs off on timeouts & slow requests"() {
+        given:
+            def aimd = new AimdLimit()
+                    .setInitialLimit(10)
+                    .setMaxLimit(11)
+                    .setLatencyThreshold(Duration.ofMillis(100))
+
+        expect: 'unused limits do not grow'
+            aimd.onSample(10 * MILLIS, 4, false) == 10
+            aimd.onSample(10 * MILLIS, 5, false) == 11
+            aimd.onSample(10 * MILLIS, 11, false) == 11
+            aimd.onSample(10 * MILLIS, 11, true) == 9
+            aimd.onSample(200 * MILLIS, 9, false) == 8
+    }
+
+    def "Vegas grows while latency is near the no-load latency, and shrinks once requests queue up"() {
+        given:
+            def vegas = new VegasLimit().setInitialLimit(20)
+            vegas.onSample(10 * MILLIS, 20, false)
+
+        when:
+            int grown = vegas.onSample(10 * MILLIS, 20, false)
+
+        then:
+            grown > 20
+
+        when:
+            int shrunk = vegas.onSample(100 * MILLIS, grown, false)
+
+        then:
+            shrunk < grown
+
+        when:
+            int dropped = vegas.onSample(10 * MILLIS, shrunk, true)
+
+        then:
+            dropped < shrunk
+    }
+
+    def "requests beyond the limit are rejected when there is no queue"() {
+        given:
+            def limiter = new AdaptiveConcurrencyLimiter({ new AimdLimit().setInitialLimit(2) })
+                    .setMaxQueueSize(0)
+            def permits = [limiter.acquire(request), limiter.acquire(request)]
+
+        when:
+            limiter.acquire(request)
+
+        then:
+            thrown(ConcurrencyLimitExceededException)
+            limiter.getInFlightCounts() == ["example.com:80": 2]
+
+        when:
+            permits*.release(null)
+
+        then:
+            limiter.getInFlightCounts() == ["example.com:80": 0]
+            limiter.acquire(request)
+    }
+
+    def "queued requests get the slot of a released request, or time out"() {
+        given:
+            def limiter = new AdaptiveConcurrencyLimiter({ new AimdLimit().setInitialLimit(1).setMaxLimit(1) })
+                    .setMaxWait(Duration.ofMillis(50))
+            def permit = limiter.acquire(request)
+
+        when:
+            def waiter = limiter.acquireAsync(request)
+
+        then:
+            !waiter.isDone()
+
+        when:
+            permit.release(null)
+
+        then:
+            waiter.get(1, TimeUnit.SECONDS) != null
+
+        when:
+            limiter.acquireAsync(request).get(1, TimeUnit.SECONDS)
+
+        then:
+            ExecutionException exception = thrown()
+            exception.cause instanceof ConcurrencyLimitExceededException
+    }
+
+    def "timeouts shrink the limit, other failures & cancellations do not"() {
+        given:
+            def limiter = new AdaptiveConcurrencyLimiter({ new AimdLimit().setInitialLimit(10) })
+
+        when:
+            limiter.acquire(request).release(new NoResponseException(new IOException("reset"), request))
+            limiter.acquire(request).cancel()
+
+        then:
+            limiter.getLimit(request.url()) == 10
+
+        when:
+            limiter.acquire(request).release(new NoResponseException(new SocketTimeoutException("timeout"), request))
+
+        then:
+            limiter.getLimit(request.url()) == 9
+            limiter.getInFlightCounts() == ["example.com:80": 0]
+    }
+
+    def "requests executed via HttpRequestHandling hold a slot while in-flight, and the limit is published as a metric"() {
+        given:
+            String url = "http://localhost:${webServer.port}/limited"
+            webServer.getClient()
+                    .when(request().withPath("/limited"))
+                    .respond(response("{}"))
+
+            def limiter = AdaptiveConcurrencyLimiter.aimd()
+            def metrics = new HttpMetrics().trackConcurrencyLimits(limiter)
+            def requestHandling = new HttpRequestHandling() {
+                @Override
+                AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+                    return limiter
+                }
+            }
+
+        when:
+            requestHandling.executeGET(url)
+            requestHandling.executeGETAsync(url).get(1, TimeUnit.SECONDS)
+
+        then:
+            String host = "localhost:${webServer.port}"
+            limiter.getInFlightCounts() == [(host): 0]
+            metrics.snapshot().concurrencyLimits == [(host): 20]
+    }
+
+    def "streaming requests hold a slot until their response is closed, as do requests without a body until they complete"() {
+        given:
+            String url = "http://localhost:${webServer.port}/streamed"
+            String host = "localhost:${webServer.port}"
+            webServer.getClient()
+                    .when(request().withPath("/streamed"))
+                    .respond(response("{}"))
+
+            def limiter = AdaptiveConcurrencyLimiter.aimd()
+            def requestHandling = new HttpRequestHandling() {
+                @Override
+                AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+                    return limiter
+                }
+            }
+
+        when:
+            def response = requestHandling.executeStreamingGET(url)
+
+        then:
+            limiter.getInFlightCounts() == [(host): 1]
+
+        when:
+            response.close()
+            requestHandling.executeHEAD(url)
+
+        then:
+            limiter.getInFlightCounts() == [(host): 0]
+    }
+
+    def "asynchronous requests are measured from when the dispatcher starts them, not while they are queued"() {
+        given:
+            String url = "http://localhost:${webServer.port}/queued"
+            webServer.getClient()
+                    .when(request().withPath("/queued"))
+                    .respond(response("{}").withDelay(TimeUnit.MILLISECONDS, 200))
+
+        and: 'a dispatcher that only runs one request per host at a time'
+            def httpClient = new OkHttpClient.Builder().dispatcher(new Dispatcher()).build()
+            httpClient.dispatcher().setMaxRequestsPerHost(1)
+            List<Long> rttNanos = Collections.synchronizedList([])
+            def limiter = new AdaptiveConcurrencyLimiter({
+                [getLimit: { 20 }, onSample: { long rtt, int inFlight, boolean didDrop -> rttNanos << rtt; 20 }] as LimitAlgorithm
+            } as Supplier)
+            def requestHandling = new HttpRequestHandling() {
+                @Override
+                OkHttpClient getHttpClient() {
+                    return httpClient
+                }
+
+                @Override
+                AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+                    return limiter
+                }
+            }
+
+        when:
+            (1..3).collect { requestHandling.executeGETAsync(url) }*.get(5, TimeUnit.SECONDS)
+
+        then:
+            rttNanos.size() == 3
+            rttNanos.every { it < 350 * MILLIS }
+    }
+}
@@ -0,0 +1,13 @@
+package te.http.handling.deserialization
+
+import spock.lang.Specification
+
+class ListParameterizedTypeTest extends Specification {
+
+    def "equal instances have equal hash codes"() {
+        expect:
+            new ListParameterizedType(String) == new ListParameterizedType(String)
+            new ListParameterizedType(String).hashCode() == new ListParameterizedType(String).hashCode()
+            new ListParameterizedType(String) != new ListParameterizedType(Integer)
+    }
+}
@@ -0,0 +1,72 @@
+package te.http.handling.deserialization.parsing
+
+import io.vavr.collection.List
+import spock.lang.Specification
+import spock.lang.Unroll
+import te.http.handling.error.exceptions.DateTimeDeserializationException
+import te.http.handling.error.exceptions.ParserConfigurationException
+
+import java.time.LocalDate
+
+class DateParsingEngineTest extends Specification {
+
+    DateParsingEngine<LocalDate> engine = new DateParsingEngine<>(
+            List.of(
+                    new LocalDateParser("yyyy-MM-dd", "[0-9]{4}-[0-9]{2}-[0-9]{2}"),
+                    new LocalDateParser("MM/dd/yyyy", "[0-9]{2}/[0-9]{2}/[0-9]{4}")
+            ),
+            { long epoch -> LocalDate.ofEpochDay(epoch) }
+    )
+
+    @Unroll
+    def "the shape of '#pattern' is '#shape'"() {
+        expect:
+            DateParsingEngine.shapeOf(pattern).getOrNull() == shape
+
+        where:
+            pattern                   || shape
+            "yyyy-MM-dd"              || "9999-99-99"
+            "MM/dd/yyyy"              || "99/99/9999"
+            "yyyy-MM-dd'T'HH:mm:ss"   || "9999-99-99T99:99:99"
+            "yyyy-MM-dd HH:mm:ss.SSS" || "9999-99-99 99:99:99.999"
+            "MMM dd, yyyy"            || null
+            "M/d/yyyy"                || null
+    }
+
+    def "dispatches to the parser matching the shape of the input"() {
+        expect:
+            engine.parse("2017-01-02", LocalDate) == LocalDate.of(2017, 1, 2)
+            engine.parse("01/02/2017", LocalDate) == LocalDate.of(2017, 1, 2)
+    }
+
+    def "all-digit inputs of 9 or more digits are treated as a Unix Epoch"() {
+        expect:
+            engine.parse("123456789", LocalDate) == LocalDate.ofEpochDay(123456789)
+    }
+
+    def "formats that cannot be reduced to a shape are still supported"() {
+        given:
+            def engineWithTextualMonths = engine.withFormat(new LocalDateParser("MMM dd, yyyy", "[A-Z][a-z]{2} [0-9]{2}, [0-9]{4}"))
+
+        expect:
+            engineWithTextualMonths.parse("Jan 02, 2017", LocalDate) == LocalDate.of(2017, 1, 2)
+            engineWithTextualMonths.parsers.size() == 3
+    }
+
+    def "inputs that match a shape but cannot be parsed fall back to the regular expressions"() {
+        when:
+            engine.parse("2017-13-45", LocalDate)
+
+        then:
+            thrown(ParserConfigurationException)
+    }
+
+    def "unsupported inputs throw a DateTimeDeserializationException"() {
+        when:
+            engine.parse("01.02.2017", LocalDate)
+
+        then:
+            def ex = thrown(DateTimeDeserializationException)
+            ex.message.contains("[yyyy-MM-dd, MM/dd/yyyy]")
+    }
+}
@@ -0,0 +1,159 @@
+package te.http.handling.dns
+
+import org.junit.Rule
+import org.mockserver.junit.MockServerRule
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+import te.http.handling.HttpRequestHandling
+
+import java.time.Duration
+import java.util.function.LongSupplier
+
+import static org.mockserver.model.HttpRequest.request
+import static org.mockserver.model.HttpResponse.response
+
+class CachingDnsTest extends Specification {
+
+    PollingConditions conditions = new PollingConditions(timeout: 5)
+
+    @Rule
+    MockServerRule webServer = new MockServerRule(this, 8888)
+
+    long nowNanos = 0
+    FakeDns resolver = new FakeDns().answer("example.test", "10.0.0.1")
+    CachingDns dns = new CachingDns(resolver, { -> nowNanos } as LongSupplier)
+            .setTtl(Duration.ofSeconds(60))
+
+    def "answers from the cache until the TTL expires"() {
+        when:
+            3.times { dns.lookup("example.test") }
+
+        then:
+            resolver.lookupCount.get() == 1
+            dns.stats.hitCount == 2
+            dns.stats.missCount == 1
+
+        when:
+            nowNanos += Duration.ofSeconds(60).toNanos()
+            dns.lookup("example.test")
+
+        then:
+            resolver.lookupCount.get() == 2
+            dns.stats.missCount == 2
+    }
+
+    def "refreshes a hostname that is looked up shortly before it expires, in the background"() {
+        given:
+            dns.lookup("example.test")
+            resolver.answer("example.test", "10.0.0.2")
+
+        when:
+            nowNanos += Duration.ofSeconds(50).toNanos()
+            def addresses = dns.lookup("example.test")
+
+        then: 'the cached addresses are served while the refresh is in progress'
+            addresses*.hostAddress == ["10.0.0.1"]
+            dns.stats.hitCount == 1
+
+        when:
+            conditions.eventually { assert dns.stats.refreshCount == 1 }
+            nowNanos += Duration.ofSeconds(20).toNanos()
+
+        then: 'the refreshed addresses have not expired'
+            dns.lookup("example.test")*.hostAddress == ["10.0.0.2"]
+            dns.stats.hitCount == 2
+            resolver.lookupCount.get() == 2
+    }
+
+    def "serves stale addresses when the resolver fails, up to the max staleness"() {
+        given:
+            dns.setMaxStale(Duration.ofMinutes(5))
+            dns.lookup("example.test")
+            resolver.failing = true
+
+        when:
+            nowNanos += Duration.ofMinutes(2).toNanos()
+
+        then:
+            dns.lookup("example.test")*.hostAddress == ["10.0.0.1"]
+            dns.stats.staleHitCount == 1
+            dns.stats.failureCount == 1
+
+        when:
+            nowNanos += Duration.ofMinutes(5).toNanos()
+            dns.lookup("example.test")
+
+        then:
+            thrown(UnknownHostException)
+    }
+
+    def "an unknown hostname is not cached"() {
+        when:
+            dns.lookup("unknown.test")
+
+        then:
+            thrown(UnknownHostException)
+            dns.entries.isEmpty()
+    }
+
+    def "rotates through the addresses of a hostname"() {
+        given:
+            resolver.answer("replicated.test", "10.0.0.1", "10.0.0.2", "10.0.0.3")
+
+        expect:
+            (1..4).collect { dns.lookup("replicated.test")*.hostAddress.first() } == ["10.0.0.1", "10.0.0.2", "10.0.0.3", "10.0.0.1"]
+            dns.lookup("replicated.test").size() == 3
+
+        when:
+            dns.setRotating(false)
+
+        then:
+            (1..2).collect { dns.lookup("replicated.test")*.hostAddress.first() } == ["10.0.0.1", "10.0.0.1"]
+    }
+
+    def "evicts the entry closest to expiring beyond the max entries"() {
+        given:
+            dns.setMaxEntries(2)
+            resolver.answer("a.test", "10.0.0.1").answer("b.test", "10.0.0.2").answer("c.test", "10.0.0.3")
+
+        when:
+            dns.lookup("a.test")
+            nowNanos += 1
+            dns.lookup("b.test")
+            nowNanos += 1
+            dns.lookup("c.test")
+
+        then:
+            dns.entries.keySet() == ["b.test", "c.test"] as Set
+    }
+
+    def "prefetches hostnames ahead of their first lookup"() {
+        when:
+            dns.prefetch("example.test")
+            conditions.eventually { assert !dns.entries.isEmpty() }
+            dns.lookup("example.test")
+
+        then:
+            dns.stats.hitCount == 1
+            dns.stats.missCount == 0
+    }
+
+    def "requests resolve their hostname through getDns()"() {
+        given:
+            CachingDns cachingDns = new CachingDns(new FakeDns().answer("replica.test", "127.0.0.1"))
+            HttpRequestHandling requestHandling = new HttpRequestHandling() {
+                @Override
+                CachingDns getDns() {
+                    return cachingDns
+                }
+            }
+            webServer.getClient()
+                    .when(request().withPath("/dns"))
+                    .respond(response("resolved"))
+
+        expect:
+            requestHandling.executeGET("http://replica.test:8888/dns").bodyAsString.get() == "resolved"
+            cachingDns.entries["replica.test"]*.hostAddress == ["127.0.0.1"]
+            cachingDns.stats.missCount == 1
+    }
+}
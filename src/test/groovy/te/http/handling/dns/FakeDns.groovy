@@ -0,0 +1,31 @@
+package te.http.handling.dns
+
+import okhttp3.Dns
+
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * A resolver answering from a map of hostnames to IP addresses, which can be made to fail.
+ */
+class FakeDns implements Dns {
+
+    Map<String, List<String>> records = [:]
+    volatile boolean failing = false
+    AtomicInteger lookupCount = new AtomicInteger()
+
+    FakeDns answer(String hostname, String... ips) {
+        records[hostname] = ips.toList()
+        return this
+    }
+
+    @Override
+    List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        lookupCount.incrementAndGet()
+
+        if (failing || !records.containsKey(hostname)) {
+            throw new UnknownHostException(hostname)
+        }
+
+        return records[hostname].collect { InetAddress.getByAddress(hostname, InetAddress.getByName(it).address) }
+    }
+}
@@ -1,5 +1,6 @@
 package te.http.handling.exceptions
 
+import okhttp3.MediaType
 import okhttp3.Protocol
 import okhttp3.Request
 import okhttp3.Response
@@ -83,4 +84,67 @@ class ExceptionMessageBuilderTest extends Specification {
             """.stripIndent()
     }
 
+    @Unroll
+    def "when a non-200 occurs the message includes at most #maxBodyBytes bytes of the body"() {
+        given:
+            def request = new Request.Builder()
+                    .url("https://www.google.com")
+                    .get()
+                    .build()
+
+        and:
+            def httpResponse = new HttpResponse(
+                    new Response.Builder()
+                            .request(request)
+                            .code(500)
+                            .body(ResponseBody.create(HttpRequestHandling.applicationJSON, "payload"))
+                            .message("Server Error")
+                            .protocol(Protocol.HTTP_1_1)
+                            .build()
+            )
+
+        when:
+            def message = exceptionMessageBuilder.buildNon200ResponseMessage(httpResponse, maxBodyBytes)
+
+        then:
+            message == """\
+            Request returned 500!
+            \tURL = https://www.google.com/
+            \tMethod = GET
+            \tMessage = Server Error
+            \tBody = $body
+            """.stripIndent()
+
+        where:
+            maxBodyBytes || body
+            100          || 'payload'
+            7            || 'payload'
+            3            || 'pay... (4 more bytes)'
+            0            || '... (7 more bytes)'
+    }
+
+    @Unroll
+    def "the body is decoded with the #contentType charset and truncated on a character boundary"() {
+        given:
+            def request = new Request.Builder().url("https://www.google.com").build()
+            def httpResponse = new HttpResponse(
+                    new Response.Builder()
+                            .request(request)
+                            .code(500)
+                            .body(ResponseBody.create(MediaType.parse(contentType), "h\u00e9llo \ud83d\ude00"))
+                            .message("Server Error")
+                            .protocol(Protocol.HTTP_1_1)
+                            .build()
+            )
+
+        expect:
+            exceptionMessageBuilder.buildNon200ResponseMessage(httpResponse, maxBodyBytes).contains("\tBody = $body\n")
+
+        where:
+            contentType                        | maxBodyBytes || body
+            'text/plain; charset=utf-8'        | 100          || 'h\u00e9llo \ud83d\ude00'
+            'text/plain; charset=utf-8'        | 2            || 'h... (10 more bytes)'
+            'text/plain; charset=utf-8'        | 9            || 'h\u00e9llo ... (4 more bytes)'
+            'text/plain; charset=iso-8859-1'   | 2            || 'h\u00e9... (5 more bytes)'
+    }
 }
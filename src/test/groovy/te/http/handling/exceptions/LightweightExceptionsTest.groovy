@@ -0,0 +1,61 @@
+package te.http.handling.exceptions
+
+import okhttp3.Request
+import spock.lang.Specification
+import spock.lang.Unroll
+import te.http.handling.HttpRequestHandling
+import te.http.handling.error.exceptions.HttpClientException
+import te.http.handling.error.exceptions.HttpServerException
+
+import static te.http.TestHelper.buildResponse
+
+class LightweightExceptionsTest extends Specification {
+
+    Request request = new Request.Builder().url("http://localhost/resource").build()
+
+    boolean lightweight = true
+
+    HttpRequestHandling requestHandling = new HttpRequestHandling() {
+        @Override
+        boolean isLightweightNon200Exceptions() {
+            return lightweight
+        }
+
+        @Override
+        long getMaxErrorBodyBytes() {
+            return 4
+        }
+    }
+
+    @Unroll
+    def "a #statusCode response throws a lightweight #exceptionType.simpleName when enabled"() {
+        when:
+            requestHandling.handleNon200Response(buildResponse(request, statusCode, 'not found here'))
+
+        then:
+            IOException exception = thrown()
+            exceptionType.isInstance(exception)
+            exception.stackTrace.length == 0
+            exception.httpResponse.statusCode == statusCode
+            exception.message.contains("Body = not ... (10 more bytes)")
+            exception.message.is(exception.message)
+
+        where:
+            statusCode || exceptionType
+            404        || HttpClientException
+            503        || HttpServerException
+    }
+
+    def "exceptions capture a stack trace & the whole body by default"() {
+        given:
+            lightweight = false
+
+        when:
+            requestHandling.handleNon200Response(buildResponse(request, 404, 'not found here'))
+
+        then:
+            HttpClientException exception = thrown()
+            exception.stackTrace.length > 0
+            exception.message.contains("Body = not found here")
+    }
+}
@@ -0,0 +1,251 @@
+package te.http.handling.hedging
+
+import okhttp3.Headers
+import okhttp3.Request
+import okhttp3.RequestBody
+import spock.lang.Specification
+import te.http.handling.GETRequestHandling
+import te.http.handling.HttpRequestHandling
+import te.http.handling.HttpResponse
+import te.http.handling.error.exceptions.CircuitBreakerOpenException
+import te.http.handling.error.exceptions.HttpClientException
+import te.http.handling.error.exceptions.HttpServerException
+import te.http.handling.error.exceptions.NoResponseException
+import te.http.handling.resilience.CircuitBreaker
+import te.http.handling.resilience.Resilience
+import te.http.handling.resilience.RetryBudget
+import te.http.handling.resilience.RetryPolicy
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+
+import static te.http.TestHelper.buildEmpty200ResponseFor
+import static te.http.TestHelper.buildResponse
+
+class HedgingPolicyTest extends Specification {
+
+    Request request = new Request.Builder().url("http://localhost/resource").build()
+
+    HedgingPolicy hedgingPolicy = HedgingPolicy.afterDelay(Duration.ofMillis(20)).setBudget(null)
+    List<CompletableFuture<HttpResponse>> attempts = []
+
+    def executor = { Request request ->
+        def attempt = new CompletableFuture<HttpResponse>()
+        attempts << attempt
+        return attempt
+    }
+
+    def "requests that complete before the delay are not hedged"() {
+        when:
+            def result = hedgingPolicy.executeAsync(request, { CompletableFuture.completedFuture(buildEmpty200ResponseFor(it)) })
+
+        then:
+            result.get().is200()
+
+        when:
+            Thread.sleep(50)
+
+        then:
+            hedgingPolicy.hedgeCount == 0
+    }
+
+    def "a slow request is hedged, the first response wins and the other attempt is cancelled"() {
+        when:
+            def result = hedgingPolicy.executeAsync(request, executor)
+            Thread.sleep(60)
+
+        then:
+            attempts.size() == 2
+            !result.isDone()
+
+        when:
+            attempts[1].complete(buildEmpty200ResponseFor(request))
+
+        then:
+            result.get(1, TimeUnit.SECONDS).is200()
+            attempts[0].isCancelled()
+            hedgingPolicy.hedgeCount == 1
+            hedgingPolicy.hedgeWinCount == 1
+    }
+
+    def "a failed attempt only fails the call once no other attempt is in-flight"() {
+        given:
+            def result = hedgingPolicy.executeAsync(request, executor)
+            Thread.sleep(60)
+
+        when:
+            attempts[0].completeExceptionally(new NoResponseException(new IOException("reset"), request))
+
+        then:
+            !result.isDone()
+
+        when:
+            attempts[1].completeExceptionally(new NoResponseException(new IOException("reset"), request))
+            result.get(1, TimeUnit.SECONDS)
+
+        then:
+            ExecutionException exception = thrown()
+            exception.cause instanceof NoResponseException
+    }
+
+    def "a client error is final, and a failure before the delay is not hedged"() {
+        given:
+            def result = hedgingPolicy.executeAsync(request, executor)
+
+        when:
+            attempts[0].completeExceptionally(failure)
+            result.get(1, TimeUnit.SECONDS)
+
+        then:
+            ExecutionException exception = thrown()
+            exception.cause.is(failure)
+
+        when:
+            Thread.sleep(60)
+
+        then:
+            attempts.size() == 1
+
+        where:
+            failure << [
+                    new HttpClientException(buildResponse(new Request.Builder().url("http://localhost").build(), 404, "missing")),
+                    new NoResponseException(new IOException("reset"), new Request.Builder().url("http://localhost").build())
+            ]
+    }
+
+    def "hedges are capped by the budget"() {
+        given:
+            hedgingPolicy.setBudget(new RetryBudget(0, 0))
+
+        when:
+            hedgingPolicy.executeAsync(request, executor)
+            Thread.sleep(60)
+
+        then:
+            attempts.size() == 1
+            hedgingPolicy.hedgeCount == 0
+    }
+
+    def "only GET & HEAD requests are hedged"() {
+        given:
+            def post = request.newBuilder().post(RequestBody.create(null, "")).build()
+
+        when:
+            hedgingPolicy.executeAsync(post, executor)
+            Thread.sleep(60)
+
+        then:
+            attempts.size() == 1
+    }
+
+    def "a percentile-based delay is learned from each window of latencies"() {
+        given:
+            def hedgingPolicy = HedgingPolicy.afterPercentile(50, Duration.ofSeconds(1)).setWindowSize(4)
+
+        expect:
+            hedgingPolicy.delay == Duration.ofSeconds(1)
+
+        when:
+            [10, 20, 30, 40].each { hedgingPolicy.recordLatency(TimeUnit.MILLISECONDS.toNanos(it)) }
+
+        then:
+            hedgingPolicy.delay.toMillis() in (19L..21L)
+    }
+
+    def "invalid settings are rejected"() {
+        when:
+            setting(HedgingPolicy.afterPercentile(95, Duration.ofSeconds(1)))
+
+        then:
+            thrown(IllegalArgumentException)
+
+        where:
+            setting << [
+                    { HedgingPolicy policy -> policy.setWindowSize(0) },
+                    { HedgingPolicy policy -> policy.setMaxHedges(-1) }
+            ]
+    }
+
+    def "executeGET() hedges via executeRequestAsync() when a hedging policy is configured"() {
+        given:
+            def policy = hedgingPolicy
+            def requestHandling = new GETRequestHandling() {
+                @Override
+                Headers getDefaultHeaders() {
+                    return Headers.of()
+                }
+
+                @Override
+                HttpResponse executeRequest(Request request) {
+                    throw new UnsupportedOperationException()
+                }
+
+                @Override
+                CompletableFuture<HttpResponse> executeRequestAsync(Request request) {
+                    return executor(request)
+                }
+
+                @Override
+                HedgingPolicy getHedgingPolicy() {
+                    return policy
+                }
+            }
+
+        when:
+            def attempts = attempts
+            Thread.start {
+                while (attempts.size() < 2) Thread.sleep(5)
+                attempts[1].complete(buildEmpty200ResponseFor(request))
+            }
+            HttpResponse response = requestHandling.executeGET("http://localhost/resource")
+
+        then:
+            response.is200()
+            attempts.size() == 2
+            attempts[0].isCancelled()
+    }
+
+    def "hedged GETs go through the circuit breaker of getResilience()"() {
+        given:
+            def breaker = new CircuitBreaker(1, Duration.ofMinutes(1))
+            def resilience = new Resilience(new RetryPolicy(), null, breaker)
+            def policy = hedgingPolicy
+            int sent = 0
+            def requestHandling = new HttpRequestHandling() {
+                @Override
+                Resilience getResilience() {
+                    return resilience
+                }
+
+                @Override
+                HedgingPolicy getHedgingPolicy() {
+                    return policy
+                }
+
+                @Override
+                CompletableFuture<HttpResponse> executeAttemptAsync(Request request) {
+                    sent++
+                    def attempt = new CompletableFuture<HttpResponse>()
+                    attempt.completeExceptionally(new HttpServerException(buildResponse(request, 503, "unavailable")))
+                    return attempt
+                }
+            }
+
+        when:
+            requestHandling.executeGET("http://localhost/resource")
+
+        then: 'the failed attempt opened the circuit'
+            thrown(HttpServerException)
+            sent == 1
+            breaker.getState(request.url()) == CircuitBreaker.State.OPEN
+
+        when:
+            requestHandling.executeGET("http://localhost/resource")
+
+        then: 'neither the request nor its hedge is sent'
+            thrown(CircuitBreakerOpenException)
+            sent == 1
+    }
+}
@@ -0,0 +1,239 @@
+package te.http.handling.loadbalancing
+
+import okhttp3.Request
+import org.mockserver.integration.ClientAndServer
+import spock.lang.Shared
+import spock.lang.Specification
+import te.http.handling.HttpRequestHandling
+import te.http.handling.HttpResponse
+import te.http.handling.RequestExecutor
+import te.http.handling.error.exceptions.CircuitBreakerOpenException
+import te.http.handling.error.exceptions.HttpServerException
+import te.http.handling.error.exceptions.NoResponseException
+import te.http.handling.error.exceptions.RateLimitExceededException
+
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+import java.util.function.LongSupplier
+
+import static org.mockserver.model.HttpRequest.request
+import static org.mockserver.model.HttpResponse.response
+
+class EndpointGroupTest extends Specification {
+
+    @Shared
+    List<ClientAndServer> servers = [8891, 8892, 8893].collect { ClientAndServer.startClientAndServer(it) }
+
+    HttpRequestHandling requestHandling = new HttpRequestHandling() {}
+
+    String path = '/replicated'
+
+    def setup() {
+        servers*.reset()
+    }
+
+    def cleanupSpec() {
+        servers*.stop()
+    }
+
+    def "sends most requests to the faster endpoints"() {
+        given:
+            servers[0].when(request().withPath(path)).respond(response('slow').withDelay(TimeUnit.MILLISECONDS, 300))
+            servers[1].when(request().withPath(path)).respond(response('fast'))
+            servers[2].when(request().withPath(path)).respond(response('fast'))
+
+        and:
+            EndpointGroup endpoints = new EndpointGroup(baseUrls())
+
+        when:
+            List<String> bodies = (1..30).collect { requestHandling.executeGET(endpoints, path).bodyAsString.get() }
+
+        then:
+            bodies.count { it == 'slow' } <= 2
+            endpoints.endpoints*.requestCount.sum() == 30
+            endpoints.endpoints[0].ewmaLatency >= Duration.ofMillis(300)
+    }
+
+    def "ejects an endpoint that responds with 5xx, sending later requests to the others"() {
+        given:
+            servers[0].when(request().withPath(path)).respond(response().withStatusCode(503))
+            servers[1].when(request().withPath(path)).respond(response('ok'))
+            servers[2].when(request().withPath(path)).respond(response('ok'))
+
+        and:
+            EndpointGroup endpoints = new EndpointGroup(baseUrls()).setFailuresBeforeEjection(1)
+
+        when:
+            List<Object> results = (1..20).collect {
+                try {
+                    requestHandling.executeGET(endpoints, path, [page: it]).bodyAsString.get()
+                } catch (HttpServerException ex) {
+                    ex
+                }
+            }
+
+        then:
+            results.count { it instanceof HttpServerException } <= 1
+            servers[0].retrieveRecordedRequests(request().withPath(path)).length <= 1
+
+        and: 'the state of each endpoint is exposed'
+            endpoints.endpoints[0].baseUrl == "http://localhost:8891"
+            endpoints.endpoints[0].failureCount == endpoints.endpoints[0].requestCount
+            endpoints.endpoints[0].requestCount == 0 || endpoints.endpoints[0].ejected
+            endpoints.endpoints[1..2].every { !it.ejected && it.failureCount == 0 && it.inFlight == 0 }
+            endpoints.toString().contains("http://localhost:8892")
+    }
+
+    def "ejects an endpoint that does not respond"() {
+        given:
+            servers[0].when(request().withPath(path)).respond(response('ok'))
+
+        and:
+            EndpointGroup endpoints = new EndpointGroup("http://localhost:8899/", "http://localhost:8891/")
+                    .setFailuresBeforeEjection(1)
+
+        when:
+            List<Object> results = (1..10).collect {
+                try {
+                    requestHandling.executePOST(endpoints, path, requestHandling.applicationJSON, '{}').bodyAsString.get()
+                } catch (NoResponseException ex) {
+                    ex
+                }
+            }
+
+        then:
+            results.count { it instanceof NoResponseException } <= 1
+            results.count { it == 'ok' } >= 9
+            servers[0].retrieveRecordedRequests(request().withPath(path).withMethod("POST")).length >= 9
+    }
+
+    def "an ejected endpoint is selected again once its ejection has expired"() {
+        given:
+            long nowNanos = 0
+            EndpointGroup endpoints = new EndpointGroup(["http://a", "http://b"], { -> nowNanos } as LongSupplier)
+                    .setFailuresBeforeEjection(2)
+                    .setEjectionDuration(Duration.ofSeconds(10))
+
+        when:
+            recordFailure(endpoints.endpoints[0])
+
+        then:
+            !endpoints.endpoints[0].ejected
+
+        when:
+            recordFailure(endpoints.endpoints[0])
+
+        then:
+            endpoints.endpoints[0].ejected
+            (1..20).every { endpoints.select().is(endpoints.endpoints[1]) }
+
+        when:
+            nowNanos += Duration.ofSeconds(10).toNanos()
+
+        then:
+            !endpoints.endpoints[0].ejected
+    }
+
+    def "requests that were never sent say nothing about the endpoint"() {
+        given:
+            EndpointGroup endpoints = new EndpointGroup(["http://a"]).setFailuresBeforeEjection(1)
+
+        when:
+            endpoints.execute({ new Request.Builder().url(it).build() }, { Request request ->
+                throw exception(request)
+            } as RequestExecutor)
+
+        then:
+            thrown(NoResponseException)
+            !endpoints.endpoints[0].ejected
+            endpoints.endpoints[0].failureCount == 0
+            endpoints.endpoints[0].inFlight == 0
+
+        where:
+            exception << [
+                    { Request request -> new RateLimitExceededException(request, Duration.ofSeconds(1)) },
+                    { Request request -> new CircuitBreakerOpenException(request) }
+            ]
+    }
+
+    def "a request that was sent counts as a failure even if its exception has no cause"() {
+        given:
+            EndpointGroup endpoints = new EndpointGroup(["http://a"]).setFailuresBeforeEjection(1)
+
+        when:
+            endpoints.execute({ new Request.Builder().url(it).build() }, { Request request ->
+                throw new NoResponseException("Response was cut short", request)
+            } as RequestExecutor)
+
+        then:
+            thrown(NoResponseException)
+            endpoints.endpoints[0].ejected
+            endpoints.endpoints[0].failureCount == 1
+    }
+
+    def "the latency of an endpoint decays while it is not selected, so it recovers from a single slow request"() {
+        given:
+            long nowNanos = 0
+            EndpointGroup endpoints = new EndpointGroup(["http://a", "http://b"], { -> nowNanos } as LongSupplier)
+            def (slow, fast) = endpoints.endpoints
+            def recordLatency = { EndpointGroup.Endpoint endpoint, Duration latency ->
+                long startNanos = endpoint.start()
+                nowNanos += latency.toNanos()
+                endpoint.complete(startNanos, null, null)
+            }
+
+        when:
+            recordLatency(slow, Duration.ofSeconds(1))
+            recordLatency(fast, Duration.ofMillis(10))
+
+        then:
+            (1..20).every { endpoints.select().is(fast) }
+
+        when: 'only the other endpoint serves requests for a while'
+            60.times {
+                nowNanos += Duration.ofSeconds(1).toNanos()
+                recordLatency(fast, Duration.ofMillis(10))
+            }
+
+        then:
+            slow.ewmaLatency < fast.ewmaLatency
+            endpoints.select().is(slow)
+    }
+
+    def "a request is sent to the endpoint with fewer requests in-flight when latencies are equal"() {
+        given:
+            EndpointGroup endpoints = new EndpointGroup(["http://a", "http://b"])
+            endpoints.endpoints[0].start()
+
+        expect:
+            endpoints.select().is(endpoints.endpoints[1])
+    }
+
+    def "executeGETAsync() sends the request to an endpoint of the group"() {
+        given:
+            servers[1].when(request().withPath(path)).respond(response('ok'))
+            EndpointGroup endpoints = new EndpointGroup("http://localhost:8892")
+
+        when:
+            HttpResponse httpResponse = requestHandling.executeGETAsync(endpoints, path, null).get(5, TimeUnit.SECONDS)
+
+        then:
+            httpResponse.bodyAsString.get() == 'ok'
+            endpoints.endpoints[0].requestCount == 1
+    }
+
+    private static List<String> baseUrls() {
+        return ["http://localhost:8891", "http://localhost:8892", "http://localhost:8893"]
+    }
+
+    /**
+     * Records a failed request against 'endpoint' specifically, rather than the one the group
+     * selects.
+     */
+    private static void recordFailure(EndpointGroup.Endpoint endpoint) {
+        long startNanos = endpoint.start()
+        Request request = new Request.Builder().url(endpoint.baseUrl).build()
+
+        endpoint.complete(startNanos, null, new NoResponseException(new IOException("reset"), request))
+    }
+}
@@ -0,0 +1,70 @@
+package te.http.handling.metrics
+
+import org.junit.Rule
+import org.mockserver.junit.MockServerRule
+import spock.lang.Specification
+import te.http.handling.HttpRequestHandling
+import te.http.handling.error.exceptions.NoResponseException
+
+import static org.mockserver.model.HttpRequest.request
+import static org.mockserver.model.HttpResponse.response
+
+class HttpMetricsTest extends Specification {
+
+    @Rule
+    MockServerRule webServer = new MockServerRule(this)
+
+    InMemoryMetricsReporter reporter = new InMemoryMetricsReporter()
+    HttpMetrics metrics = new HttpMetrics(reporter)
+
+    HttpRequestHandling requestHandling = new HttpRequestHandling() {
+        @Override
+        HttpMetrics getHttpMetrics() {
+            return metrics
+        }
+    }
+
+    def "records the phases of each request per host"() {
+        given:
+            webServer.getClient()
+                    .when(request().withPath("/metrics"))
+                    .respond(response('{"name":"value"}'))
+
+        when:
+            3.times {
+                requestHandling.fromJson(requestHandling.executeGET("http://localhost:${webServer.port}/metrics").bodyAsString.get(), Map)
+            }
+            def snapshot = metrics.publish()
+
+        then:
+            reporter.latest.is(snapshot)
+            snapshot.getHistogram("localhost", Phase.TOTAL).count == 3
+            snapshot.getHistogram("localhost", Phase.TIME_TO_FIRST_BYTE).count == 3
+            snapshot.getHistogram("localhost", Phase.RESPONSE_BODY).count == 3
+            snapshot.getHistogram("localhost", Phase.QUEUE).count == 3
+            snapshot.getHistogram(HttpMetrics.ANY_HOST, Phase.DESERIALIZATION).count == 3
+
+        and: 'a new connection was made once, then pooled, alongside other tests connections'
+            snapshot.getHistogram("localhost", Phase.CONNECT).count == 1
+            snapshot.connectionCount >= 1
+            snapshot.idleConnectionCount == snapshot.connectionCount
+    }
+
+    def "records calls that failed without a response"() {
+        when:
+            requestHandling.executeGET("http://localhost:1/unreachable")
+
+        then:
+            thrown(NoResponseException)
+            metrics.snapshot().getFailureCount("localhost") == 1
+            metrics.snapshot().getHistogram("localhost", Phase.CONNECT).count >= 1
+    }
+
+    def "decorating the same client twice reuses the decorated client"() {
+        given:
+            def client = requestHandling.getHttpClient()
+
+        expect:
+            metrics.decorate(client).is(metrics.decorate(client))
+    }
+}
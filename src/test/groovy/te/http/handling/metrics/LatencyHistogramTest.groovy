@@ -0,0 +1,54 @@
+package te.http.handling.metrics
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class LatencyHistogramTest extends Specification {
+
+    @Unroll
+    def "#value is recorded in a bucket whose upper bound is within ~6% of it"() {
+        given:
+            int index = LatencyHistogram.indexOf(value)
+
+        expect:
+            LatencyHistogram.highestValueIn(index) >= value
+            LatencyHistogram.highestValueIn(index) <= value * 1.0625 + 1
+            index == 0 || LatencyHistogram.highestValueIn(index - 1) < value
+
+        where:
+            value << [0, 1, 15, 16, 17, 31, 32, 1_000, 123_456, 1_000_000_000, LatencyHistogram.MAX_VALUE]
+    }
+
+    def "percentiles, mean and max are computed from the recorded values"() {
+        given:
+            def histogram = new LatencyHistogram()
+
+        when:
+            (1..100).each { histogram.record(it * 1_000L) }
+            def snapshot = histogram.snapshot()
+
+        then:
+            snapshot.count == 100
+            snapshot.max == 100_000
+            snapshot.mean == 50_500
+            Math.abs(snapshot.getValueAtPercentile(50) - 50_000) <= 50_000 * 0.0625
+            Math.abs(snapshot.getValueAtPercentile(99) - 99_000) <= 99_000 * 0.0625
+            snapshot.getValueAtPercentile(100) == 100_000
+    }
+
+    def "an empty histogram reports zeros and out-of-range values are clamped"() {
+        given:
+            def histogram = new LatencyHistogram()
+
+        expect:
+            histogram.snapshot().getValueAtPercentile(99) == 0
+
+        when:
+            histogram.record(-5)
+            histogram.record(Long.MAX_VALUE)
+
+        then:
+            histogram.snapshot().count == 2
+            histogram.snapshot().max == LatencyHistogram.MAX_VALUE
+    }
+}
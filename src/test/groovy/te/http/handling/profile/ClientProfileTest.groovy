@@ -0,0 +1,161 @@
+package te.http.handling.profile
+
+import okhttp3.HttpUrl
+import org.junit.Rule
+import org.mockserver.junit.MockServerRule
+import org.mockserver.model.Delay
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+import te.http.handling.HttpRequestHandling
+import te.http.handling.HttpResponse
+import te.http.handling.error.exceptions.BulkheadFullException
+import te.http.handling.resilience.CircuitBreaker
+import te.http.handling.resilience.Resilience
+import te.http.handling.resilience.RetryPolicy
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+
+import static org.mockserver.model.HttpRequest.request
+import static org.mockserver.model.HttpResponse.response
+
+class ClientProfileTest extends Specification {
+
+    PollingConditions conditions = new PollingConditions(timeout: 5)
+
+    @Rule
+    MockServerRule webServer = new MockServerRule(this)
+
+    HttpRequestHandling requestHandlingWith(ClientProfile profile) {
+        return new HttpRequestHandling() {
+            @Override
+            ClientProfile getClientProfile() {
+                return profile
+            }
+        }
+    }
+
+    def "the client is built from the profile's settings"() {
+        given:
+            def profile = ClientProfile.named("payments")
+                    .setMaxIdleConnections(2)
+                    .setMaxRequests(10)
+                    .setMaxRequestsPerHost(3)
+                    .setConnectTimeout(Duration.ofSeconds(1))
+                    .setReadTimeout(Duration.ofSeconds(2))
+                    .setWriteTimeout(Duration.ofSeconds(3))
+                    .setCallTimeout(Duration.ofSeconds(4))
+
+        when:
+            def client = requestHandlingWith(profile).getHttpClient()
+
+        then:
+            client.is(profile.getHttpClient())
+            client.dispatcher().maxRequests == 10
+            client.dispatcher().maxRequestsPerHost == 3
+            client.connectTimeoutMillis() == 1000
+            client.readTimeoutMillis() == 2000
+            client.writeTimeoutMillis() == 3000
+            client.callTimeoutMillis() == 4000
+    }
+
+    def "profiles cannot be changed once their client has been built"() {
+        given:
+            def profile = ClientProfile.named("built")
+            profile.getHttpClient()
+
+        when:
+            profile.setMaxRequests(1)
+
+        then:
+            thrown(IllegalStateException)
+    }
+
+    def "profiles can share a connection pool"() {
+        given:
+            def first = ClientProfile.named("first")
+            def second = ClientProfile.named("second").setConnectionPool(first.getHttpClient().connectionPool())
+
+        expect:
+            second.getHttpClient().connectionPool().is(first.getHttpClient().connectionPool())
+            !second.getHttpClient().dispatcher().is(first.getHttpClient().dispatcher())
+    }
+
+    def "a full bulkhead rejects calls to its host without sending them"() {
+        given:
+            def profile = ClientProfile.named("bulkheaded").setBulkhead(1, Duration.ZERO)
+            def requestHandling = requestHandlingWith(profile)
+            String url = "http://localhost:${webServer.port}/slow"
+
+        and:
+            webServer.getClient()
+                    .when(request().withPath("/slow"))
+                    .respond(response("slow").withDelay(new Delay(TimeUnit.MILLISECONDS, 500)))
+
+        when:
+            CompletableFuture<HttpResponse> inFlight = requestHandling.executeGETAsync(url)
+            conditions.eventually { assert profile.stats.inFlightCallsPerHost["localhost:${webServer.port}".toString()] == 1 }
+            requestHandling.executeGET(url)
+
+        then: 'the request is reported as never sent'
+            BulkheadFullException exception = thrown()
+            exception.cause == null
+            exception.request.url().toString() == url
+
+        and:
+            profile.stats.bulkheadRejectedCount == 1
+            inFlight.get(5, TimeUnit.SECONDS).bodyAsString.get() == "slow"
+            profile.stats.inFlightCallsPerHost["localhost:${webServer.port}".toString()] == 0
+    }
+
+    def "calls wait for a bulkhead slot up to the max wait"() {
+        given:
+            def profile = ClientProfile.named("waiting").setBulkhead(1, Duration.ofSeconds(5))
+            def requestHandling = requestHandlingWith(profile)
+            String url = "http://localhost:${webServer.port}/slow"
+
+        and:
+            webServer.getClient()
+                    .when(request().withPath("/slow"))
+                    .respond(response("slow").withDelay(new Delay(TimeUnit.MILLISECONDS, 200)))
+
+        when:
+            def responses = [requestHandling.executeGETAsync(url), requestHandling.executeGETAsync(url)]*.get(5, TimeUnit.SECONDS)
+
+        then:
+            responses*.statusCode == [200, 200]
+            profile.stats.bulkheadRejectedCount == 0
+    }
+
+    def "requests rejected by a bulkhead are neither retried nor counted by the circuit breaker"() {
+        given:
+            def profile = ClientProfile.named("resilient-bulkhead").setBulkhead(1, Duration.ZERO)
+            def breaker = new CircuitBreaker(1, Duration.ofMinutes(1))
+            def resilience = new Resilience(new RetryPolicy().setInitialBackoff(Duration.ofMillis(1)), null, breaker)
+            def requestHandling = new HttpRequestHandling() {
+                @Override
+                ClientProfile getClientProfile() { profile }
+
+                @Override
+                Resilience getResilience() { resilience }
+            }
+            String url = "http://localhost:${webServer.port}/slow"
+
+        and:
+            webServer.getClient()
+                    .when(request().withPath("/slow"))
+                    .respond(response("slow").withDelay(new Delay(TimeUnit.MILLISECONDS, 500)))
+
+        when:
+            CompletableFuture<HttpResponse> inFlight = requestHandling.executeGETAsync(url)
+            conditions.eventually { assert profile.stats.inFlightCallsPerHost["localhost:${webServer.port}".toString()] == 1 }
+            requestHandling.executeGET(url)
+
+        then:
+            thrown(BulkheadFullException)
+            profile.stats.bulkheadRejectedCount == 1
+            breaker.getState(HttpUrl.get(url)) == CircuitBreaker.State.CLOSED
+            inFlight.get(5, TimeUnit.SECONDS).statusCode == 200
+    }
+}
@@ -0,0 +1,214 @@
+package te.http.handling.ratelimit
+
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import org.junit.Rule
+import org.mockserver.junit.MockServerRule
+import spock.lang.Specification
+import te.http.handling.HttpRequestHandling
+import te.http.handling.error.exceptions.RateLimitExceededException
+
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneOffset
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.function.LongSupplier
+
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME
+import static org.mockserver.model.HttpRequest.request
+import static org.mockserver.model.HttpResponse.response
+
+class RateLimiterTest extends Specification {
+
+    @Rule
+    MockServerRule webServer = new MockServerRule(this, 8888)
+
+    long nowNanos = 0
+    RateLimiter rateLimiter = new RateLimiter({ -> nowNanos } as LongSupplier)
+            .setMode(RateLimiter.Mode.FAIL_FAST)
+
+    Request search = new Request.Builder().url("http://example.com/search?q=1").build()
+    Request users = new Request.Builder().url("http://example.com/users").build()
+    Request other = new Request.Builder().url("http://other.com/").build()
+
+    def "allows a burst, then one permit per interval"() {
+        given:
+            rateLimiter.limitHost("example.com", 10, 3)
+
+        expect:
+            (1..3).every { rateLimiter.tryAcquire(users) }
+            !rateLimiter.tryAcquire(users)
+
+        when:
+            nowNanos += TimeUnit.MILLISECONDS.toNanos(100)
+
+        then:
+            rateLimiter.tryAcquire(users)
+            !rateLimiter.tryAcquire(users)
+    }
+
+    def "the longest matching URL prefix takes precedence over the host, & unmatched hosts are not limited"() {
+        given:
+            rateLimiter
+                    .limitHost("example.com", 100, 100)
+                    .limitUrlPrefix("http://example.com/", 100, 100)
+                    .limitUrlPrefix("http://example.com/search", 1, 1)
+
+        expect:
+            rateLimiter.tryAcquire(search)
+            !rateLimiter.tryAcquire(search)
+            rateLimiter.getAvailablePermits(users.url()) == 100
+            rateLimiter.getAvailablePermits(other.url()) == Integer.MAX_VALUE
+    }
+
+    def "the default limit gives every other host its own bucket"() {
+        given:
+            rateLimiter.setDefaultLimit(1, 1)
+
+        expect:
+            rateLimiter.tryAcquire(users)
+            rateLimiter.tryAcquire(other)
+            !rateLimiter.tryAcquire(users)
+    }
+
+    def "fails fast with the time until the next permit"() {
+        given:
+            rateLimiter.limitHost("example.com", 2, 1)
+            rateLimiter.acquire(users)
+
+        when:
+            rateLimiter.acquire(users)
+
+        then:
+            RateLimitExceededException exception = thrown()
+            exception.retryAfter == Duration.ofMillis(500)
+            exception.request.is(users)
+    }
+
+    def "blocks until a permit is available, up to the max wait"() {
+        given:
+            def rateLimiter = new RateLimiter()
+                    .limitHost("example.com", 20, 1)
+                    .setMaxWait(Duration.ofMillis(60))
+
+        when:
+            long start = System.nanoTime()
+            rateLimiter.acquire(users)
+            rateLimiter.acquire(users)
+            long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+
+        then:
+            waitedMillis >= 40
+
+        when: 'the next permit is further away than the max wait'
+            rateLimiter.limitHost("example.com", 10, 1)
+            rateLimiter.acquire(users)
+            rateLimiter.acquire(users)
+
+        then:
+            thrown(RateLimitExceededException)
+    }
+
+    def "waits asynchronously for a permit"() {
+        given:
+            def rateLimiter = new RateLimiter().limitHost("example.com", 20, 1)
+
+        when:
+            rateLimiter.acquireAsync(users).get(1, TimeUnit.SECONDS)
+            def permit = rateLimiter.acquireAsync(users)
+
+        then:
+            !permit.isDone()
+            permit.get(1, TimeUnit.SECONDS) == null
+    }
+
+    def "pauses a bucket as long as a response asks it to"() {
+        given:
+            rateLimiter.limitHost("example.com", 100, 10)
+
+        when:
+            rateLimiter.onResponse(buildResponse(users, code, headers))
+
+        then:
+            !rateLimiter.tryAcquire(users)
+
+        when:
+            nowNanos += TimeUnit.SECONDS.toNanos(pauseSeconds) - 1
+
+        then:
+            !rateLimiter.tryAcquire(users)
+
+        when:
+            nowNanos += 1
+
+        then:
+            rateLimiter.tryAcquire(users)
+            !rateLimiter.tryAcquire(users)
+
+        where:
+            code | headers                                                    || pauseSeconds
+            429  | ["Retry-After": "2"]                                       || 2
+            503  | ["Retry-After": "5"]                                       || 5
+            200  | ["X-RateLimit-Remaining": "0", "X-RateLimit-Reset": "3"]   || 3
+            200  | ["RateLimit-Remaining": "0", "RateLimit-Reset": "1"]       || 1
+    }
+
+    def "understands Retry-After dates & Unix Epoch resets"() {
+        given:
+            long now = System.currentTimeMillis()
+            def retryAfterDate = buildResponse(users, 429, ["Retry-After": RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(now + 10_000).atZone(ZoneOffset.UTC))])
+            def epochReset = buildResponse(users, 200, ["X-RateLimit-Remaining": "0", "X-RateLimit-Reset": "${(now / 1000 as long) + 60}"])
+
+        expect:
+            RateLimiter.pauseMillisRequestedBy(retryAfterDate, now) in (9_000L..10_000L)
+            RateLimiter.pauseMillisRequestedBy(epochReset, now) in (59_000L..60_000L)
+            RateLimiter.pauseMillisRequestedBy(buildResponse(users, 200, ["Retry-After": "5"]), now) == 0
+            RateLimiter.pauseMillisRequestedBy(buildResponse(users, 200, ["X-RateLimit-Remaining": "1", "X-RateLimit-Reset": "5"]), now) == 0
+    }
+
+    def "requests executed via HttpRequestHandling take a permit & adapt to the response"() {
+        given:
+            String url = "http://localhost:${webServer.port}/limited"
+            webServer.getClient()
+                    .when(request().withPath("/limited"))
+                    .respond(response("{}").withHeader("X-RateLimit-Remaining", "0").withHeader("X-RateLimit-Reset", "60"))
+
+            def limiter = new RateLimiter()
+                    .limitHost("localhost", 100, 100)
+                    .setMode(RateLimiter.Mode.FAIL_FAST)
+            def requestHandling = new HttpRequestHandling() {
+                @Override
+                RateLimiter getRateLimiter() {
+                    return limiter
+                }
+            }
+
+        when:
+            requestHandling.executeGET(url)
+            requestHandling.executeGET(url)
+
+        then:
+            thrown(RateLimitExceededException)
+
+        when:
+            requestHandling.executeGETAsync(url).get(1, TimeUnit.SECONDS)
+
+        then:
+            ExecutionException exception = thrown()
+            exception.cause instanceof RateLimitExceededException
+    }
+
+    private static Response buildResponse(Request request, int code, Map<String, String> headers) {
+        def builder = new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("")
+
+        headers.each { name, value -> builder.header(name, value) }
+
+        return builder.build()
+    }
+}
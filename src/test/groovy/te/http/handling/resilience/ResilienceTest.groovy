@@ -0,0 +1,352 @@
+package te.http.handling.resilience
+
+import okhttp3.HttpUrl
+import okhttp3.Request
+import okhttp3.RequestBody
+import spock.lang.Shared
+import spock.lang.Specification
+import te.http.handling.HttpRequestHandling
+import te.http.handling.HttpResponse
+import te.http.handling.StreamingHttpResponse
+import te.http.handling.StreamingRequestExecutor
+import te.http.handling.concurrency.AdaptiveConcurrencyLimiter
+import te.http.handling.concurrency.AimdLimit
+import te.http.handling.error.exceptions.CircuitBreakerOpenException
+import te.http.handling.error.exceptions.ConcurrencyLimitExceededException
+import te.http.handling.error.exceptions.HttpClientException
+import te.http.handling.error.exceptions.HttpServerException
+import te.http.handling.error.exceptions.NoResponseException
+import te.http.handling.error.exceptions.RateLimitExceededException
+
+import java.time.Duration
+import java.util.function.LongSupplier
+import java.util.function.Supplier
+
+import static te.http.TestHelper.buildEmpty200ResponseFor
+import static te.http.TestHelper.buildResponse
+
+class ResilienceTest extends Specification {
+
+    @Shared Request get = new Request.Builder().url("http://localhost/resource").build()
+    @Shared Request post = get.newBuilder().post(RequestBody.create(null, "")).build()
+
+    RetryPolicy retryPolicy = new RetryPolicy()
+            .setMaxAttempts(3)
+            .setInitialBackoff(Duration.ofMillis(1))
+
+    def "retries 503 responses up to the max attempts"() {
+        given:
+            def resilience = new Resilience(retryPolicy, null, null)
+            int attempts = 0
+
+        when:
+            resilience.execute(get, { request ->
+                attempts++
+                throw new HttpServerException(buildResponse(request, 503, "unavailable"))
+            })
+
+        then:
+            thrown(HttpServerException)
+            attempts == 3
+    }
+
+    def "returns the first successful response"() {
+        given:
+            def resilience = new Resilience(retryPolicy, null, null)
+            int attempts = 0
+
+        when:
+            HttpResponse response = resilience.execute(get, { request ->
+                if (++attempts < 2) throw new NoResponseException(new IOException("reset"), request)
+                return buildEmpty200ResponseFor(request)
+            })
+
+        then:
+            response.is200()
+            attempts == 2
+    }
+
+    def "does not retry client errors, read timeouts or non-idempotent requests"() {
+        given:
+            def resilience = new Resilience(retryPolicy, null, null)
+            int attempts = 0
+
+        when:
+            resilience.execute(request, { req ->
+                attempts++
+                throw exception(req)
+            })
+
+        then:
+            thrown(Exception)
+            attempts == 1
+
+        where:
+            request | exception
+            get     | { Request req -> new HttpClientException(buildResponse(req, 404, "missing")) }
+            get     | { Request req -> new NoResponseException(new SocketTimeoutException("timeout"), req) }
+            post    | { Request req -> new HttpServerException(buildResponse(req, 503, "unavailable")) }
+    }
+
+    def "retries status codes of responses that are not exceptional"() {
+        given:
+            def resilience = new Resilience(retryPolicy, null, null)
+            int attempts = 0
+
+        when:
+            HttpResponse response = resilience.execute(get, { request ->
+                attempts++
+                return buildResponse(request, 502, "bad gateway")
+            })
+
+        then:
+            response.statusCode == 502
+            attempts == 3
+    }
+
+    def "retry budget caps retries to a fraction of requests"() {
+        given:
+            def budget = new RetryBudget(0.1, 1)
+            def resilience = new Resilience(retryPolicy, budget, null)
+            int attempts = 0
+
+        when:
+            10.times {
+                try {
+                    resilience.execute(get, { request ->
+                        attempts++
+                        throw new HttpServerException(buildResponse(request, 503, "unavailable"))
+                    })
+                } catch (HttpServerException ignored) {
+                }
+            }
+
+        then: 'the reserve of 1 retry plus 1 retry per 10 requests'
+            budget.retryCount == 2
+            budget.requestCount == 10
+            attempts == 12
+    }
+
+    def "an open circuit breaker fails fast without sending the request"() {
+        given:
+            def breaker = new CircuitBreaker(2, Duration.ofMinutes(1))
+            def resilience = new Resilience(new RetryPolicy().setMaxAttempts(1), null, breaker)
+            int attempts = 0
+            def failing = { Request request ->
+                attempts++
+                throw new NoResponseException(new IOException("refused"), request)
+            }
+
+        when:
+            2.times {
+                try { resilience.execute(get, failing) } catch (NoResponseException ignored) {}
+            }
+            resilience.execute(get, failing)
+
+        then:
+            thrown(CircuitBreakerOpenException)
+            attempts == 2
+            breaker.getState(get.url()) == CircuitBreaker.State.OPEN
+
+        and: 'other hosts are unaffected'
+            breaker.getState(HttpUrl.get("http://otherhost/")) == CircuitBreaker.State.CLOSED
+    }
+
+    def "a half-open circuit breaker closes after a successful trial request"() {
+        given:
+            def breaker = new CircuitBreaker(1, Duration.ZERO)
+            def resilience = new Resilience(new RetryPolicy().setMaxAttempts(1), null, breaker)
+
+        when:
+            try {
+                resilience.execute(get, { request -> throw new HttpServerException(buildResponse(request, 500, "error")) })
+            } catch (HttpServerException ignored) {}
+
+        then:
+            breaker.getState(get.url()) == CircuitBreaker.State.OPEN
+
+        when:
+            resilience.execute(get, { request -> buildEmpty200ResponseFor(request) })
+
+        then:
+            breaker.getState(get.url()) == CircuitBreaker.State.CLOSED
+    }
+
+    def "a half-open trial whose outcome is never recorded is presumed lost after the open duration"() {
+        given:
+            long nowNanos = 0
+            def breaker = new CircuitBreaker(1, Duration.ofSeconds(10), { -> nowNanos } as LongSupplier)
+            breaker.onFailure(get.url())
+
+        when:
+            nowNanos += Duration.ofSeconds(10).toNanos()
+
+        then: 'a single trial is let through'
+            breaker.tryAcquire(get.url())
+            !breaker.tryAcquire(get.url())
+            breaker.getState(get.url()) == CircuitBreaker.State.HALF_OPEN
+
+        when:
+            nowNanos += Duration.ofSeconds(10).toNanos()
+
+        then: 'another trial is let through once the first has been in-flight for the open duration'
+            breaker.tryAcquire(get.url())
+            !breaker.tryAcquire(get.url())
+    }
+
+    def "a rate limited half-open trial hands its permit back to the circuit breaker"() {
+        given:
+            long nowNanos = 0
+            def breaker = new CircuitBreaker(1, Duration.ofSeconds(10), { -> nowNanos } as LongSupplier)
+            def resilience = new Resilience(retryPolicy, null, breaker)
+            int attempts = 0
+            breaker.onFailure(get.url())
+            nowNanos += Duration.ofSeconds(10).toNanos()
+
+        when:
+            resilience.execute(get, { request ->
+                attempts++
+                throw new RateLimitExceededException(request, Duration.ofSeconds(1))
+            })
+
+        then:
+            thrown(RateLimitExceededException)
+            attempts == 1
+            breaker.getState(get.url()) == CircuitBreaker.State.HALF_OPEN
+
+        when:
+            HttpResponse response = resilience.execute(get, { request -> buildEmpty200ResponseFor(request) })
+
+        then: 'the next request is let through as the trial'
+            response.is200()
+            breaker.getState(get.url()) == CircuitBreaker.State.CLOSED
+    }
+
+    def "requests rejected by the concurrency limiter are neither retried nor counted by the circuit breaker"() {
+        given:
+            long nowNanos = 0
+            def breaker = new CircuitBreaker(1, Duration.ofSeconds(10), { -> nowNanos } as LongSupplier)
+            def resilience = new Resilience(retryPolicy, null, breaker)
+            def limiter = new AdaptiveConcurrencyLimiter({ new AimdLimit().setInitialLimit(1).setMaxLimit(1) } as Supplier)
+                    .setMaxQueueSize(0)
+            def requestHandling = new HttpRequestHandling() {
+                @Override
+                Resilience getResilience() { resilience }
+
+                @Override
+                AdaptiveConcurrencyLimiter getConcurrencyLimiter() { limiter }
+            }
+
+        and: 'the only slot is taken & the circuit is half-open'
+            limiter.acquire(get)
+            breaker.onFailure(get.url())
+            nowNanos += Duration.ofSeconds(10).toNanos()
+
+        when:
+            requestHandling.executeRequest(get)
+
+        then:
+            thrown(ConcurrencyLimitExceededException)
+            !retryPolicy.shouldRetry(get, new ConcurrencyLimitExceededException(get, 1), 1)
+
+        and: 'the half-open trial was handed back'
+            breaker.getState(get.url()) == CircuitBreaker.State.HALF_OPEN
+            breaker.tryAcquire(get.url())
+    }
+
+    def "an unexpected exception counts as a failure towards the circuit breaker"() {
+        given:
+            def breaker = new CircuitBreaker(1, Duration.ZERO)
+            def resilience = new Resilience(new RetryPolicy().setMaxAttempts(1), null, breaker)
+            breaker.onFailure(get.url())
+
+        when: 'the half-open trial fails unexpectedly'
+            resilience.execute(get, { request -> throw new IllegalStateException("bug") })
+
+        then:
+            thrown(IllegalStateException)
+            breaker.getState(get.url()) == CircuitBreaker.State.OPEN
+    }
+
+    def "executeRequest applies the resilience from getResilience"() {
+        given:
+            int attempts = 0
+            def resilience = new Resilience(retryPolicy, null, null)
+            def requestHandling = new HttpRequestHandling() {
+                @Override
+                Resilience getResilience() { resilience }
+
+                @Override
+                HttpResponse executeAttempt(Request request) {
+                    if (++attempts < 3) throw new HttpServerException(buildResponse(request, 504, "timeout"))
+                    return buildEmpty200ResponseFor(request)
+                }
+            }
+
+        when:
+            HttpResponse response = requestHandling.executeGET("http://localhost/resource")
+
+        then:
+            response.is200()
+            attempts == 3
+    }
+
+    def "requests without a body and streaming requests fail fast while the circuit breaker is open"() {
+        given:
+            def breaker = new CircuitBreaker(1, Duration.ofMinutes(1))
+            def resilience = new Resilience(retryPolicy, null, breaker)
+            def requestHandling = new HttpRequestHandling() {
+                @Override
+                Resilience getResilience() { resilience }
+            }
+            breaker.onFailure(get.url())
+
+        when:
+            requestHandling.executeRequestWithoutBody(get)
+
+        then:
+            thrown(CircuitBreakerOpenException)
+
+        when:
+            requestHandling.executeStreamingRequest(get)
+
+        then:
+            thrown(CircuitBreakerOpenException)
+    }
+
+    def "streamed responses that are retried are closed"() {
+        given:
+            def resilience = new Resilience(retryPolicy, null, null)
+            List<Integer> closedStatusCodes = []
+            def streamed = { Request request, int statusCode ->
+                new StreamingHttpResponse(buildResponse(request, statusCode, "")) {
+                    @Override
+                    void close() {
+                        closedStatusCodes << statusCode
+                        super.close()
+                    }
+                }
+            }
+            int attempts = 0
+
+        when:
+            StreamingHttpResponse response = resilience.executeStreaming(get, { request ->
+                return ++attempts < 3 ? streamed(request, 503) : streamed(request, 200)
+            } as StreamingRequestExecutor)
+
+        then:
+            response.statusCode == 200
+            closedStatusCodes == [503, 503]
+    }
+
+    def "backoff is jittered between zero and the capped exponential backoff"() {
+        given:
+            def policy = new RetryPolicy()
+                    .setInitialBackoff(Duration.ofMillis(100))
+                    .setMaxBackoff(Duration.ofMillis(300))
+
+        expect:
+            (1..50).every { policy.backoffBefore(1).toMillis() <= 100 }
+            (1..50).every { policy.backoffBefore(5).toMillis() <= 300 }
+    }
+}
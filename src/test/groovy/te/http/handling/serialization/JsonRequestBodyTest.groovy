@@ -0,0 +1,42 @@
+package te.http.handling.serialization
+
+import okio.Buffer
+import spock.lang.Specification
+import te.http.handling.JsonMarshalling
+
+import java.time.LocalDate
+
+class JsonRequestBodyTest extends Specification {
+
+    def gson = new JsonMarshalling() {}.getJsonMarshaller()
+
+    def "writes the object as UTF-8 encoded JSON straight into the sink"() {
+        given:
+            def content = [name: 'Zoë 😀', date: LocalDate.parse("2018-09-10"), tags: ['a', 'b']]
+            def body = new JsonRequestBody(gson, content)
+            def sink = new Buffer()
+
+        when:
+            body.writeTo(sink)
+
+        then:
+            sink.readUtf8() == gson.toJson(content)
+            body.contentType().toString() == 'application/json; charset=utf-8'
+            body.contentLength() == -1
+    }
+
+    def "can be written more than once"() {
+        given:
+            def body = new JsonRequestBody(gson, [some: 'json'])
+            def first = new Buffer()
+            def second = new Buffer()
+
+        when:
+            body.writeTo(first)
+            body.writeTo(second)
+
+        then:
+            first.readUtf8() == '{"some":"json"}'
+            second.readUtf8() == '{"some":"json"}'
+    }
+}
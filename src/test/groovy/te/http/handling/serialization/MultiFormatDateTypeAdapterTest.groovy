@@ -0,0 +1,39 @@
+package te.http.handling.serialization
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.LocalDate
+import java.time.LocalDateTime
+
+class MultiFormatDateTypeAdapterTest extends Specification {
+
+    @Unroll
+    def "#adapter.class.simpleName writes #value in ISO-8601"() {
+        expect:
+            adapter.toJson(value) == json
+
+        where:
+            adapter                        | value                                        || json
+            new JavaDateTypeAdapter()      | Date.parse("MM/dd/yyyy", "01/02/2017")       || '"2017-01-02"'
+            new LocalDateTypeAdapter()     | LocalDate.parse("2017-01-02")                || '"2017-01-02"'
+            new LocalDateTimeTypeAdapter() | LocalDateTime.parse("2017-01-02T12:13:14")   || '"2017-01-02T12:13:14"'
+            new LocalDateTypeAdapter()     | null                                         || 'null'
+    }
+
+    @Unroll
+    def "#adapter.class.simpleName reads #json"() {
+        expect:
+            adapter.fromJson(json) == value
+
+        where:
+            adapter                        | json                    || value
+            new JavaDateTypeAdapter()      | '"01/02/2017"'          || Date.parse("MM/dd/yyyy", "01/02/2017")
+            new JavaDateTypeAdapter()      | '1508507424'            || new Date(1508507424L)
+            new LocalDateTypeAdapter()     | '"01-02-2017"'          || LocalDate.parse("2017-01-02")
+            new LocalDateTypeAdapter()     | '"2017-01-02"'          || LocalDate.parse("2017-01-02")
+            new LocalDateTimeTypeAdapter() | '"2017-01-02T12:13:14"' || LocalDateTime.parse("2017-01-02T12:13:14")
+            new LocalDateTimeTypeAdapter() | 'null'                  || null
+            new LocalDateTypeAdapter()     | '""'                    || null
+    }
+}
@@ -0,0 +1,120 @@
+package te.http.handling.template
+
+import okhttp3.Headers
+import okhttp3.Request
+import spock.lang.Specification
+import spock.lang.Subject
+import te.http.handling.GETRequestHandling
+import te.http.handling.HttpResponse
+
+import static te.http.TestHelper.buildEmpty200ResponseFor
+
+class RequestTemplateTest extends Specification {
+
+    Headers headers = new Headers.Builder().add("Accept", "application/json").build()
+
+    @Subject
+    RequestTemplate template = RequestTemplate.compile(
+            "http://localhost/users/{userId}/orders?status={status}&limit=10",
+            headers
+    )
+
+    def "binds path & query placeholders, URL encoding their values"() {
+        when:
+            Request request = template.bind()
+                    .set("userId", "a b/c")
+                    .set("status", "open & shipped")
+                    .build()
+
+        then:
+            request.method() == "GET"
+            request.headers() == headers
+            request.url().toString() == "http://localhost/users/a%20b%2Fc/orders?status=open%20%26%20shipped&limit=10"
+    }
+
+    def "unbound query placeholders are omitted"() {
+        expect:
+            template.bind().set("userId", 42).buildUrl().toString() == "http://localhost/users/42/orders?limit=10"
+    }
+
+    def "query parameters keep their order in the template, including those sharing a placeholder's name"() {
+        given:
+            def tagged = RequestTemplate.compile("http://localhost/items?tag=fixed&tag={tag}&sort=name&page={page}", headers)
+
+        expect:
+            tagged.bind().set("tag", "x").set("page", 2).buildUrl().toString() == "http://localhost/items?tag=fixed&tag=x&sort=name&page=2"
+            tagged.bind().set("page", 2).buildUrl().toString() == "http://localhost/items?tag=fixed&sort=name&page=2"
+    }
+
+    def "supports multi-valued query parameters"() {
+        expect:
+            template.bind()
+                    .set("userId", 42)
+                    .addQueryParameter("tag", "red", "blue")
+                    .buildUrl()
+                    .queryParameterValues("tag") == ["red", "blue"]
+    }
+
+    def "each binding is independent of the others"() {
+        when:
+            def first = template.bind().set("userId", 1)
+            def second = template.bind().set("userId", 2)
+
+        then:
+            first.buildUrl().pathSegments() == ["users", "1", "orders"]
+            second.buildUrl().pathSegments() == ["users", "2", "orders"]
+    }
+
+    def "unbound path placeholders are an error"() {
+        when:
+            template.bind().build()
+
+        then:
+            IllegalStateException exception = thrown()
+            exception.message.contains("{userId}")
+    }
+
+    def "binding an unknown placeholder is an error"() {
+        when:
+            template.bind().set("unknown", 1)
+
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    def "malformed templates are rejected when compiled"() {
+        when:
+            RequestTemplate.compile(urlTemplate, headers)
+
+        then:
+            thrown(IllegalArgumentException)
+
+        where:
+            urlTemplate << ["not a url", "http://localhost/{id}/{id}"]
+    }
+
+    def "executeGET() accepts a bound template and uses the default headers"() {
+        given:
+            Request executedRequest = null
+            def requestHandling = new GETRequestHandling() {
+                @Override
+                Headers getDefaultHeaders() {
+                    return headers
+                }
+
+                @Override
+                HttpResponse executeRequest(Request request) {
+                    executedRequest = request
+                    return buildEmpty200ResponseFor(request)
+                }
+            }
+            def users = requestHandling.compileGETTemplate("http://localhost/users/{userId}")
+
+        when:
+            requestHandling.executeGET(users.bind().set("userId", 7))
+
+        then:
+            executedRequest.url().toString() == "http://localhost/users/7"
+            executedRequest.headers() == headers
+    }
+}
@@ -0,0 +1,72 @@
+package te.http.handling.upload
+
+import okhttp3.MediaType
+import okhttp3.RequestBody
+import okio.Buffer
+import spock.lang.Specification
+
+class ProgressRequestBodyTest extends Specification {
+
+    MediaType textPlain = MediaType.parse("text/plain")
+
+    def "reports progress at most once per interval, and once complete"() {
+        given:
+            byte[] content = new byte[200_000]
+            List<UploadProgress> reports = []
+            def body = new ProgressRequestBody(RequestBody.create(textPlain, content), { reports << it })
+            def sink = new Buffer()
+
+        when:
+            body.writeTo(sink)
+
+        then:
+            sink.size() == content.length
+            body.contentLength() == content.length
+            body.contentType() == textPlain
+
+        and:
+            reports.size() >= 2
+            (1..<reports.size() - 1).every { reports[it].bytesWritten - reports[it - 1].bytesWritten >= ProgressRequestBody.REPORT_INTERVAL_BYTES }
+            reports.every { it.contentLength == content.length }
+            reports.last().bytesWritten == content.length
+            reports.last().complete
+            reports.last().fraction == 1
+            !reports.first().complete
+    }
+
+    def "reports the length of a body of unknown length once complete"() {
+        given:
+            List<UploadProgress> reports = []
+            def unknownLength = StreamingRequestBody.ofOneShot(textPlain, new ByteArrayInputStream('abc'.bytes), -1)
+            def body = new ProgressRequestBody(unknownLength, { reports << it })
+
+        when:
+            body.writeTo(new Buffer())
+
+        then:
+            reports.size() == 1
+            reports[0].bytesWritten == 3
+            reports[0].contentLength == 3
+            reports[0].complete
+    }
+
+    def "progress starts again each time the body is written"() {
+        given:
+            List<UploadProgress> reports = []
+            def body = new ProgressRequestBody(RequestBody.create(textPlain, 'abc'), { reports << it })
+
+        when:
+            body.writeTo(new Buffer())
+            body.writeTo(new Buffer())
+
+        then:
+            reports*.bytesWritten == [3, 3]
+    }
+
+    def "reports the throughput"() {
+        expect:
+            new UploadProgress(500, 1000, 1_000_000_000).bytesPerSecond == 500
+            new UploadProgress(500, 1000, 1_000_000_000).fraction == 0.5
+            new UploadProgress(500, -1, 0).fraction.isNaN()
+    }
+}
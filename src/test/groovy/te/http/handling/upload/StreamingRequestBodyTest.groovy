@@ -0,0 +1,112 @@
+package te.http.handling.upload
+
+import okhttp3.MediaType
+import okio.Buffer
+import spock.lang.Specification
+
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+class StreamingRequestBodyTest extends Specification {
+
+    MediaType textPlain = MediaType.parse("text/plain")
+    String content = 'x' * 200_000 + 'end'
+
+    Path file = Files.createTempFile("upload", ".txt")
+
+    def setup() {
+        file.text = content
+    }
+
+    def cleanup() {
+        Files.deleteIfExists(file)
+    }
+
+    def "streams a file, which can be written more than once"() {
+        given:
+            def body = StreamingRequestBody.of(textPlain, file)
+            def first = new Buffer()
+            def second = new Buffer()
+
+        when:
+            body.writeTo(first)
+            body.writeTo(second)
+
+        then:
+            body.contentLength() == content.length()
+            body.contentType() == textPlain
+            first.readUtf8() == content
+            second.readUtf8() == content
+    }
+
+    def "probes the content type of a file"() {
+        expect:
+            StreamingRequestBody.of(file).contentType() != null
+    }
+
+    def "streams part of a FileChannel without moving its position"() {
+        given:
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)
+            def body = StreamingRequestBody.of(textPlain, channel, 199_998, 5)
+            def sink = new Buffer()
+
+        when:
+            body.writeTo(sink)
+
+        then:
+            sink.readUtf8() == 'xxend'
+            body.contentLength() == 5
+            channel.position() == 0
+
+        cleanup:
+            channel.close()
+    }
+
+    def "fails if the file is shorter than its length"() {
+        given:
+            def body = StreamingRequestBody.of(textPlain, file)
+            file.text = 'short'
+
+        when:
+            body.writeTo(new Buffer())
+
+        then:
+            thrown(EOFException)
+    }
+
+    def "reopens the InputStream each time the body is written"() {
+        given:
+            def body = StreamingRequestBody.of(textPlain, { new ByteArrayInputStream('abc'.bytes) }, 3)
+            def first = new Buffer()
+            def second = new Buffer()
+
+        when:
+            body.writeTo(first)
+            body.writeTo(second)
+
+        then:
+            first.readUtf8() == 'abc'
+            second.readUtf8() == 'abc'
+    }
+
+    def "a one-shot InputStream can only be written once"() {
+        given:
+            def body = StreamingRequestBody.ofOneShot(textPlain, new ByteArrayInputStream('abc'.bytes), -1)
+            def sink = new Buffer()
+
+        when:
+            body.writeTo(sink)
+
+        then:
+            sink.readUtf8() == 'abc'
+            body.contentLength() == -1
+
+        when:
+            body.writeTo(sink)
+
+        then:
+            thrown(IOException)
+    }
+}